@@ -0,0 +1,120 @@
+package com.thalmic.myo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.archive.ArchiveReader;
+import com.thalmic.myo.archive.ArchiveWriter;
+import com.thalmic.myo.emg.EmgBatchListener;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.record.SessionRecorder;
+
+// Records a simulated multi-device session, archives it and prints the compression ratio against the flat
+// SessionRecorder log, then measures range query latency on the archive.
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArchiveBenchmark {
+	private static final Set<EventType> ORIENTATION = EnumSet.of(EventType.ORIENTATION);
+
+	@Param({ "4" })
+	public int devices;
+
+	@Param({ "10" })
+	public int minutes;
+
+	@Param({ "1000" })
+	public int windowMillis;
+
+	private File log;
+	private File archive;
+	private ArchiveReader reader;
+	private Random random;
+	private long start;
+	private long span;
+
+	@Setup
+	public void setUp() throws IOException {
+		log = File.createTempFile("session", ".myo");
+		archive = File.createTempFile("session", ".myoa");
+		SimulatedHub hub = new SimulatedHub(1);
+		for (int i = 0; i < devices; i++) {
+			hub.addDevice(new SimulatedDevice());
+		}
+		try (SessionRecorder recorder = new SessionRecorder(log)) {
+			hub.addListener(recorder);
+			hub.run(minutes * 60 * 1000);
+		}
+		ArchiveWriter.convert(log, archive);
+		System.out.println(String.format("%nlog %d bytes, archive %d bytes, compression ratio %.2f", log.length(), archive.length(), (double) log.length() / archive.length()));
+
+		reader = new ArchiveReader(archive);
+		random = new Random(1);
+		start = reader.getStartTimestamp();
+		span = reader.getEndTimestamp() - start - windowMillis * 1000L;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		reader.close();
+		log.delete();
+		archive.delete();
+	}
+
+	private long randomFrom() {
+		return start + (long) (random.nextDouble() * span);
+	}
+
+	@Benchmark
+	public long emgChannelRange(final Blackhole blackhole) throws IOException {
+		long from = randomFrom();
+		return reader.queryEmg(from, from + windowMillis * 1000L, new EmgBatchListener() {
+			@Override
+			public void onEmgBatch(Myo myo, long[] timestamps, byte[][] channels, int sampleCount) {
+				long sum = 0;
+				byte[] channel = channels[3];
+				for (int i = 0; i < sampleCount; i++) {
+					sum += channel[i];
+				}
+				blackhole.consume(sum);
+			}
+		});
+	}
+
+	@Benchmark
+	public long orientationRange(final Blackhole blackhole) throws IOException {
+		long from = randomFrom();
+		return reader.replay(from, from + windowMillis * 1000L, new AbstractDeviceListener() {
+			@Override
+			public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+				blackhole.consume(rotation);
+			}
+		}, ORIENTATION);
+	}
+}
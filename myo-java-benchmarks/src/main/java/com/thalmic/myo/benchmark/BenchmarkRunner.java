@@ -0,0 +1,30 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks in throughput and average time modes with the GC allocation profiler attached
+public class BenchmarkRunner {
+	public static void main(String[] args) throws RunnerException {
+		OptionsBuilder builder = new OptionsBuilder();
+		if (args.length == 0) {
+			builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+		}
+		for (String include : args) {
+			builder.include(include);
+		}
+		Options options = builder
+				.mode(Mode.Throughput)
+				.mode(Mode.AverageTime)
+				.timeUnit(TimeUnit.NANOSECONDS)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
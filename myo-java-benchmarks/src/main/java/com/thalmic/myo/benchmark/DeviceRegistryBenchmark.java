@@ -0,0 +1,90 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.device.DeviceRegistry;
+import com.thalmic.myo.device.DeviceState;
+
+// Device lookup and per-device state updates with tens of simulated armbands, against the ArrayList.indexOf
+// lookup PrintMyoEvents used before. simulatedSecond runs one second of every armband's events through the
+// registry.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeviceRegistryBenchmark {
+	@Param({ "1", "10", "50" })
+	public int devices;
+
+	private SimulatedHub hub;
+	private DeviceRegistry registry;
+	private List<Myo> knownMyos;
+	private Myo[] myos;
+	private Quaternion rotation;
+	private long timestamp;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		hub = new SimulatedHub(1);
+		registry = new DeviceRegistry();
+		knownMyos = new ArrayList<>();
+		myos = new Myo[devices];
+		for (int i = 0; i < devices; i++) {
+			myos[i] = hub.addDevice(new SimulatedDevice());
+			knownMyos.add(myos[i]);
+		}
+		hub.addListener(registry);
+		hub.run(100);
+		rotation = new Quaternion(0.1826, 0.3651, 0.5477, 0.7303);
+	}
+
+	private Myo nextMyo() {
+		if (++next == myos.length) {
+			next = 0;
+		}
+		return myos[next];
+	}
+
+	@Benchmark
+	public DeviceState registryLookup() {
+		return registry.get(nextMyo());
+	}
+
+	@Benchmark
+	public int indexOfLookup() {
+		return knownMyos.indexOf(nextMyo());
+	}
+
+	@Benchmark
+	public DeviceRegistry orientationUpdate() {
+		registry.onOrientationData(nextMyo(), ++timestamp, rotation);
+		return registry;
+	}
+
+	@Benchmark
+	public long simulatedSecond() {
+		hub.run(1000);
+		return hub.getEventCount();
+	}
+}
@@ -0,0 +1,90 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.gesture.GestureRecognizer;
+import com.thalmic.myo.gesture.KnnClassifier;
+import com.thalmic.myo.gesture.LdaClassifier;
+import com.thalmic.myo.gesture.TrainingSet;
+
+// Per-window inference cost of the gesture classifiers on gaussian class clusters of the recognizer's EMG
+// feature size. gc.alloc.rate.norm should read zero for both.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GestureClassifierBenchmark {
+	private static final int WINDOWS = 64;
+
+	@Param({ "8" })
+	public int classes;
+
+	@Param({ "200" })
+	public int samplesPerClass;
+
+	private LdaClassifier lda;
+	private KnnClassifier knn;
+	private double[][] windows;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		int features = GestureRecognizer.EMG_FEATURES;
+		Random random = new Random(1);
+		double[][] centres = new double[classes][features];
+		for (double[] centre : centres) {
+			for (int f = 0; f < features; f++) {
+				centre[f] = 10 * random.nextDouble();
+			}
+		}
+		TrainingSet set = new TrainingSet(features);
+		double[] sample = new double[features];
+		for (int i = 0; i < classes * samplesPerClass; i++) {
+			int label = i % classes;
+			sample(centres[label], random, sample);
+			set.add(sample, "gesture" + label);
+		}
+		lda = LdaClassifier.train(set);
+		knn = KnnClassifier.train(set, KnnClassifier.DEFAULT_K, samplesPerClass);
+		windows = new double[WINDOWS][features];
+		for (int i = 0; i < WINDOWS; i++) {
+			sample(centres[random.nextInt(classes)], random, windows[i]);
+		}
+	}
+
+	private static void sample(double[] centre, Random random, double[] dest) {
+		for (int f = 0; f < dest.length; f++) {
+			dest[f] = centre[f] + 2 * random.nextGaussian();
+		}
+	}
+
+	private double[] nextWindow() {
+		next = (next + 1) & (WINDOWS - 1);
+		return windows[next];
+	}
+
+	@Benchmark
+	public int lda() {
+		return lda.classify(nextWindow());
+	}
+
+	@Benchmark
+	public int knn() {
+		return knn.classify(nextWindow());
+	}
+}
@@ -0,0 +1,143 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.imu.ImuFrame;
+import com.thalmic.myo.imu.ImuFrameAssembler;
+import com.thalmic.myo.imu.ImuFrameListener;
+
+// One simulated second of orientation, accelerometer and gyroscope samples summed by a listener taking them as
+// Quaternion and Vector3 objects, as raw components, and as ImuFrames of 50 rows. gc.alloc.rate.norm shows the
+// per-sample objects the raw and frame paths no longer create.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImuFrameBenchmark {
+	private static final int IMU = EventMask.ORIENTATION | EventMask.IMU;
+
+	@Param({ "1", "10" })
+	public int devices;
+
+	private SimulatedHub objects;
+	private SimulatedHub raw;
+	private SimulatedHub frames;
+	private ImuFrameAssembler assembler;
+	private double sum;
+
+	@Setup
+	public void setUp() {
+		objects = hub();
+		objects.addListener(new ObjectSum());
+		raw = hub();
+		raw.addListener(new RawSum());
+		frames = hub();
+		assembler = new ImuFrameAssembler(50, Long.MAX_VALUE);
+		assembler.addListener(new ImuFrameListener() {
+			@Override
+			public void onImuFrame(ImuFrame frame) {
+				double[][] orientation = frame.getOrientation();
+				double[][] accelerometer = frame.getAccelerometer();
+				double[][] gyroscope = frame.getGyroscope();
+				for (int i = 0; i < frame.size(); i++) {
+					sum += orientation[3][i] + accelerometer[2][i] + gyroscope[0][i];
+				}
+			}
+		});
+		frames.addListener(assembler);
+	}
+
+	private SimulatedHub hub() {
+		SimulatedHub hub = new SimulatedHub(1);
+		for (int i = 0; i < devices; i++) {
+			hub.addDevice(new SimulatedDevice());
+		}
+		return hub;
+	}
+
+	@Benchmark
+	public double objects() {
+		objects.run(1000);
+		return sum;
+	}
+
+	@Benchmark
+	public double raw() {
+		raw.run(1000);
+		return sum;
+	}
+
+	@Benchmark
+	public double frames() {
+		frames.run(1000);
+		assembler.flush();
+		return sum;
+	}
+
+	private class ObjectSum extends AbstractDeviceListener implements EventSubscriber {
+		@Override
+		public int getEventMask() {
+			return IMU;
+		}
+
+		@Override
+		public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+			sum += rotation.getW();
+		}
+
+		@Override
+		public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+			sum += accel.getZ();
+		}
+
+		@Override
+		public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+			sum += gyro.getX();
+		}
+	}
+
+	private class RawSum extends AbstractDeviceListener implements EventSubscriber, RawImuListener {
+		@Override
+		public int getEventMask() {
+			return IMU;
+		}
+
+		@Override
+		public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+			sum += w;
+		}
+
+		@Override
+		public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+			sum += z;
+		}
+
+		@Override
+		public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+			sum += x;
+		}
+	}
+}
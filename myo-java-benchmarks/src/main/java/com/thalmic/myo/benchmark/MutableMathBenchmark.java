@@ -0,0 +1,66 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.MutableVector3;
+import com.thalmic.myo.Quaternion;
+
+// Counterparts of QuaternionBenchmark, Vector3Benchmark and OrientationBenchmark on the mutable classes.
+// gc.alloc.rate.norm should read zero for all of them.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class MutableMathBenchmark {
+	private static final int SCALE = 20;
+	private Quaternion sample;
+	private MutableQuaternion rotation;
+	private MutableQuaternion other;
+	private MutableQuaternion result;
+	private MutableVector3 vector;
+	private MutableVector3 vectorResult;
+
+	@Setup
+	public void setUp() {
+		sample = new Quaternion(0.1826, 0.3651, 0.5477, 0.7303);
+		rotation = new MutableQuaternion(sample);
+		other = new MutableQuaternion(-0.2, 0.4, 0.1, 0.9);
+		result = new MutableQuaternion();
+		vector = new MutableVector3(0.02, -0.98, 0.11);
+		vectorResult = new MutableVector3();
+	}
+
+	@Benchmark
+	public MutableQuaternion normalized() {
+		return rotation.normalized(result);
+	}
+
+	@Benchmark
+	public MutableQuaternion multiply() {
+		return rotation.multiply(other, result);
+	}
+
+	@Benchmark
+	public MutableVector3 rotate() {
+		return vector.rotate(rotation, vectorResult);
+	}
+
+	// The full orientation step of DataCollector.onOrientationData through a reused scratch quaternion
+	@Benchmark
+	public void orientationStep(Blackhole blackhole) {
+		result.set(sample).normalize();
+		blackhole.consume((result.roll() + Math.PI) / (Math.PI * 2.0) * SCALE);
+		blackhole.consume((result.pitch() + Math.PI / 2.0) / Math.PI * SCALE);
+		blackhole.consume((result.yaw() + Math.PI) / (Math.PI * 2.0) * SCALE);
+	}
+}
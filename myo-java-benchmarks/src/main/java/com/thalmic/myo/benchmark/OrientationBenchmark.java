@@ -0,0 +1,52 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.thalmic.myo.Quaternion;
+
+// The per-event work of DataCollector.onOrientationData. The examples are not part of the myo-java
+// artifact, so the computation is reproduced here verbatim.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class OrientationBenchmark {
+	private static final int SCALE = 20;
+	private Quaternion rotation;
+
+	@Setup
+	public void setUp() {
+		rotation = new Quaternion(0.1826, 0.3651, 0.5477, 0.7303);
+	}
+
+	@Benchmark
+	public void dataCollectorOrientation(Blackhole blackhole) {
+		Quaternion normalized = rotation.normalized();
+
+		double roll = Math.atan2(2.0f * (normalized.getW() * normalized.getX() + normalized.getY() * normalized.getZ()), 1.0f - 2.0f * (normalized.getX() * normalized.getX() + normalized.getY() * normalized.getY()));
+		double pitch = Math.asin(2.0f * (normalized.getW() * normalized.getY() - normalized.getZ() * normalized.getX()));
+		double yaw = Math.atan2(2.0f * (normalized.getW() * normalized.getZ() + normalized.getX() * normalized.getY()), 1.0f - 2.0f * (normalized.getY() * normalized.getY() + normalized.getZ() * normalized.getZ()));
+
+		blackhole.consume((roll + Math.PI) / (Math.PI * 2.0) * SCALE);
+		blackhole.consume((pitch + Math.PI / 2.0) / Math.PI * SCALE);
+		blackhole.consume((yaw + Math.PI) / (Math.PI * 2.0) * SCALE);
+	}
+
+	// The three trigonometric calls on their own, without the normalisation and its allocation
+	@Benchmark
+	public void eulerAngles(Blackhole blackhole) {
+		double x = rotation.getX(), y = rotation.getY(), z = rotation.getZ(), w = rotation.getW();
+		blackhole.consume(Math.atan2(2.0 * (w * x + y * z), 1.0 - 2.0 * (x * x + y * y)));
+		blackhole.consume(Math.asin(2.0 * (w * y - z * x)));
+		blackhole.consume(Math.atan2(2.0 * (w * z + x * y), 1.0 - 2.0 * (y * y + z * z)));
+	}
+}
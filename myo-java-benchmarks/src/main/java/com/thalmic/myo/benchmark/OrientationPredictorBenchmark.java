@@ -0,0 +1,105 @@
+package com.thalmic.myo.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.imu.OrientationPredictor;
+import com.thalmic.myo.record.SessionRecorder;
+import com.thalmic.myo.record.SessionReplayer;
+
+// Cost of one orientation and gyroscope sample pair through the predictor, replayed from a recorded session held
+// in arrays so the replayer itself is not measured. gc.alloc.rate.norm should be zero. Prediction accuracy on the
+// same kind of recording is reported by the PredictionAccuracy example.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrientationPredictorBenchmark {
+	@Param({ "NONE", "COMPLEMENTARY", "KALMAN" })
+	public OrientationPredictor.Smoothing smoothing;
+
+	private OrientationPredictor predictor;
+	private long[] timestamps;
+	private double[][] samples;
+	private int count;
+	private int next;
+	private long offset;
+
+	@Setup
+	public void setUp() throws IOException {
+		File file = File.createTempFile("predictor", ".myolog");
+		file.deleteOnExit();
+		SimulatedHub hub = new SimulatedHub(11);
+		SimulatedDevice device = new SimulatedDevice();
+		device.setPoseRate(0);
+		hub.addDevice(device);
+		try (SessionRecorder recorder = new SessionRecorder(file)) {
+			hub.addListener(recorder);
+			hub.run(60000);
+		}
+		timestamps = new long[4096];
+		samples = new double[4096][];
+		try (SessionReplayer replayer = new SessionReplayer(file)) {
+			replayer.addListener(new AbstractDeviceListener() {
+				@Override
+				public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+					if (count == timestamps.length) {
+						timestamps = Arrays.copyOf(timestamps, count * 2);
+						samples = Arrays.copyOf(samples, count * 2);
+					}
+					timestamps[count] = timestamp;
+					samples[count] = new double[] { rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW(), 0, 0, 0 };
+					count++;
+				}
+
+				@Override
+				public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+					if (count > 0 && timestamps[count - 1] == timestamp) {
+						double[] sample = samples[count - 1];
+						sample[4] = gyro.getX();
+						sample[5] = gyro.getY();
+						sample[6] = gyro.getZ();
+					}
+				}
+			});
+			replayer.replayAll();
+		}
+		predictor = new OrientationPredictor(smoothing, 80, TimeUnit.MILLISECONDS);
+	}
+
+	@Benchmark
+	public double sample() {
+		if (next == count) {
+			// Wrapping around, time keeps moving forward
+			next = 0;
+			offset += timestamps[count - 1] - timestamps[0] + 20000;
+		}
+		long timestamp = timestamps[next] + offset;
+		double[] sample = samples[next++];
+		predictor.onOrientation(null, timestamp, sample[0], sample[1], sample[2], sample[3]);
+		predictor.onGyroscope(null, timestamp, sample[4], sample[5], sample[6]);
+		return predictor.getPitch();
+	}
+}
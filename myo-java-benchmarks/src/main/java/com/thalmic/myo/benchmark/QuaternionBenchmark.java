@@ -0,0 +1,54 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class QuaternionBenchmark {
+	private Quaternion rotation;
+	private Quaternion other;
+	private Vector3 axis;
+	private double angle;
+
+	@Setup
+	public void setUp() {
+		// A slightly denormalised sample, as the armband delivers them
+		rotation = new Quaternion(0.1826, 0.3651, 0.5477, 0.7303);
+		other = new Quaternion(-0.2, 0.4, 0.1, 0.9);
+		axis = new Vector3(0, 0, 1);
+		angle = 0.35;
+	}
+
+	@Benchmark
+	public Quaternion normalized() {
+		return rotation.normalized();
+	}
+
+	@Benchmark
+	public Quaternion multiply() {
+		return rotation.multiply(other);
+	}
+
+	@Benchmark
+	public Quaternion conjugate() {
+		return rotation.conjugate();
+	}
+
+	@Benchmark
+	public Quaternion fromAxisAngle() {
+		return Quaternion.fromAxisAngle(axis, angle);
+	}
+}
@@ -0,0 +1,120 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.CompositeListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.OrientationListener;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+
+// One simulated second of every armband's events delivered to an orientation-only collector doing the work of
+// DataCollector.onOrientationData, which is reproduced here as the examples are not part of the myo-java
+// artifact. allEvents registers it behind a plain listener that receives every type, as before subscription
+// masks; subscribed registers it with its own mask; orientationOnly registers just an OrientationListener. The
+// difference is the IMU, EMG and status events neither built nor dispatched. gc.alloc.rate.norm shows the
+// Quaternion, Vector3 and byte[] allocations saved.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubscriptionMaskBenchmark {
+	@Param({ "1", "10" })
+	public int devices;
+
+	private SimulatedHub allEvents;
+	private SimulatedHub subscribed;
+	private SimulatedHub orientationOnly;
+
+	@Setup
+	public void setUp() {
+		final OrientationCollector collector = new OrientationCollector();
+		allEvents = hub();
+		allEvents.addListener(new AbstractDeviceListener() {
+			@Override
+			public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+				collector.onOrientationData(myo, timestamp, rotation);
+			}
+		});
+		subscribed = hub();
+		subscribed.addListener(collector);
+		orientationOnly = hub();
+		orientationOnly.addListener(new CompositeListener(new OrientationListener() {
+			@Override
+			public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+				collector.onOrientationData(myo, timestamp, rotation);
+			}
+		}));
+	}
+
+	private SimulatedHub hub() {
+		SimulatedHub hub = new SimulatedHub(1);
+		for (int i = 0; i < devices; i++) {
+			SimulatedDevice device = new SimulatedDevice();
+			device.setPoseRate(0);
+			hub.addDevice(device);
+		}
+		return hub;
+	}
+
+	@Benchmark
+	public long allEvents() {
+		allEvents.run(1000);
+		return allEvents.getEventCount();
+	}
+
+	@Benchmark
+	public long subscribed() {
+		subscribed.run(1000);
+		return subscribed.getEventCount();
+	}
+
+	@Benchmark
+	public long orientationOnly() {
+		orientationOnly.run(1000);
+		return orientationOnly.getEventCount();
+	}
+
+	private static final class OrientationCollector extends AbstractDeviceListener implements EventSubscriber {
+		private static final int SCALE = 20;
+		private double rollW;
+		private double pitchW;
+		private double yawW;
+
+		@Override
+		public int getEventMask() {
+			return EventMask.ORIENTATION;
+		}
+
+		@Override
+		public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+			Quaternion normalized = rotation.normalized();
+
+			double roll = Math.atan2(2.0f * (normalized.getW() * normalized.getX() + normalized.getY() * normalized.getZ()), 1.0f - 2.0f * (normalized.getX() * normalized.getX() + normalized.getY() * normalized.getY()));
+			double pitch = Math.asin(2.0f * (normalized.getW() * normalized.getY() - normalized.getZ() * normalized.getX()));
+			double yaw = Math.atan2(2.0f * (normalized.getW() * normalized.getZ() + normalized.getX() * normalized.getY()), 1.0f - 2.0f * (normalized.getY() * normalized.getY() + normalized.getZ() * normalized.getZ()));
+
+			rollW = (roll + Math.PI) / (Math.PI * 2.0) * SCALE;
+			pitchW = (pitch + Math.PI / 2.0) / Math.PI * SCALE;
+			yawW = (yaw + Math.PI) / (Math.PI * 2.0) * SCALE;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.thalmic.myo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class Vector3Benchmark {
+	private Quaternion rotation;
+	private Vector3 vector;
+	private Vector3 other;
+
+	@Setup
+	public void setUp() {
+		rotation = new Quaternion(0.1826, 0.3651, 0.5477, 0.7303).normalized();
+		vector = new Vector3(0.02, -0.98, 0.11);
+		other = new Vector3(1, 0, 0);
+	}
+
+	@Benchmark
+	public Vector3 rotate() {
+		return Vector3.rotate(rotation, vector);
+	}
+
+	@Benchmark
+	public Vector3 cross() {
+		return vector.cross(other);
+	}
+
+	@Benchmark
+	public Vector3 normalized() {
+		return vector.normalized();
+	}
+
+	@Benchmark
+	public double angleTo() {
+		return vector.angleTo(other);
+	}
+}
@@ -0,0 +1,178 @@
+package com.thalmic.myo;
+
+import java.util.Arrays;
+
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Combines listeners implementing only the typed interfaces, such as an OrientationListener and a PoseListener,
+// into one DeviceListener whose event mask is the union of theirs. Each callback goes straight to the listeners
+// that subscribed to its type.
+public final class CompositeListener implements DeviceListener, EventSubscriber {
+	private static final int PAIR = EventType.PAIR.ordinal();
+	private static final int UNPAIR = EventType.UNPAIR.ordinal();
+	private static final int CONNECT = EventType.CONNECT.ordinal();
+	private static final int DISCONNECT = EventType.DISCONNECT.ordinal();
+	private static final int ARM_SYNC = EventType.ARM_SYNC.ordinal();
+	private static final int ARM_UNSYNC = EventType.ARM_UNSYNC.ordinal();
+	private static final int UNLOCK = EventType.UNLOCK.ordinal();
+	private static final int LOCK = EventType.LOCK.ordinal();
+	private static final int POSE = EventType.POSE.ordinal();
+	private static final int ORIENTATION = EventType.ORIENTATION.ordinal();
+	private static final int ACCELEROMETER = EventType.ACCELEROMETER.ordinal();
+	private static final int GYROSCOPE = EventType.GYROSCOPE.ordinal();
+	private static final int RSSI = EventType.RSSI.ordinal();
+	private static final int BATTERY_LEVEL = EventType.BATTERY_LEVEL.ordinal();
+	private static final int EMG = EventType.EMG.ordinal();
+	private static final int WARMUP_COMPLETED = EventType.WARMUP_COMPLETED.ordinal();
+
+	// Listeners by EventType ordinal
+	private final Object[][] listeners = new Object[EventType.values().length][];
+	private final int eventMask;
+
+	// Each listener must implement at least one typed listener interface; an EventSubscriber among them
+	// narrows what it gets to its own mask
+	public CompositeListener(Object... parts) {
+		int mask = EventMask.NONE;
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i] = new Object[0];
+		}
+		for (Object part : parts) {
+			int partMask = EventMask.forListener(part);
+			if (partMask == EventMask.NONE) {
+				throw new IllegalArgumentException("Listener must implement a typed listener interface, was " + part.getClass().getName());
+			}
+			for (EventType type : EventType.values()) {
+				if (EventMask.contains(partMask, type)) {
+					Object[] current = listeners[type.ordinal()];
+					Object[] updated = Arrays.copyOf(current, current.length + 1);
+					updated[current.length] = part;
+					listeners[type.ordinal()] = updated;
+				}
+			}
+			mask |= partMask;
+		}
+		this.eventMask = mask;
+	}
+
+	@Override
+	public int getEventMask() {
+		return eventMask;
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		for (Object listener : listeners[PAIR]) {
+			((LifecycleListener) listener).onPair(myo, timestamp, firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		for (Object listener : listeners[UNPAIR]) {
+			((LifecycleListener) listener).onUnpair(myo, timestamp);
+		}
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		for (Object listener : listeners[CONNECT]) {
+			((LifecycleListener) listener).onConnect(myo, timestamp, firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		for (Object listener : listeners[DISCONNECT]) {
+			((LifecycleListener) listener).onDisconnect(myo, timestamp);
+		}
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		for (Object listener : listeners[ARM_SYNC]) {
+			((LifecycleListener) listener).onArmSync(myo, timestamp, arm, xDirection, rotation, warmupState);
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		for (Object listener : listeners[ARM_UNSYNC]) {
+			((LifecycleListener) listener).onArmUnsync(myo, timestamp);
+		}
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		for (Object listener : listeners[UNLOCK]) {
+			((LifecycleListener) listener).onUnlock(myo, timestamp);
+		}
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		for (Object listener : listeners[LOCK]) {
+			((LifecycleListener) listener).onLock(myo, timestamp);
+		}
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		for (Object listener : listeners[POSE]) {
+			((PoseListener) listener).onPose(myo, timestamp, pose);
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		for (Object listener : listeners[ORIENTATION]) {
+			((OrientationListener) listener).onOrientationData(myo, timestamp, rotation);
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		for (Object listener : listeners[ACCELEROMETER]) {
+			((ImuListener) listener).onAccelerometerData(myo, timestamp, accel);
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		for (Object listener : listeners[GYROSCOPE]) {
+			((ImuListener) listener).onGyroscopeData(myo, timestamp, gyro);
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		for (Object listener : listeners[RSSI]) {
+			((StatusListener) listener).onRssi(myo, timestamp, rssi);
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		for (Object listener : listeners[BATTERY_LEVEL]) {
+			((StatusListener) listener).onBatteryLevelReceived(myo, timestamp, level);
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		for (Object listener : listeners[EMG]) {
+			((EmgListener) listener).onEmgData(myo, timestamp, emg);
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		for (Object listener : listeners[WARMUP_COMPLETED]) {
+			((LifecycleListener) listener).onWarmupCompleted(myo, timestamp, warmupResult);
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.thalmic.myo;
+
+public interface EmgListener {
+	public void onEmgData(Myo myo, long timestamp, byte[] emg);
+}
@@ -0,0 +1,74 @@
+package com.thalmic.myo;
+
+import com.thalmic.myo.enums.EventType;
+
+// Sets of event types as int bit masks, one bit per EventType ordinal, with a mask for each typed listener
+// interface.
+public final class EventMask {
+	public static final int NONE = 0;
+	public static final int ALL = (1 << EventType.values().length) - 1;
+	public static final int LIFECYCLE = of(EventType.PAIR, EventType.UNPAIR, EventType.CONNECT, EventType.DISCONNECT, EventType.ARM_SYNC, EventType.ARM_UNSYNC, EventType.UNLOCK, EventType.LOCK, EventType.WARMUP_COMPLETED);
+	public static final int POSE = of(EventType.POSE);
+	public static final int ORIENTATION = of(EventType.ORIENTATION);
+	public static final int IMU = of(EventType.ACCELEROMETER, EventType.GYROSCOPE);
+	public static final int EMG = of(EventType.EMG);
+	public static final int STATUS = of(EventType.RSSI, EventType.BATTERY_LEVEL);
+
+	private EventMask() {
+	}
+
+	public static int of(EventType... types) {
+		int mask = NONE;
+		for (EventType type : types) {
+			mask |= bit(type);
+		}
+		return mask;
+	}
+
+	public static int bit(EventType type) {
+		return 1 << type.ordinal();
+	}
+
+	public static boolean contains(int mask, EventType type) {
+		return (mask & bit(type)) != 0;
+	}
+
+	// The types of the typed interfaces the listener implements, which for a DeviceListener is all of them,
+	// narrowed to its own mask if it is an EventSubscriber. A subscriber can not ask for types it has no
+	// callbacks for.
+	public static int forListener(Object listener) {
+		int mask = NONE;
+		if (listener instanceof LifecycleListener) {
+			mask |= LIFECYCLE;
+		}
+		if (listener instanceof PoseListener) {
+			mask |= POSE;
+		}
+		if (listener instanceof OrientationListener) {
+			mask |= ORIENTATION;
+		}
+		if (listener instanceof ImuListener) {
+			mask |= IMU;
+		}
+		if (listener instanceof EmgListener) {
+			mask |= EMG;
+		}
+		if (listener instanceof StatusListener) {
+			mask |= STATUS;
+		}
+		if (listener instanceof EventSubscriber) {
+			mask &= ((EventSubscriber) listener).getEventMask();
+		}
+		return mask;
+	}
+
+	public static String toString(int mask) {
+		StringBuilder builder = new StringBuilder("[");
+		for (EventType type : EventType.values()) {
+			if (contains(mask, type)) {
+				builder.append(builder.length() > 1 ? ", " : "").append(type);
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
@@ -0,0 +1,14 @@
+package com.thalmic.myo;
+
+// Anything that can pump events into a DeviceListener: the native Hub or a SimulatedHub
+public interface EventSource {
+	public Myo waitForMyo(int timeout);
+
+	public void addListener(DeviceListener listener);
+
+	public void removeListener(DeviceListener listener);
+
+	public void run(int duration);
+
+	public void runOnce(int duration);
+}
@@ -0,0 +1,9 @@
+package com.thalmic.myo;
+
+// A DeviceListener that only wants some event types. Sources that honour the mask, SimulatedHub and
+// ListenerDispatcher among them, neither build nor deliver the other types for it. The native Hub calls every
+// listener with every event regardless.
+public interface EventSubscriber {
+	// An EventMask, read once when the listener is added
+	public int getEventMask();
+}
@@ -5,16 +5,16 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import com.thalmic.myo.enums.LockingPolicy;
 
-public final class Hub {
-	private static final File TEMP_DIRECTORY_LOCATION = new File(System.getProperty("java.io.tmpdir"));
+public final class Hub implements EventSource {
+	private static final Object NATIVE_LOCK = new Object();
+	private static boolean nativeLoaded;
+	private static volatile long nativeLoadNanos;
+	private static volatile NativeLibraryCache.Entry nativeCacheEntry;
 	private long nativeHandle;
 	private final String applicationIdentifier;
 
@@ -46,48 +46,78 @@ public final class Hub {
 
 	private native void setLockingPolicy(int lockingPolicy);
 
-	private final void loadJniResources() {
-		String osName = System.getProperty("os.name").toLowerCase();
-		if (osName.contains("mac")) {
-			boolean wasLoadSuccessful = loadOSXResourceFromSysPath();
-			if (!wasLoadSuccessful) {
-				wasLoadSuccessful = copyAndLoadOSXFromTemp();
-				if (!wasLoadSuccessful) {
-					throw new UnsatisfiedLinkError("Could Not Load myo and myo-java libs");
-				}
+	// Loads the libraries once per process, from the system library path if they are installed, otherwise from
+	// the extraction cache
+	private static void loadJniResources() {
+		synchronized (NATIVE_LOCK) {
+			if (nativeLoaded) {
+				return;
 			}
-
-		} else if (osName.contains("win")) {
-			boolean wasLoadSuccessful = loadX64ResourcesFromSysPath();
-			if (!wasLoadSuccessful) {
-				wasLoadSuccessful = loadWin32ResourcesFromSysPath();
-				if (!wasLoadSuccessful) {
-					setLibDirectory();
-
-					wasLoadSuccessful = copyAndLoadX64FromTemp();
-					if (!wasLoadSuccessful) {
-						wasLoadSuccessful = copyAndLoadWin32FromTemp();
-						if (!wasLoadSuccessful) {
-							throw new UnsatisfiedLinkError("Could Not Load myo and myo-java libs");
-						}
+			long start = System.nanoTime();
+			String osName = System.getProperty("os.name").toLowerCase();
+			if (osName.contains("mac")) {
+				if (!loadFromSysPath("myo")) {
+					loadFromCache("osx", new String[] { "/osx/libmyo.jnilib", "/osx/myo.zip" }, "libmyo.jnilib");
+				}
+			} else if (osName.contains("win")) {
+				// The bitness of the JVM, not of Windows, decides which libraries it can load
+				if (is64BitVm()) {
+					if (!loadFromSysPath("myo64", "JNIJavaMyoLib64")) {
+						loadFromCache("x64", new String[] { "/x64/myo64.dll", "/x64/JNIJavaMyoLib.dll" }, "myo64.dll", "JNIJavaMyoLib.dll");
 					}
+				} else if (!loadFromSysPath("myo32", "JNIJavaMyoLib32")) {
+					loadFromCache("Win32", new String[] { "/Win32/myo32.dll", "/Win32/JNIJavaMyoLib.dll" }, "myo32.dll", "JNIJavaMyoLib.dll");
 				}
+			} else {
+				System.err.println("Your Operating System is not supported at this time.");
+				return;
+			}
+			nativeLoadNanos = System.nanoTime() - start;
+			nativeLoaded = true;
+		}
+	}
+
+	private static boolean is64BitVm() {
+		String dataModel = System.getProperty("sun.arch.data.model");
+		if (dataModel != null) {
+			return dataModel.equals("64");
+		}
+		return System.getProperty("os.arch").contains("64");
+	}
+
+	private static boolean loadFromSysPath(String... libraries) {
+		try {
+			for (String library : libraries) {
+				System.loadLibrary(library);
 			}
-		} else {
-			System.err.println("Your Operating System is not supported at this time.");
+			return true;
+		} catch (UnsatisfiedLinkError e) {
+			return false;
 		}
 	}
 
-	private void setLibDirectory() {
+	private static void loadFromCache(String name, String[] resources, String... libraries) {
 		try {
-			System.setProperty("java.library.path", TEMP_DIRECTORY_LOCATION.getAbsolutePath());
-			Field fieldSysPath = ClassLoader.class.getDeclaredField("sys_paths");
-			fieldSysPath.setAccessible(true);
-			fieldSysPath.set(null, null);
-		} catch (Exception e) {
-			e.printStackTrace();
+			NativeLibraryCache.Entry entry = NativeLibraryCache.getDefault().extract(Hub.class, name, resources);
+			for (String library : libraries) {
+				System.load(entry.getFile(library).getAbsolutePath());
+			}
+			nativeCacheEntry = entry;
+		} catch (IOException | UnsatisfiedLinkError e) {
+			UnsatisfiedLinkError error = new UnsatisfiedLinkError("Could Not Load myo and myo-java libs");
+			error.initCause(e);
+			throw error;
 		}
+	}
+
+	// Time the first Hub spent loading the native libraries, 0 until they are loaded
+	public static long getNativeLoadNanos() {
+		return nativeLoadNanos;
+	}
 
+	// Null if the libraries came from the system library path
+	public static NativeLibraryCache.Entry getNativeCacheEntry() {
+		return nativeCacheEntry;
 	}
 
 	public void unzipFile(InputStream inputStream, File destDirectory) throws IOException {
@@ -114,123 +144,4 @@ public final class Hub {
 			}
 		}
 	}
-
-	private boolean copyAndLoadOSXFromTemp() {
-		try {
-
-			File macMyoTempFile = new File(TEMP_DIRECTORY_LOCATION, "libmyo.jnilib");
-			try (InputStream macMyoInputStream = this.getClass().getResourceAsStream("/osx/libmyo.jnilib")) {
-				Files.copy(macMyoInputStream, macMyoTempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-			macMyoTempFile.deleteOnExit();
-
-			try (InputStream macMyoLibInputStream = this.getClass().getResourceAsStream("/osx/myo.zip")) {
-				unzipFile(macMyoLibInputStream, TEMP_DIRECTORY_LOCATION);
-			}
-
-			setLibDirectory();
-			System.loadLibrary("myo");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			e.printStackTrace();
-			String errorMessage = String.format("Unable to load %s from directory %s", "libmyo.jnilib", TEMP_DIRECTORY_LOCATION);
-			System.err.println(errorMessage);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return false;
-	}
-
-	private boolean loadOSXResourceFromSysPath() throws UnsatisfiedLinkError {
-		try {
-			System.loadLibrary("myo");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			String errorMessage = String.format("Unable to load myo from system directories.");
-			System.err.println(errorMessage);
-		}
-		return false;
-	}
-
-	private boolean loadX64ResourcesFromSysPath() throws UnsatisfiedLinkError {
-		try {
-			System.loadLibrary("myo64");
-			System.loadLibrary("JNIJavaMyoLib64");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			String errorMessage = String.format("Unable to load myo64 from system directories.");
-			System.err.println(errorMessage);
-		}
-		return false;
-	}
-
-	private boolean loadWin32ResourcesFromSysPath() throws UnsatisfiedLinkError {
-		try {
-			System.loadLibrary("myo32");
-			System.loadLibrary("JNIJavaMyoLib32");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			String errorMessage = String.format("Unable to load myo32 from system directories.");
-			System.err.println(errorMessage);
-		}
-		return false;
-	}
-
-	private boolean copyAndLoadX64FromTemp() {
-		try {
-			File myo64DllTempFile = new File(TEMP_DIRECTORY_LOCATION, "myo64.dll");
-			myo64DllTempFile.deleteOnExit();
-			try (InputStream myo64DllInputStream = this.getClass().getResourceAsStream("/x64/myo64.dll")) {
-				Files.copy(myo64DllInputStream, myo64DllTempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-
-			File jniJavaMyoLibDllTempFile = new File(TEMP_DIRECTORY_LOCATION, "JNIJavaMyoLib64.dll");
-			jniJavaMyoLibDllTempFile.deleteOnExit();
-			try (InputStream jniJavaMyoLibDllInputStream = this.getClass().getResourceAsStream("/x64/JNIJavaMyoLib.dll")) {
-				Files.copy(jniJavaMyoLibDllInputStream, jniJavaMyoLibDllTempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-
-			System.loadLibrary("myo64");
-			System.loadLibrary("JNIJavaMyoLib64");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			String errorMessage = String.format("Unable to load %s from directory %s.", "myo64.dll", TEMP_DIRECTORY_LOCATION);
-			System.err.println(errorMessage);
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-
-		return false;
-	}
-
-	private boolean copyAndLoadWin32FromTemp() {
-		try {
-			File myo32DllTempFile = new File(TEMP_DIRECTORY_LOCATION, "myo32.dll");
-			myo32DllTempFile.deleteOnExit();
-			try (InputStream myo32DllInputStream = this.getClass().getResourceAsStream("/Win32/myo32.dll")) {
-				Files.copy(myo32DllInputStream, myo32DllTempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-
-			File jniJavaMyoLibDllTempFile = new File(TEMP_DIRECTORY_LOCATION, "JNIJavaMyoLib32.dll");
-			jniJavaMyoLibDllTempFile.deleteOnExit();
-
-			try (InputStream jniJavaMyoLibDllInputStream = this.getClass().getResourceAsStream("/Win32/JNIJavaMyoLib.dll")) {
-				Files.copy(jniJavaMyoLibDllInputStream, jniJavaMyoLibDllTempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-
-			System.loadLibrary("myo32");
-			System.loadLibrary("JNIJavaMyoLib32");
-			return true;
-		} catch (UnsatisfiedLinkError e) {
-			String errorMessage = String.format("Unable to load %s from directory %s.", "myo32.dll", TEMP_DIRECTORY_LOCATION);
-			System.err.println(errorMessage);
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-
-		return false;
-	}
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.thalmic.myo;
+
+// Raw accelerometer and gyroscope samples; the fused orientation has its own OrientationListener
+public interface ImuListener {
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel);
+
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro);
+}
@@ -0,0 +1,27 @@
+package com.thalmic.myo;
+
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Pairing, connection, arm sync, lock and warmup callbacks
+public interface LifecycleListener {
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion);
+
+	public void onUnpair(Myo myo, long timestamp);
+
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion);
+
+	public void onDisconnect(Myo myo, long timestamp);
+
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState);
+
+	public void onArmUnsync(Myo myo, long timestamp);
+
+	public void onUnlock(Myo myo, long timestamp);
+
+	public void onLock(Myo myo, long timestamp);
+
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult);
+}
@@ -0,0 +1,145 @@
+package com.thalmic.myo;
+
+// Allocation free companion to Quaternion. Every operation gives bit-for-bit the same result as its
+// immutable counterpart. Methods taking a destination write into it and return it; the destination may
+// be one of the operands.
+public final class MutableQuaternion {
+	private double x;
+	private double y;
+	private double z;
+	private double w;
+
+	public MutableQuaternion() {
+		this(0, 0, 0, 1);
+	}
+
+	public MutableQuaternion(Quaternion quaternion) {
+		this(quaternion.getX(), quaternion.getY(), quaternion.getZ(), quaternion.getW());
+	}
+
+	public MutableQuaternion(double x, double y, double z, double w) {
+		set(x, y, z, w);
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public double getW() {
+		return w;
+	}
+
+	public MutableQuaternion set(double x, double y, double z, double w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+		return this;
+	}
+
+	public MutableQuaternion set(Quaternion quaternion) {
+		return set(quaternion.getX(), quaternion.getY(), quaternion.getZ(), quaternion.getW());
+	}
+
+	public MutableQuaternion set(MutableQuaternion quaternion) {
+		return set(quaternion.x, quaternion.y, quaternion.z, quaternion.w);
+	}
+
+	public MutableQuaternion setIdentity() {
+		return set(0, 0, 0, 1);
+	}
+
+	public MutableQuaternion multiply(MutableQuaternion rhs) {
+		return multiply(rhs, this);
+	}
+
+	public MutableQuaternion multiply(MutableQuaternion rhs, MutableQuaternion dest) {
+		return multiply(x, y, z, w, rhs.x, rhs.y, rhs.z, rhs.w, dest);
+	}
+
+	public MutableQuaternion normalize() {
+		return normalized(this);
+	}
+
+	public MutableQuaternion normalized(MutableQuaternion dest) {
+		double norm = Math.sqrt(x * x + y * y + z * z + w * w);
+		return dest.set(x / norm, y / norm, z / norm, w / norm);
+	}
+
+	public MutableQuaternion conjugate() {
+		return conjugate(this);
+	}
+
+	public MutableQuaternion conjugate(MutableQuaternion dest) {
+		return dest.set(-x, -y, -z, w);
+	}
+
+	public MutableQuaternion setFromAxisAngle(MutableVector3 axis, double angle) {
+		return set(axis.getX() * Math.sin(angle / 2), axis.getY() * Math.sin(angle / 2), axis.getZ() * Math.sin(angle / 2), Math.cos(angle / 2));
+	}
+
+	// Same as Quaternion.rotate(from, to): the rotation taking one vector onto the other
+	public MutableQuaternion setRotation(MutableVector3 from, MutableVector3 to) {
+		double cosTheta = from.dot(to);
+
+		if (cosTheta >= 1) {
+			return setIdentity();
+		}
+
+		double k = Math.sqrt(from.dot(from) * to.dot(to));
+
+		if (k <= 0) {
+			return setIdentity();
+		}
+
+		double tx = to.getX(), ty = to.getY(), tz = to.getZ();
+		if (cosTheta / k <= -1) {
+			// Opposite vectors, rotate about any axis perpendicular to from
+			boolean useXAxis = Math.abs(from.getX()) < 1;
+			tx = useXAxis ? 1 : 0;
+			ty = useXAxis ? 0 : 1;
+			tz = 0;
+			k = cosTheta = 0;
+		}
+		double fx = from.getX(), fy = from.getY(), fz = from.getZ();
+		double cx = fy * tz - fz * ty;
+		double cy = fz * tx - fx * tz;
+		double cz = fx * ty - fy * tx;
+
+		return set(cx, cy, cz, k + cosTheta);
+	}
+
+	// Euler angles in radians, with the conventions used by DataCollector. Normalise first.
+	public double roll() {
+		return Math.atan2(2.0 * (w * x + y * z), 1.0 - 2.0 * (x * x + y * y));
+	}
+
+	public double pitch() {
+		return Math.asin(2.0 * (w * y - z * x));
+	}
+
+	public double yaw() {
+		return Math.atan2(2.0 * (w * z + x * y), 1.0 - 2.0 * (y * y + z * z));
+	}
+
+	public Quaternion toQuaternion() {
+		return new Quaternion(x, y, z, w);
+	}
+
+	static MutableQuaternion multiply(double lx, double ly, double lz, double lw, double rx, double ry, double rz, double rw, MutableQuaternion dest) {
+		return dest.set(lw * rx + lx * rw + ly * rz - lz * ry, lw * ry - lx * rz + ly * rw + lz * rx, lw * rz + lx * ry - ly * rx + lz * rw, lw * rw - lx * rx - ly * ry - lz * rz);
+	}
+
+	@Override
+	public String toString() {
+		return "MutableQuaternion [x=" + x + ", y=" + y + ", z=" + z + ", w=" + w + "]";
+	}
+}
@@ -0,0 +1,100 @@
+package com.thalmic.myo;
+
+// Allocation free companion to Vector3, see MutableQuaternion
+public final class MutableVector3 {
+	private double x;
+	private double y;
+	private double z;
+
+	public MutableVector3() {
+		this(0, 0, 0);
+	}
+
+	public MutableVector3(Vector3 vector) {
+		this(vector.getX(), vector.getY(), vector.getZ());
+	}
+
+	public MutableVector3(double x, double y, double z) {
+		set(x, y, z);
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public MutableVector3 set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public MutableVector3 set(Vector3 vector) {
+		return set(vector.getX(), vector.getY(), vector.getZ());
+	}
+
+	public MutableVector3 set(MutableVector3 vector) {
+		return set(vector.x, vector.y, vector.z);
+	}
+
+	public double magnitude() {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+
+	public MutableVector3 normalize() {
+		return normalized(this);
+	}
+
+	public MutableVector3 normalized(MutableVector3 dest) {
+		double normal = magnitude();
+		return dest.set(x / normal, y / normal, z / normal);
+	}
+
+	public double dot(MutableVector3 rightHandSide) {
+		return x * rightHandSide.x + y * rightHandSide.y + z * rightHandSide.z;
+	}
+
+	public MutableVector3 cross(MutableVector3 rightHandSide) {
+		return cross(rightHandSide, this);
+	}
+
+	public MutableVector3 cross(MutableVector3 rightHandSide, MutableVector3 dest) {
+		return dest.set(y * rightHandSide.z - z * rightHandSide.y, z * rightHandSide.x - x * rightHandSide.z, x * rightHandSide.y - y * rightHandSide.x);
+	}
+
+	public double angleTo(MutableVector3 rightHandSide) {
+		return Math.acos(dot(rightHandSide) / (magnitude() * rightHandSide.magnitude()));
+	}
+
+	public MutableVector3 rotate(MutableQuaternion quat) {
+		return rotate(quat, this);
+	}
+
+	// Same arithmetic as Vector3.rotate: quat * (x, y, z, 0) * conjugate(quat), without the temporaries
+	public MutableVector3 rotate(MutableQuaternion quat, MutableVector3 dest) {
+		double qx = quat.getX(), qy = quat.getY(), qz = quat.getZ(), qw = quat.getW();
+		double tx = qw * x + qx * 0 + qy * z - qz * y;
+		double ty = qw * y - qx * z + qy * 0 + qz * x;
+		double tz = qw * z + qx * y - qy * x + qz * 0;
+		double tw = qw * 0 - qx * x - qy * y - qz * z;
+		double cx = -qx, cy = -qy, cz = -qz, cw = qw;
+		return dest.set(tw * cx + tx * cw + ty * cz - tz * cy, tw * cy - tx * cz + ty * cw + tz * cx, tw * cz + tx * cy - ty * cx + tz * cw);
+	}
+
+	public Vector3 toVector3() {
+		return new Vector3(x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return "MutableVector3 [x=" + x + ", y=" + y + ", z=" + z + "]";
+	}
+}
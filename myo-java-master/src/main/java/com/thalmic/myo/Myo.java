@@ -4,13 +4,31 @@ import com.thalmic.myo.enums.StreamEmgType;
 import com.thalmic.myo.enums.UnlockType;
 import com.thalmic.myo.enums.VibrationType;
 
-public final class Myo {
+// Not final only for the simulated subclass below; the constructor keeps others out
+public class Myo {
 	private long nativeHandle;
 
-	private Myo() {
+	Myo() {
+	}
+
+	// A Myo with no armband behind it, for simulated and replayed sessions. Device commands on it are ignored.
+	public static Myo createSimulated() {
+		return new Simulated(null);
+	}
+
+	static Myo createSimulated(SimulatedDevice simulator) {
+		return new Simulated(simulator);
+	}
+
+	// Devices created by a SimulatedHub or a replay have no native handle behind them
+	boolean isSimulated() {
+		return nativeHandle == 0;
 	}
 
 	public void vibrate(VibrationType type) {
+		if (isSimulated()) {
+			return;
+		}
 		vibrate(type.ordinal());
 	}
 
@@ -21,6 +39,9 @@ public final class Myo {
 	public native void requestBatteryLevel();
 	
 	public void unlock(UnlockType unlockType) {
+		if (isSimulated()) {
+			return;
+		}
 		unlock(unlockType.ordinal());
 	}
 
@@ -31,8 +52,66 @@ public final class Myo {
 	public native void notifyUserAction();
 
 	public void setStreamEmg(StreamEmgType streamEmgType) {
+		if (isSimulated()) {
+			return;
+		}
 		setStreamEmg(streamEmgType.ordinal());
 	}
 
 	private native void setStreamEmg(int streamEmgType);
-}
\ No newline at end of file
+
+	// Two Myo objects are the same armband when they share a native handle. Simulated ones are only equal to
+	// themselves.
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Myo)) {
+			return false;
+		}
+		Myo other = (Myo) obj;
+		return !isSimulated() && nativeHandle == other.nativeHandle;
+	}
+
+	@Override
+	public int hashCode() {
+		if (isSimulated()) {
+			return System.identityHashCode(this);
+		}
+		return (int) (nativeHandle ^ (nativeHandle >>> 32));
+	}
+
+	// The no-argument commands can not get a same-name private overload without changing the exported JNI
+	// symbols, which on 32-bit Windows carry the argument size, so a simulated Myo overrides them instead. RSSI
+	// and battery requests on a SimulatedHub device are answered with the device's next events.
+	private static final class Simulated extends Myo {
+		private final SimulatedDevice simulator;
+
+		private Simulated(SimulatedDevice simulator) {
+			this.simulator = simulator;
+		}
+
+		@Override
+		public void requestRssi() {
+			if (simulator != null) {
+				simulator.requestRssi();
+			}
+		}
+
+		@Override
+		public void requestBatteryLevel() {
+			if (simulator != null) {
+				simulator.requestBatteryLevel();
+			}
+		}
+
+		@Override
+		public void lock() {
+		}
+
+		@Override
+		public void notifyUserAction() {
+		}
+	}
+}
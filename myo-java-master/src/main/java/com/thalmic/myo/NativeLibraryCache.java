@@ -0,0 +1,281 @@
+package com.thalmic.myo;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Extracts bundled native libraries once into a directory named after a hash of their contents and reuses it on
+// later runs. The key comes from the CRCs the jar already records for its entries, so a warm start reads no
+// library bytes. A directory counts as complete only once its manifest, listing every file with its size and CRC,
+// has been written after the files were checked; later runs just compare sizes against it. Extraction holds a file
+// lock, so concurrent processes wait for one of them to finish rather than writing over each other. Resources
+// ending in .zip are unpacked into the directory, everything else is copied under its own file name.
+public final class NativeLibraryCache {
+	public static final String ROOT_PROPERTY = "myo.native.cache";
+
+	private static final String MANIFEST = ".manifest";
+	// FileLock is held per process, this keeps two threads of one process apart
+	private static final Object PROCESS_LOCK = new Object();
+
+	private final File root;
+
+	public NativeLibraryCache(File root) {
+		this.root = root;
+	}
+
+	// Under java.io.tmpdir unless the myo.native.cache system property names a directory
+	public static NativeLibraryCache getDefault() {
+		String root = System.getProperty(ROOT_PROPERTY);
+		if (root == null) {
+			return new NativeLibraryCache(new File(System.getProperty("java.io.tmpdir"), "myo-java-native"));
+		}
+		return new NativeLibraryCache(new File(root));
+	}
+
+	public File getRoot() {
+		return root;
+	}
+
+	// The directory holding the resources, extracting them first unless an earlier run already did
+	public Entry extract(Class<?> owner, String name, String... resources) throws IOException {
+		long start = System.nanoTime();
+		List<Checksum> checksums = new ArrayList<>();
+		for (String resource : resources) {
+			checksums.add(checksum(owner, resource));
+		}
+		File directory = new File(root, name + "-" + key(checksums));
+		long keyed = System.nanoTime();
+		if (isComplete(directory)) {
+			return new Entry(directory, true, keyed - start, 0, 0);
+		}
+
+		synchronized (PROCESS_LOCK) {
+			if (!root.isDirectory() && !root.mkdirs() && !root.isDirectory()) {
+				throw new IOException("Unable to create " + root);
+			}
+			try (RandomAccessFile lockFile = new RandomAccessFile(new File(root, directory.getName() + ".lock"), "rw")) {
+				FileLock lock = lockFile.getChannel().lock();
+				try {
+					long locked = System.nanoTime();
+					// Another process may have finished it while this one waited
+					if (isComplete(directory)) {
+						return new Entry(directory, true, keyed - start, locked - keyed, 0);
+					}
+					extract(owner, directory, checksums);
+					return new Entry(directory, false, keyed - start, locked - keyed, System.nanoTime() - locked);
+				} finally {
+					lock.release();
+				}
+			}
+		}
+	}
+
+	private static Checksum checksum(Class<?> owner, String resource) throws IOException {
+		URL url = owner.getResource(resource);
+		if (url == null) {
+			throw new IOException("Resource " + resource + " not found");
+		}
+		URLConnection connection = url.openConnection();
+		if (connection instanceof JarURLConnection) {
+			JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+			if (entry.getCrc() != -1 && entry.getSize() != -1) {
+				return new Checksum(resource, entry.getSize(), entry.getCrc());
+			}
+		}
+		// Outside a jar, e.g. from the build's class directory, the bytes have to be read
+		try (CheckedInputStream input = new CheckedInputStream(connection.getInputStream(), new CRC32())) {
+			byte[] buffer = new byte[8192];
+			long size = 0;
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				size += read;
+			}
+			return new Checksum(resource, size, input.getChecksum().getValue());
+		}
+	}
+
+	// A CRC rather than a MessageDigest, whose provider takes tens of milliseconds to initialise on a cold start
+	private static String key(List<Checksum> checksums) {
+		CRC32 crc = new CRC32();
+		long size = 0;
+		for (Checksum checksum : checksums) {
+			crc.update((checksum.resource + "\t" + checksum.size + "\t" + checksum.crc + "\n").getBytes(StandardCharsets.UTF_8));
+			size += checksum.size;
+		}
+		return Long.toHexString(size) + "-" + Long.toHexString(crc.getValue());
+	}
+
+	// Cheap enough for every start: one read of the manifest and a length per file
+	private static boolean isComplete(File directory) {
+		File manifest = new File(directory, MANIFEST);
+		if (!manifest.isFile()) {
+			return false;
+		}
+		try {
+			for (String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+				String[] fields = line.split("\t");
+				if (fields.length != 3 || new File(directory, fields[0]).length() != Long.parseLong(fields[1])) {
+					return false;
+				}
+			}
+			return true;
+		} catch (IOException | NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static void extract(Class<?> owner, File directory, List<Checksum> checksums) throws IOException {
+		// Whatever is there was left by an interrupted extraction
+		delete(directory);
+		if (!directory.mkdirs()) {
+			throw new IOException("Unable to create " + directory);
+		}
+		StringBuilder manifest = new StringBuilder();
+		for (Checksum checksum : checksums) {
+			try (InputStream input = owner.getResourceAsStream(checksum.resource)) {
+				if (checksum.resource.endsWith(".zip")) {
+					unzip(input, directory, manifest);
+				} else {
+					String name = checksum.resource.substring(checksum.resource.lastIndexOf('/') + 1);
+					long crc = copy(input, new File(directory, name));
+					if (crc != checksum.crc) {
+						throw new IOException("Checksum mismatch extracting " + checksum.resource);
+					}
+					manifest.append(name).append('\t').append(checksum.size).append('\t').append(crc).append('\n');
+				}
+			}
+		}
+		// Written last and moved into place, so a partial directory never looks complete
+		File staged = new File(directory, MANIFEST + ".tmp");
+		Files.write(staged.toPath(), manifest.toString().getBytes(StandardCharsets.UTF_8));
+		Files.move(staged.toPath(), new File(directory, MANIFEST).toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void unzip(InputStream input, File directory, StringBuilder manifest) throws IOException {
+		String base = directory.getCanonicalPath() + File.separator;
+		try (ZipInputStream zip = new ZipInputStream(input)) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				File file = new File(directory, entry.getName());
+				if (!file.getCanonicalPath().startsWith(base)) {
+					throw new IOException("Zip entry " + entry.getName() + " is outside " + directory);
+				}
+				if (entry.isDirectory()) {
+					file.mkdirs();
+				} else {
+					file.getParentFile().mkdirs();
+					long crc = copy(zip, file);
+					if (entry.getCrc() != -1 && crc != entry.getCrc()) {
+						throw new IOException("Checksum mismatch extracting " + entry.getName());
+					}
+					manifest.append(entry.getName()).append('\t').append(file.length()).append('\t').append(crc).append('\n');
+				}
+				zip.closeEntry();
+			}
+		}
+	}
+
+	// The CRC of what was written
+	private static long copy(InputStream input, File file) throws IOException {
+		CRC32 crc = new CRC32();
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+				output.write(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private static void delete(File file) throws IOException {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Unable to delete " + file);
+		}
+	}
+
+	private static final class Checksum {
+		private final String resource;
+		private final long size;
+		private final long crc;
+
+		private Checksum(String resource, long size, long crc) {
+			this.resource = resource;
+			this.size = size;
+			this.crc = crc;
+		}
+	}
+
+	// Where the libraries are and what it took to get them there, in nanoseconds
+	public static final class Entry {
+		private final File directory;
+		private final boolean hit;
+		private final long keyNanos;
+		private final long lockNanos;
+		private final long extractNanos;
+
+		private Entry(File directory, boolean hit, long keyNanos, long lockNanos, long extractNanos) {
+			this.directory = directory;
+			this.hit = hit;
+			this.keyNanos = keyNanos;
+			this.lockNanos = lockNanos;
+			this.extractNanos = extractNanos;
+		}
+
+		public File getDirectory() {
+			return directory;
+		}
+
+		public File getFile(String name) {
+			return new File(directory, name);
+		}
+
+		// False if this call extracted the libraries
+		public boolean isHit() {
+			return hit;
+		}
+
+		public long getKeyNanos() {
+			return keyNanos;
+		}
+
+		// Time spent waiting for another process's extraction
+		public long getLockNanos() {
+			return lockNanos;
+		}
+
+		public long getExtractNanos() {
+			return extractNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s, key %.2f ms, lock %.2f ms, extract %.2f ms", hit ? "cached in" : "extracted to", directory, keyNanos / 1e6, lockNanos / 1e6, extractNanos / 1e6);
+		}
+	}
+}
@@ -0,0 +1,5 @@
+package com.thalmic.myo;
+
+public interface OrientationListener {
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation);
+}
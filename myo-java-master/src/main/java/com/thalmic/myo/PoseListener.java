@@ -0,0 +1,5 @@
+package com.thalmic.myo;
+
+public interface PoseListener {
+	public void onPose(Myo myo, long timestamp, Pose pose);
+}
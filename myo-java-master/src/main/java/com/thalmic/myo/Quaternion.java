@@ -47,7 +47,7 @@ public final class Quaternion {
     }
 
     public final Quaternion normalized() {
-	double norm = Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2) + Math.pow(z, 2) + Math.pow(w, 2));
+	double norm = Math.sqrt(x * x + y * y + z * z + w * w);
 	return new Quaternion(x / norm, y / norm, z / norm, w / norm);
     }
 
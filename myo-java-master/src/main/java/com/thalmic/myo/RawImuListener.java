@@ -0,0 +1,13 @@
+package com.thalmic.myo;
+
+// IMU samples as plain components, so nothing is allocated per sample. Implement it alongside DeviceListener:
+// sources that know about it, SimulatedHub, the event bus and the replayers, call these instead of
+// onOrientationData, onAccelerometerData and onGyroscopeData. The native Hub only calls the object callbacks,
+// so those should forward their components here.
+public interface RawImuListener {
+	public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w);
+
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z);
+
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z);
+}
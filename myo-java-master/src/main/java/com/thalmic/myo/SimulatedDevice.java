@@ -0,0 +1,428 @@
+package com.thalmic.myo;
+
+import java.util.Random;
+
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.PoseType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// A synthetic armband driven by a SimulatedHub. Rates are in events per second, 0 disables a stream.
+public final class SimulatedDevice {
+	private static final long MICROS_PER_SECOND = 1000000L;
+	private static final long NEVER = Long.MAX_VALUE;
+	private static final int PAIR = EventMask.bit(EventType.PAIR);
+	private static final int CONNECT = EventMask.bit(EventType.CONNECT);
+	private static final int ARM_SYNC = EventMask.bit(EventType.ARM_SYNC);
+	private static final int UNLOCK = EventMask.bit(EventType.UNLOCK);
+	private static final int WARMUP_COMPLETED = EventMask.bit(EventType.WARMUP_COMPLETED);
+	private static final int POSE = EventMask.bit(EventType.POSE);
+	private static final int ORIENTATION = EventMask.bit(EventType.ORIENTATION);
+	private static final int ACCELEROMETER = EventMask.bit(EventType.ACCELEROMETER);
+	private static final int GYROSCOPE = EventMask.bit(EventType.GYROSCOPE);
+	private static final int RSSI = EventMask.bit(EventType.RSSI);
+	private static final int BATTERY_LEVEL = EventMask.bit(EventType.BATTERY_LEVEL);
+	private static final int EMG = EventMask.bit(EventType.EMG);
+	private static final PoseType[] POSE_TYPES = { PoseType.REST, PoseType.FIST, PoseType.WAVE_IN, PoseType.WAVE_OUT, PoseType.FINGERS_SPREAD, PoseType.DOUBLE_TAP };
+	private static final Pose[] POSES = new Pose[POSE_TYPES.length];
+	static {
+		for (int i = 0; i < POSE_TYPES.length; i++) {
+			POSES[i] = new Pose(POSE_TYPES[i]);
+		}
+	}
+
+	private final Myo myo = Myo.createSimulated(this);
+	private final FirmwareVersion firmwareVersion = new FirmwareVersion(1, 5, 1970, 2);
+
+	private double orientationRate = 50;
+	private double emgRate = 200;
+	private double poseRate = 0.5;
+	private double rssiRate = 1;
+	private double batteryRate = 0.1;
+	private double motionFrequency = 0.25;
+	private double noise = 0.01;
+	private Arm arm = Arm.ARM_RIGHT;
+
+	// Separate streams, so a stream nobody subscribes to can be skipped without changing the others
+	private Random random;
+	private Random imuRandom;
+	private Random emgRandom;
+	private boolean connected;
+	private long nextOrientation;
+	private long nextEmg;
+	private long nextPose;
+	private long nextRssi;
+	private long nextBattery;
+	private int poseIndex;
+	private int batteryLevel = 100;
+	private int rssi = -55;
+	// Set by Myo.requestRssi and requestBatteryLevel from any thread, answered with the device's next events
+	private volatile boolean rssiRequested;
+	private volatile boolean batteryRequested;
+	private double phase;
+
+	public Myo getMyo() {
+		return myo;
+	}
+
+	public double getOrientationRate() {
+		return orientationRate;
+	}
+
+	// Orientation, accelerometer and gyroscope data share one timestamp, as they do on the armband
+	public void setOrientationRate(double orientationRate) {
+		this.orientationRate = orientationRate;
+	}
+
+	public double getEmgRate() {
+		return emgRate;
+	}
+
+	public void setEmgRate(double emgRate) {
+		this.emgRate = emgRate;
+	}
+
+	public double getPoseRate() {
+		return poseRate;
+	}
+
+	public void setPoseRate(double poseRate) {
+		this.poseRate = poseRate;
+	}
+
+	public double getRssiRate() {
+		return rssiRate;
+	}
+
+	public void setRssiRate(double rssiRate) {
+		this.rssiRate = rssiRate;
+	}
+
+	public double getBatteryRate() {
+		return batteryRate;
+	}
+
+	public void setBatteryRate(double batteryRate) {
+		this.batteryRate = batteryRate;
+	}
+
+	public double getMotionFrequency() {
+		return motionFrequency;
+	}
+
+	// How fast the simulated wrist sweeps through its roll and pitch range, in Hz
+	public void setMotionFrequency(double motionFrequency) {
+		this.motionFrequency = motionFrequency;
+	}
+
+	public double getNoise() {
+		return noise;
+	}
+
+	// Standard deviation of the gaussian noise added to every IMU component
+	public void setNoise(double noise) {
+		this.noise = noise;
+	}
+
+	public Arm getArm() {
+		return arm;
+	}
+
+	public void setArm(Arm arm) {
+		this.arm = arm;
+	}
+
+	// Multiplies every stream rate, e.g. 10 to drive listeners at ten times the real armband rates
+	public void scaleRates(double factor) {
+		orientationRate *= factor;
+		emgRate *= factor;
+		poseRate *= factor;
+		rssiRate *= factor;
+		batteryRate *= factor;
+	}
+
+	void start(long seed, long timestamp) {
+		random = new Random(seed);
+		imuRandom = new Random(random.nextLong());
+		emgRandom = new Random(random.nextLong());
+		phase = random.nextDouble() * Math.PI * 2;
+		connected = false;
+		nextOrientation = timestamp;
+		nextEmg = timestamp;
+		nextPose = after(timestamp, poseRate);
+		nextRssi = timestamp;
+		nextBattery = timestamp;
+	}
+
+	long nextTimestamp() {
+		if (!connected) {
+			return nextOrientation;
+		}
+		return Math.min(Math.min(nextOrientation, nextEmg), Math.min(nextPose, Math.min(nextRssi, nextBattery)));
+	}
+
+	// Emits every stream that is due at the given timestamp and returns the number of callbacks made. IMU and EMG
+	// samples nobody subscribes to are not generated. Each has its own random stream, so the data a listener
+	// sees does not depend on who else listens.
+	int emit(SimulatedHub.ListenerTable table, long timestamp) {
+		DeviceListener[] listeners = table.listeners;
+		int[] masks = table.masks;
+		int events = 0;
+		if (!connected) {
+			connected = true;
+			schedule(timestamp);
+			for (int i = 0; i < listeners.length; i++) {
+				DeviceListener listener = listeners[i];
+				int mask = masks[i];
+				if ((mask & PAIR) != 0) {
+					listener.onPair(myo, timestamp, firmwareVersion);
+					events++;
+				}
+				if ((mask & CONNECT) != 0) {
+					listener.onConnect(myo, timestamp, firmwareVersion);
+					events++;
+				}
+				if ((mask & ARM_SYNC) != 0) {
+					listener.onArmSync(myo, timestamp, arm, XDirection.X_DIRECTION_TOWARDS_WRIST, 0f, WarmupState.WARMUP_STATE_WARM);
+					events++;
+				}
+				if ((mask & WARMUP_COMPLETED) != 0) {
+					listener.onWarmupCompleted(myo, timestamp, WarmupResult.WARMUP_RESULT_SUCCESS);
+					events++;
+				}
+				if ((mask & UNLOCK) != 0) {
+					listener.onUnlock(myo, timestamp);
+					events++;
+				}
+			}
+			return events;
+		}
+		if (nextOrientation == timestamp) {
+			events += emitImu(table, timestamp);
+			nextOrientation = after(timestamp, orientationRate);
+		}
+		if (nextEmg == timestamp) {
+			events += emitEmg(table, timestamp);
+			nextEmg = after(timestamp, emgRate);
+		}
+		if (nextPose == timestamp) {
+			events += emitPose(table, timestamp);
+			nextPose = after(timestamp, poseRate);
+		}
+		if (nextRssi == timestamp) {
+			rssi = -40 - random.nextInt(30);
+			rssiRequested = false;
+			events += emitRssi(table, timestamp);
+			nextRssi = after(timestamp, rssiRate);
+		} else if (rssiRequested) {
+			// Answered with the latest reading, so a request does not shift the seeded streams
+			rssiRequested = false;
+			events += emitRssi(table, timestamp);
+		}
+		if (nextBattery == timestamp) {
+			batteryRequested = false;
+			events += emitBattery(table, timestamp);
+			if (batteryLevel > 0) {
+				batteryLevel--;
+			}
+			nextBattery = after(timestamp, batteryRate);
+		} else if (batteryRequested) {
+			batteryRequested = false;
+			events += emitBattery(table, timestamp);
+		}
+		return events;
+	}
+
+	void requestRssi() {
+		rssiRequested = true;
+	}
+
+	void requestBatteryLevel() {
+		batteryRequested = true;
+	}
+
+	private int emitRssi(SimulatedHub.ListenerTable table, long timestamp) {
+		DeviceListener[] listeners = table.listeners;
+		int[] masks = table.masks;
+		int events = 0;
+		for (int i = 0; i < listeners.length; i++) {
+			if ((masks[i] & RSSI) != 0) {
+				listeners[i].onRssi(myo, timestamp, rssi);
+				events++;
+			}
+		}
+		return events;
+	}
+
+	private int emitBattery(SimulatedHub.ListenerTable table, long timestamp) {
+		DeviceListener[] listeners = table.listeners;
+		int[] masks = table.masks;
+		int events = 0;
+		for (int i = 0; i < listeners.length; i++) {
+			if ((masks[i] & BATTERY_LEVEL) != 0) {
+				listeners[i].onBatteryLevelReceived(myo, timestamp, batteryLevel);
+				events++;
+			}
+		}
+		return events;
+	}
+
+	private void schedule(long timestamp) {
+		nextOrientation = after(timestamp, orientationRate);
+		nextEmg = after(timestamp, emgRate);
+		nextRssi = after(timestamp, rssiRate);
+		nextBattery = after(timestamp, batteryRate);
+	}
+
+	private int emitImu(SimulatedHub.ListenerTable table, long timestamp) {
+		if ((table.mask & (ORIENTATION | ACCELEROMETER | GYROSCOPE)) == 0) {
+			return 0;
+		}
+		double t = (double) timestamp / MICROS_PER_SECOND;
+		double omega = 2 * Math.PI * motionFrequency;
+		double roll = Math.sin(omega * t + phase) + noise * imuRandom.nextGaussian();
+		double pitch = 0.6 * Math.sin(0.7 * omega * t + phase) + noise * imuRandom.nextGaussian();
+		double yaw = 0.2 * Math.sin(0.1 * omega * t) + noise * imuRandom.nextGaussian();
+		double accelNoiseX = noise * imuRandom.nextGaussian();
+		double accelNoiseY = noise * imuRandom.nextGaussian();
+		double accelNoiseZ = noise * imuRandom.nextGaussian();
+		double gyroNoiseX = noise * imuRandom.nextGaussian();
+		double gyroNoiseY = noise * imuRandom.nextGaussian();
+		double gyroNoiseZ = noise * imuRandom.nextGaussian();
+
+		double qx = 0, qy = 0, qz = 0, qw = 0;
+		if ((table.mask & ORIENTATION) != 0) {
+			double cr = Math.cos(roll / 2), sr = Math.sin(roll / 2);
+			double cp = Math.cos(pitch / 2), sp = Math.sin(pitch / 2);
+			double cy = Math.cos(yaw / 2), sy = Math.sin(yaw / 2);
+			qx = sr * cp * cy - cr * sp * sy;
+			qy = cr * sp * cy + sr * cp * sy;
+			qz = cr * cp * sy - sr * sp * cy;
+			qw = cr * cp * cy + sr * sp * sy;
+		}
+
+		// Gravity seen from the sensor frame, in g
+		double ax = 0, ay = 0, az = 0;
+		if ((table.mask & ACCELEROMETER) != 0) {
+			ax = -Math.sin(pitch) + accelNoiseX;
+			ay = Math.sin(roll) * Math.cos(pitch) + accelNoiseY;
+			az = Math.cos(roll) * Math.cos(pitch) + accelNoiseZ;
+		}
+
+		// Angular velocity of the motion model in the sensor frame, in degrees per second, as a gyroscope
+		// measures it: the Euler angle rates turned into body rates
+		double gx = 0, gy = 0, gz = 0;
+		if ((table.mask & GYROSCOPE) != 0) {
+			double modelRoll = Math.sin(omega * t + phase);
+			double modelPitch = 0.6 * Math.sin(0.7 * omega * t + phase);
+			double rollRate = omega * Math.cos(omega * t + phase);
+			double pitchRate = 0.42 * omega * Math.cos(0.7 * omega * t + phase);
+			double yawRate = 0.02 * omega * Math.cos(0.1 * omega * t);
+			double bodyX = rollRate - yawRate * Math.sin(modelPitch);
+			double bodyY = pitchRate * Math.cos(modelRoll) + yawRate * Math.cos(modelPitch) * Math.sin(modelRoll);
+			double bodyZ = -pitchRate * Math.sin(modelRoll) + yawRate * Math.cos(modelPitch) * Math.cos(modelRoll);
+			gx = Math.toDegrees(bodyX) + gyroNoiseX;
+			gy = Math.toDegrees(bodyY) + gyroNoiseY;
+			gz = Math.toDegrees(bodyZ) + gyroNoiseZ;
+		}
+
+		// Raw listeners get the components, the objects are only built for the others
+		Quaternion rotation = null;
+		Vector3 accel = null;
+		Vector3 gyro = null;
+		DeviceListener[] listeners = table.listeners;
+		RawImuListener[] raw = table.raw;
+		int[] masks = table.masks;
+		int events = 0;
+		for (int i = 0; i < listeners.length; i++) {
+			int mask = masks[i];
+			if ((mask & ORIENTATION) != 0) {
+				if (raw[i] != null) {
+					raw[i].onOrientation(myo, timestamp, qx, qy, qz, qw);
+				} else {
+					if (rotation == null) {
+						rotation = new Quaternion(qx, qy, qz, qw);
+					}
+					listeners[i].onOrientationData(myo, timestamp, rotation);
+				}
+				events++;
+			}
+			if ((mask & ACCELEROMETER) != 0) {
+				if (raw[i] != null) {
+					raw[i].onAccelerometer(myo, timestamp, ax, ay, az);
+				} else {
+					if (accel == null) {
+						accel = new Vector3(ax, ay, az);
+					}
+					listeners[i].onAccelerometerData(myo, timestamp, accel);
+				}
+				events++;
+			}
+			if ((mask & GYROSCOPE) != 0) {
+				if (raw[i] != null) {
+					raw[i].onGyroscope(myo, timestamp, gx, gy, gz);
+				} else {
+					if (gyro == null) {
+						gyro = new Vector3(gx, gy, gz);
+					}
+					listeners[i].onGyroscopeData(myo, timestamp, gyro);
+				}
+				events++;
+			}
+		}
+		return events;
+	}
+
+	private int emitEmg(SimulatedHub.ListenerTable table, long timestamp) {
+		if ((table.mask & EMG) == 0) {
+			return 0;
+		}
+		byte[] emg = new byte[8];
+		for (int i = 0; i < emg.length; i++) {
+			// Each active pose drives its own group of channels around the band, resting is just noise
+			double amplitude = 4;
+			if (poseIndex != 0) {
+				amplitude += 36 * (0.5 + 0.5 * Math.cos(2 * Math.PI * (i - 1.6 * (poseIndex - 1)) / emg.length));
+			}
+			double sample = amplitude * emgRandom.nextGaussian();
+			emg[i] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(sample)));
+		}
+		DeviceListener[] listeners = table.listeners;
+		int[] masks = table.masks;
+		int events = 0;
+		for (int i = 0; i < listeners.length; i++) {
+			if ((masks[i] & EMG) != 0) {
+				listeners[i].onEmgData(myo, timestamp, emg);
+				events++;
+			}
+		}
+		return events;
+	}
+
+	private int emitPose(SimulatedHub.ListenerTable table, long timestamp) {
+		int next = random.nextInt(POSES.length);
+		if (next == poseIndex) {
+			return 0;
+		}
+		poseIndex = next;
+		DeviceListener[] listeners = table.listeners;
+		int[] masks = table.masks;
+		int events = 0;
+		for (int i = 0; i < listeners.length; i++) {
+			if ((masks[i] & POSE) != 0) {
+				listeners[i].onPose(myo, timestamp, POSES[poseIndex]);
+				events++;
+			}
+		}
+		return events;
+	}
+
+	private static long after(long timestamp, double rate) {
+		if (rate <= 0) {
+			return NEVER;
+		}
+		return timestamp + Math.max(1L, Math.round(MICROS_PER_SECOND / rate));
+	}
+}
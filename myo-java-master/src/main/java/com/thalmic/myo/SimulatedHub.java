@@ -0,0 +1,190 @@
+package com.thalmic.myo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A pure Java stand-in for Hub. Every run is deterministic for a given seed and sequence of calls.
+// Unpaced (the default) it emits events as fast as the listeners take them; paced it follows the wall clock.
+// Listeners only get the event types in their EventMask, and a type no listener wants is not built at all.
+public final class SimulatedHub implements EventSource {
+	private final List<SimulatedDevice> devices = new ArrayList<>();
+	private volatile ListenerTable listeners = new ListenerTable();
+	private final Random seeds;
+	private boolean paced;
+	private long timestamp;
+	private long eventCount;
+
+	public SimulatedHub() {
+		this(0);
+	}
+
+	public SimulatedHub(long seed) {
+		this.seeds = new Random(seed);
+	}
+
+	public Myo addDevice(SimulatedDevice device) {
+		device.start(seeds.nextLong(), timestamp);
+		devices.add(device);
+		return device.getMyo();
+	}
+
+	public List<SimulatedDevice> getDevices() {
+		return devices;
+	}
+
+	public boolean isPaced() {
+		return paced;
+	}
+
+	public void setPaced(boolean paced) {
+		this.paced = paced;
+	}
+
+	// Current simulated time, in microseconds like the timestamps handed to listeners
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	// Number of listener callbacks made so far
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	@Override
+	public Myo waitForMyo(int timeout) {
+		if (devices.isEmpty()) {
+			advance(timeout * 1000L, Integer.MAX_VALUE);
+			return null;
+		}
+		return devices.get(0).getMyo();
+	}
+
+	@Override
+	public synchronized void addListener(DeviceListener listener) {
+		listeners = listeners.add(listener, EventMask.forListener(listener));
+	}
+
+	@Override
+	public synchronized void removeListener(DeviceListener listener) {
+		listeners = listeners.remove(listener);
+	}
+
+	// Union of the listeners' event masks
+	public int getEventMask() {
+		return listeners.mask;
+	}
+
+	@Override
+	public void run(int duration) {
+		advance(duration * 1000L, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public void runOnce(int duration) {
+		advance(duration * 1000L, 1);
+	}
+
+	private void advance(long duration, int maxEmissions) {
+		long start = timestamp;
+		long end = timestamp + duration;
+		long wallStart = System.nanoTime();
+		int emissions = 0;
+		while (emissions < maxEmissions) {
+			SimulatedDevice next = null;
+			long nextTimestamp = Long.MAX_VALUE;
+			for (SimulatedDevice device : devices) {
+				long deviceTimestamp = device.nextTimestamp();
+				if (deviceTimestamp < nextTimestamp) {
+					nextTimestamp = deviceTimestamp;
+					next = device;
+				}
+			}
+			if (next == null || nextTimestamp > end) {
+				break;
+			}
+			if (!pace(wallStart, nextTimestamp - start)) {
+				return;
+			}
+			timestamp = nextTimestamp;
+			eventCount += next.emit(listeners, nextTimestamp);
+			emissions++;
+		}
+		if (emissions < maxEmissions) {
+			pace(wallStart, end - start);
+			timestamp = end;
+		}
+	}
+
+	// Sleeps until the wall clock has caught up with the simulated offset, returns false if interrupted
+	private boolean pace(long wallStart, long offset) {
+		if (!paced) {
+			return true;
+		}
+		long remaining = wallStart + TimeUnit.MICROSECONDS.toNanos(offset) - System.nanoTime();
+		if (remaining <= 0) {
+			return true;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(remaining);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	// Immutable listeners and their masks, replaced as a whole when a listener is added or removed
+	static final class ListenerTable {
+		final DeviceListener[] listeners;
+		final int[] masks;
+		final int mask;
+		// The listener again where it takes raw IMU components, null where it takes objects
+		final RawImuListener[] raw;
+
+		ListenerTable() {
+			this(new DeviceListener[0], new int[0]);
+		}
+
+		private ListenerTable(DeviceListener[] listeners, int[] masks) {
+			this.listeners = listeners;
+			this.masks = masks;
+			int mask = EventMask.NONE;
+			for (int listenerMask : masks) {
+				mask |= listenerMask;
+			}
+			this.mask = mask;
+			this.raw = new RawImuListener[listeners.length];
+			for (int i = 0; i < listeners.length; i++) {
+				if (listeners[i] instanceof RawImuListener) {
+					raw[i] = (RawImuListener) listeners[i];
+				}
+			}
+		}
+
+		ListenerTable add(DeviceListener listener, int listenerMask) {
+			DeviceListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+			int[] updatedMasks = Arrays.copyOf(masks, masks.length + 1);
+			updated[listeners.length] = listener;
+			updatedMasks[masks.length] = listenerMask;
+			return new ListenerTable(updated, updatedMasks);
+		}
+
+		ListenerTable remove(DeviceListener listener) {
+			for (int i = 0; i < listeners.length; i++) {
+				if (listeners[i].equals(listener)) {
+					DeviceListener[] updated = new DeviceListener[listeners.length - 1];
+					int[] updatedMasks = new int[masks.length - 1];
+					System.arraycopy(listeners, 0, updated, 0, i);
+					System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+					System.arraycopy(masks, 0, updatedMasks, 0, i);
+					System.arraycopy(masks, i + 1, updatedMasks, i, masks.length - i - 1);
+					return new ListenerTable(updated, updatedMasks);
+				}
+			}
+			return this;
+		}
+	}
+}
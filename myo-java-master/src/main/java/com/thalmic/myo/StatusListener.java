@@ -0,0 +1,8 @@
+package com.thalmic.myo;
+
+// Replies to Myo.requestRssi and Myo.requestBatteryLevel
+public interface StatusListener {
+	public void onRssi(Myo myo, long timestamp, int rssi);
+
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level);
+}
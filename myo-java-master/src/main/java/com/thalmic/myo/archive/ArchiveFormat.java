@@ -0,0 +1,55 @@
+package com.thalmic.myo.archive;
+
+import com.thalmic.myo.enums.EventType;
+
+// Layout of a session archive:
+//   header   magic, version, orientation, accelerometer and gyroscope scales
+//   chunks   block count, then per block: type, device, sample count, byte length and the encoded columns
+//   index    chunk count, device count, then per chunk: offset, length, first and last timestamp, event count
+//   trailer  index offset, magic
+// Every column (timestamps included) is delta encoded within its block and written as a zig-zag varint.
+// IMU values are stored as fixed point at the armband's own resolution.
+final class ArchiveFormat {
+	static final int MAGIC = 0x4D594F41;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int INDEX_ENTRY_SIZE = 32;
+	static final int TRAILER_SIZE = 12;
+
+	// Fixed point scales of the Myo firmware's own IMU samples
+	static final double ORIENTATION_SCALE = 16384;
+	static final double ACCELEROMETER_SCALE = 2048;
+	static final double GYROSCOPE_SCALE = 16;
+
+	static final EventType[] EVENT_TYPES = EventType.values();
+
+	private static final int[] COLUMN_COUNTS = new int[EVENT_TYPES.length];
+	static {
+		COLUMN_COUNTS[EventType.PAIR.ordinal()] = 4;
+		COLUMN_COUNTS[EventType.CONNECT.ordinal()] = 4;
+		COLUMN_COUNTS[EventType.ARM_SYNC.ordinal()] = 4;
+		COLUMN_COUNTS[EventType.POSE.ordinal()] = 1;
+		COLUMN_COUNTS[EventType.ORIENTATION.ordinal()] = 4;
+		COLUMN_COUNTS[EventType.ACCELEROMETER.ordinal()] = 3;
+		COLUMN_COUNTS[EventType.GYROSCOPE.ordinal()] = 3;
+		COLUMN_COUNTS[EventType.RSSI.ordinal()] = 1;
+		COLUMN_COUNTS[EventType.BATTERY_LEVEL.ordinal()] = 1;
+		COLUMN_COUNTS[EventType.EMG.ordinal()] = 8;
+		COLUMN_COUNTS[EventType.WARMUP_COMPLETED.ordinal()] = 1;
+	}
+
+	private ArchiveFormat() {
+	}
+
+	static int columnCount(EventType type) {
+		return COLUMN_COUNTS[type.ordinal()];
+	}
+
+	static long ordinal(Enum<?> value) {
+		return value == null ? -1 : value.ordinal();
+	}
+
+	static <T> T fromOrdinal(T[] values, long ordinal) {
+		return ordinal < 0 || ordinal >= values.length ? null : values[(int) ordinal];
+	}
+}
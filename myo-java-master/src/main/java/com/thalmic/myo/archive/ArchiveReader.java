@@ -0,0 +1,380 @@
+package com.thalmic.myo.archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.emg.EmgBatchListener;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.PoseType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Random access to a session archive written by ArchiveWriter. Range queries use the chunk index to read and
+// decode only the chunks overlapping the range, and within a chunk only the blocks of the requested types.
+// Timestamps are inclusive at both ends. Each archived device is replayed as its own simulated Myo.
+public class ArchiveReader implements Closeable {
+	private static final Arm[] ARMS = Arm.values();
+	private static final XDirection[] X_DIRECTIONS = XDirection.values();
+	private static final WarmupState[] WARMUP_STATES = WarmupState.values();
+	private static final WarmupResult[] WARMUP_RESULTS = WarmupResult.values();
+	private static final PoseType[] POSE_TYPES = PoseType.values();
+	private static final Pose[] POSES = new Pose[POSE_TYPES.length];
+	static {
+		for (PoseType type : POSE_TYPES) {
+			POSES[type.ordinal()] = new Pose(type);
+		}
+	}
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final double orientationScale;
+	private final double accelerometerScale;
+	private final double gyroscopeScale;
+	private final long[] chunkOffsets;
+	private final int[] chunkLengths;
+	private final long[] chunkStarts;
+	private final long[] chunkEnds;
+	private final int[] chunkEvents;
+	private final List<Myo> devices = new ArrayList<>();
+	private final VarIntReader in = new VarIntReader();
+	private final List<ColumnBlock> decoded = new ArrayList<>();
+	private byte[] chunk = new byte[64 * 1024];
+	private long[] batchTimestamps = new long[256];
+	private byte[][] batchChannels = new byte[8][256];
+	private int[] cursors = new int[16];
+	private long chunksRead;
+
+	public ArchiveReader(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+		try {
+			ByteBuffer header = read(0, ArchiveFormat.HEADER_SIZE);
+			if (header.getInt() != ArchiveFormat.MAGIC) {
+				throw new IOException(file + " is not a Myo session archive");
+			}
+			int version = header.getInt();
+			if (version != ArchiveFormat.VERSION) {
+				throw new IOException("Unsupported session archive version " + version);
+			}
+			orientationScale = header.getDouble();
+			accelerometerScale = header.getDouble();
+			gyroscopeScale = header.getDouble();
+
+			ByteBuffer trailer = read(channel.size() - ArchiveFormat.TRAILER_SIZE, ArchiveFormat.TRAILER_SIZE);
+			long indexOffset = trailer.getLong();
+			if (trailer.getInt() != ArchiveFormat.MAGIC) {
+				throw new IOException(file + " has no index, it was not closed properly");
+			}
+			ByteBuffer counts = read(indexOffset, 8);
+			int chunkCount = counts.getInt();
+			int deviceCount = counts.getInt();
+			ByteBuffer index = read(indexOffset + 8, chunkCount * ArchiveFormat.INDEX_ENTRY_SIZE);
+			chunkOffsets = new long[chunkCount];
+			chunkLengths = new int[chunkCount];
+			chunkStarts = new long[chunkCount];
+			chunkEnds = new long[chunkCount];
+			chunkEvents = new int[chunkCount];
+			for (int i = 0; i < chunkCount; i++) {
+				chunkOffsets[i] = index.getLong();
+				chunkLengths[i] = index.getInt();
+				chunkStarts[i] = index.getLong();
+				chunkEnds[i] = index.getLong();
+				chunkEvents[i] = index.getInt();
+			}
+			for (int i = 0; i < deviceCount; i++) {
+				devices.add(Myo.createSimulated());
+			}
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	public int getChunkCount() {
+		return chunkOffsets.length;
+	}
+
+	public long getStartTimestamp() {
+		return chunkStarts.length == 0 ? 0 : chunkStarts[0];
+	}
+
+	public long getEndTimestamp() {
+		return chunkEnds.length == 0 ? 0 : chunkEnds[chunkEnds.length - 1];
+	}
+
+	public long getEventCount() {
+		long count = 0;
+		for (int events : chunkEvents) {
+			count += events;
+		}
+		return count;
+	}
+
+	public List<Myo> getDevices() {
+		return devices;
+	}
+
+	// Chunks read from disk by queries so far
+	public long getChunksRead() {
+		return chunksRead;
+	}
+
+	// Delivers the EMG samples in the range, one batch per device and chunk. Returns the number of samples.
+	public long queryEmg(long from, long to, EmgBatchListener listener) throws IOException {
+		long samples = 0;
+		for (int i = firstChunk(from); i < chunkStarts.length && chunkStarts[i] <= to; i++) {
+			readChunk(i);
+			int blockCount = (int) in.readVarLong();
+			for (int b = 0; b < blockCount; b++) {
+				EventType type = ArchiveFormat.EVENT_TYPES[(int) in.readVarLong()];
+				int device = (int) in.readVarLong();
+				int count = (int) in.readVarLong();
+				int length = (int) in.readVarLong();
+				if (type != EventType.EMG) {
+					in.skip(length);
+					continue;
+				}
+				ColumnBlock block = decodedBlock(0);
+				block.decode(in, type, device, count);
+				int delivered = copyEmg(block, from, to);
+				if (delivered > 0) {
+					listener.onEmgBatch(devices.get(device), batchTimestamps, batchChannels, delivered);
+					samples += delivered;
+				}
+			}
+		}
+		return samples;
+	}
+
+	public long replay(long from, long to, DeviceListener listener) throws IOException {
+		return replay(from, to, listener, EnumSet.allOf(EventType.class));
+	}
+
+	// Replays the events of the given types in the range, in timestamp order. Returns the number of events.
+	public long replay(long from, long to, DeviceListener listener, Set<EventType> types) throws IOException {
+		long events = 0;
+		for (int i = firstChunk(from); i < chunkStarts.length && chunkStarts[i] <= to; i++) {
+			readChunk(i);
+			int blockCount = (int) in.readVarLong();
+			int used = 0;
+			for (int b = 0; b < blockCount; b++) {
+				EventType type = ArchiveFormat.EVENT_TYPES[(int) in.readVarLong()];
+				int device = (int) in.readVarLong();
+				int count = (int) in.readVarLong();
+				int length = (int) in.readVarLong();
+				if (!types.contains(type)) {
+					in.skip(length);
+					continue;
+				}
+				decodedBlock(used++).decode(in, type, device, count);
+			}
+			events += merge(used, from, to, listener);
+		}
+		return events;
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	// First chunk that can hold events at or after from; chunks are written in timestamp order
+	private int firstChunk(long from) {
+		int low = 0;
+		int high = chunkEnds.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (chunkEnds[middle] < from) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private ByteBuffer read(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		readFully(buffer, offset);
+		buffer.flip();
+		return buffer;
+	}
+
+	private void readFully(ByteBuffer buffer, long offset) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, offset);
+			if (read < 0) {
+				throw new EOFException();
+			}
+			offset += read;
+		}
+	}
+
+	private void readChunk(int index) throws IOException {
+		int length = chunkLengths[index];
+		if (chunk.length < length) {
+			chunk = new byte[length];
+		}
+		readFully(ByteBuffer.wrap(chunk, 0, length), chunkOffsets[index]);
+		in.reset(chunk, 0, length);
+		chunksRead++;
+	}
+
+	private ColumnBlock decodedBlock(int index) {
+		while (decoded.size() <= index) {
+			decoded.add(new ColumnBlock(EventType.EMG, 0, 256));
+		}
+		return decoded.get(index);
+	}
+
+	private int copyEmg(ColumnBlock block, long from, long to) {
+		int count = block.getCount();
+		if (batchTimestamps.length < count) {
+			batchTimestamps = new long[count];
+			batchChannels = new byte[8][count];
+		}
+		int delivered = 0;
+		for (int i = 0; i < count; i++) {
+			long timestamp = block.getTimestamp(i);
+			if (timestamp < from || timestamp > to) {
+				continue;
+			}
+			batchTimestamps[delivered] = timestamp;
+			for (int c = 0; c < 8; c++) {
+				batchChannels[c][delivered] = (byte) block.get(c, i);
+			}
+			delivered++;
+		}
+		return delivered;
+	}
+
+	private long merge(int blockCount, long from, long to, DeviceListener listener) {
+		if (cursors.length < blockCount) {
+			cursors = new int[blockCount];
+		}
+		for (int b = 0; b < blockCount; b++) {
+			cursors[b] = 0;
+		}
+		long events = 0;
+		while (true) {
+			int next = -1;
+			long nextTimestamp = Long.MAX_VALUE;
+			for (int b = 0; b < blockCount; b++) {
+				ColumnBlock block = decoded.get(b);
+				if (cursors[b] < block.getCount() && block.getTimestamp(cursors[b]) < nextTimestamp) {
+					next = b;
+					nextTimestamp = block.getTimestamp(cursors[b]);
+				}
+			}
+			if (next < 0 || nextTimestamp > to) {
+				return events;
+			}
+			int row = cursors[next]++;
+			if (nextTimestamp >= from) {
+				dispatch(decoded.get(next), row, listener);
+				events++;
+			}
+		}
+	}
+
+	private boolean dispatchRaw(ColumnBlock block, int row, Myo myo, long timestamp, RawImuListener listener) {
+		switch (block.getType()) {
+		case ORIENTATION:
+			listener.onOrientation(myo, timestamp, block.get(0, row) / orientationScale, block.get(1, row) / orientationScale, block.get(2, row) / orientationScale, block.get(3, row) / orientationScale);
+			return true;
+		case ACCELEROMETER:
+			listener.onAccelerometer(myo, timestamp, block.get(0, row) / accelerometerScale, block.get(1, row) / accelerometerScale, block.get(2, row) / accelerometerScale);
+			return true;
+		case GYROSCOPE:
+			listener.onGyroscope(myo, timestamp, block.get(0, row) / gyroscopeScale, block.get(1, row) / gyroscopeScale, block.get(2, row) / gyroscopeScale);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private FirmwareVersion firmwareVersion(ColumnBlock block, int row) {
+		return new FirmwareVersion((int) block.get(0, row), (int) block.get(1, row), (int) block.get(2, row), (int) block.get(3, row));
+	}
+
+	private void dispatch(ColumnBlock block, int row, DeviceListener listener) {
+		Myo myo = devices.get(block.getDevice());
+		long timestamp = block.getTimestamp(row);
+		if (listener instanceof RawImuListener && dispatchRaw(block, row, myo, timestamp, (RawImuListener) listener)) {
+			return;
+		}
+		switch (block.getType()) {
+		case PAIR:
+			listener.onPair(myo, timestamp, firmwareVersion(block, row));
+			break;
+		case UNPAIR:
+			listener.onUnpair(myo, timestamp);
+			break;
+		case CONNECT:
+			listener.onConnect(myo, timestamp, firmwareVersion(block, row));
+			break;
+		case DISCONNECT:
+			listener.onDisconnect(myo, timestamp);
+			break;
+		case ARM_SYNC:
+			listener.onArmSync(myo, timestamp, ArchiveFormat.fromOrdinal(ARMS, block.get(0, row)), ArchiveFormat.fromOrdinal(X_DIRECTIONS, block.get(1, row)), Float.intBitsToFloat((int) block.get(2, row)), ArchiveFormat.fromOrdinal(WARMUP_STATES, block.get(3, row)));
+			break;
+		case ARM_UNSYNC:
+			listener.onArmUnsync(myo, timestamp);
+			break;
+		case UNLOCK:
+			listener.onUnlock(myo, timestamp);
+			break;
+		case LOCK:
+			listener.onLock(myo, timestamp);
+			break;
+		case POSE:
+			listener.onPose(myo, timestamp, ArchiveFormat.fromOrdinal(POSES, block.get(0, row)));
+			break;
+		case ORIENTATION:
+			listener.onOrientationData(myo, timestamp, new Quaternion(block.get(0, row) / orientationScale, block.get(1, row) / orientationScale, block.get(2, row) / orientationScale, block.get(3, row) / orientationScale));
+			break;
+		case ACCELEROMETER:
+			listener.onAccelerometerData(myo, timestamp, new Vector3(block.get(0, row) / accelerometerScale, block.get(1, row) / accelerometerScale, block.get(2, row) / accelerometerScale));
+			break;
+		case GYROSCOPE:
+			listener.onGyroscopeData(myo, timestamp, new Vector3(block.get(0, row) / gyroscopeScale, block.get(1, row) / gyroscopeScale, block.get(2, row) / gyroscopeScale));
+			break;
+		case RSSI:
+			listener.onRssi(myo, timestamp, (int) block.get(0, row));
+			break;
+		case BATTERY_LEVEL:
+			listener.onBatteryLevelReceived(myo, timestamp, (int) block.get(0, row));
+			break;
+		case EMG: {
+			byte[] emg = new byte[8];
+			for (int c = 0; c < emg.length; c++) {
+				emg[c] = (byte) block.get(c, row);
+			}
+			listener.onEmgData(myo, timestamp, emg);
+			break;
+		}
+		case WARMUP_COMPLETED:
+			listener.onWarmupCompleted(myo, timestamp, ArchiveFormat.fromOrdinal(WARMUP_RESULTS, block.get(0, row)));
+			break;
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package com.thalmic.myo.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+import com.thalmic.myo.record.SessionReplayer;
+
+// Writes a session archive, see ArchiveFormat. It is a DeviceListener, so live Hub output can be archived
+// directly; convert turns a SessionRecorder log into an archive. Events are buffered in columns and written one
+// chunk at a time, whenever a chunk spans chunkDuration microseconds or holds maxChunkEvents events.
+public class ArchiveWriter implements DeviceListener, Closeable {
+	public static final long DEFAULT_CHUNK_DURATION = 10000000L;
+	public static final int DEFAULT_MAX_CHUNK_EVENTS = 65536;
+
+	private final DataOutputStream out;
+	private final long chunkDuration;
+	private final int maxChunkEvents;
+	private final Map<Myo, Integer> devices = new HashMap<>();
+	private final ColumnBlock[][] blocks = new ColumnBlock[ArchiveFormat.EVENT_TYPES.length][];
+	private final VarIntWriter chunk = new VarIntWriter(64 * 1024);
+	private final VarIntWriter block = new VarIntWriter(16 * 1024);
+	private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+	private final DataOutputStream index = new DataOutputStream(indexBytes);
+	private ColumnBlock current;
+	private long position;
+	private long chunkStart;
+	private long chunkEnd;
+	private int chunkEvents;
+	private int chunkCount;
+	private long eventCount;
+	private boolean failed;
+
+	public ArchiveWriter(File file) throws IOException {
+		this(file, DEFAULT_CHUNK_DURATION, DEFAULT_MAX_CHUNK_EVENTS);
+	}
+
+	public ArchiveWriter(File file, long chunkDuration, int maxChunkEvents) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+		this.chunkDuration = chunkDuration;
+		this.maxChunkEvents = maxChunkEvents;
+		for (int i = 0; i < blocks.length; i++) {
+			blocks[i] = new ColumnBlock[0];
+		}
+		out.writeInt(ArchiveFormat.MAGIC);
+		out.writeInt(ArchiveFormat.VERSION);
+		out.writeDouble(ArchiveFormat.ORIENTATION_SCALE);
+		out.writeDouble(ArchiveFormat.ACCELEROMETER_SCALE);
+		out.writeDouble(ArchiveFormat.GYROSCOPE_SCALE);
+		position = ArchiveFormat.HEADER_SIZE;
+	}
+
+	// Archives a log written by SessionRecorder and returns the number of events converted
+	public static long convert(File sessionLog, File archive) throws IOException {
+		try (SessionReplayer replayer = new SessionReplayer(sessionLog); ArchiveWriter writer = new ArchiveWriter(archive)) {
+			replayer.addListener(writer);
+			return replayer.replayAll();
+		}
+	}
+
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	// Bytes written so far
+	public long getLength() {
+		return position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (!failed) {
+				writeChunk();
+				long indexOffset = position;
+				out.writeInt(chunkCount);
+				out.writeInt(devices.size());
+				indexBytes.writeTo(out);
+				out.writeLong(indexOffset);
+				out.writeInt(ArchiveFormat.MAGIC);
+				position += 8 + index.size() + ArchiveFormat.TRAILER_SIZE;
+			}
+		} finally {
+			failed = true;
+			out.close();
+		}
+	}
+
+	private void writeChunk() throws IOException {
+		if (chunkEvents == 0) {
+			return;
+		}
+		chunk.reset();
+		int blockCount = 0;
+		for (ColumnBlock[] typeBlocks : blocks) {
+			for (ColumnBlock columns : typeBlocks) {
+				if (columns != null && columns.getCount() > 0) {
+					blockCount++;
+				}
+			}
+		}
+		chunk.writeVarLong(blockCount);
+		for (ColumnBlock[] typeBlocks : blocks) {
+			for (ColumnBlock columns : typeBlocks) {
+				if (columns == null || columns.getCount() == 0) {
+					continue;
+				}
+				block.reset();
+				columns.encode(block);
+				chunk.writeVarLong(columns.getType().ordinal());
+				chunk.writeVarLong(columns.getDevice());
+				chunk.writeVarLong(columns.getCount());
+				chunk.writeVarLong(block.size());
+				chunk.writeBytes(block.buffer(), 0, block.size());
+				columns.reset(columns.getType(), columns.getDevice());
+			}
+		}
+		out.write(chunk.buffer(), 0, chunk.size());
+		index.writeLong(position);
+		index.writeInt(chunk.size());
+		index.writeLong(chunkStart);
+		index.writeLong(chunkEnd);
+		index.writeInt(chunkEvents);
+		position += chunk.size();
+		chunkCount++;
+		chunkEvents = 0;
+	}
+
+	// Returns the row index for a new event, or -1 if archiving has failed
+	private int add(EventType type, Myo myo, long timestamp) {
+		if (failed) {
+			return -1;
+		}
+		if (chunkEvents > 0 && (timestamp - chunkStart >= chunkDuration || chunkEvents >= maxChunkEvents)) {
+			try {
+				writeChunk();
+			} catch (IOException e) {
+				e.printStackTrace();
+				failed = true;
+				return -1;
+			}
+		}
+		if (chunkEvents == 0) {
+			chunkStart = timestamp;
+			chunkEnd = timestamp;
+		}
+		chunkStart = Math.min(chunkStart, timestamp);
+		chunkEnd = Math.max(chunkEnd, timestamp);
+		chunkEvents++;
+		eventCount++;
+		return columns(type, myo).add(timestamp);
+	}
+
+	private ColumnBlock columns(EventType type, Myo myo) {
+		Integer device = devices.get(myo);
+		if (device == null) {
+			device = devices.size();
+			devices.put(myo, device);
+		}
+		ColumnBlock[] typeBlocks = blocks[type.ordinal()];
+		if (device >= typeBlocks.length) {
+			typeBlocks = Arrays.copyOf(typeBlocks, device + 1);
+			blocks[type.ordinal()] = typeBlocks;
+		}
+		if (typeBlocks[device] == null) {
+			typeBlocks[device] = new ColumnBlock(type, device, 256);
+		}
+		current = typeBlocks[device];
+		return current;
+	}
+
+	private void setFirmwareVersion(int row, FirmwareVersion firmwareVersion) {
+		if (firmwareVersion == null) {
+			for (int c = 0; c < 4; c++) {
+				current.set(c, row, 0);
+			}
+			return;
+		}
+		current.set(0, row, firmwareVersion.getFirmwareVersionMajor());
+		current.set(1, row, firmwareVersion.getFirmwareVersionMinor());
+		current.set(2, row, firmwareVersion.getFirmwareVersionPath());
+		current.set(3, row, firmwareVersion.getFirmwareVersionHardwareRev());
+	}
+
+	private void setVector(int row, double scale, double x, double y, double z) {
+		current.set(0, row, Math.round(x * scale));
+		current.set(1, row, Math.round(y * scale));
+		current.set(2, row, Math.round(z * scale));
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		int row = add(EventType.PAIR, myo, timestamp);
+		if (row >= 0) {
+			setFirmwareVersion(row, firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		add(EventType.UNPAIR, myo, timestamp);
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		int row = add(EventType.CONNECT, myo, timestamp);
+		if (row >= 0) {
+			setFirmwareVersion(row, firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		add(EventType.DISCONNECT, myo, timestamp);
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		int row = add(EventType.ARM_SYNC, myo, timestamp);
+		if (row >= 0) {
+			current.set(0, row, ArchiveFormat.ordinal(arm));
+			current.set(1, row, ArchiveFormat.ordinal(xDirection));
+			current.set(2, row, Float.floatToIntBits(rotation));
+			current.set(3, row, ArchiveFormat.ordinal(warmupState));
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		add(EventType.ARM_UNSYNC, myo, timestamp);
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		add(EventType.UNLOCK, myo, timestamp);
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		add(EventType.LOCK, myo, timestamp);
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		int row = add(EventType.POSE, myo, timestamp);
+		if (row >= 0) {
+			current.set(0, row, ArchiveFormat.ordinal(pose == null ? null : pose.getType()));
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		int row = add(EventType.ORIENTATION, myo, timestamp);
+		if (row >= 0) {
+			setVector(row, ArchiveFormat.ORIENTATION_SCALE, rotation.getX(), rotation.getY(), rotation.getZ());
+			current.set(3, row, Math.round(rotation.getW() * ArchiveFormat.ORIENTATION_SCALE));
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		int row = add(EventType.ACCELEROMETER, myo, timestamp);
+		if (row >= 0) {
+			setVector(row, ArchiveFormat.ACCELEROMETER_SCALE, accel.getX(), accel.getY(), accel.getZ());
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		int row = add(EventType.GYROSCOPE, myo, timestamp);
+		if (row >= 0) {
+			setVector(row, ArchiveFormat.GYROSCOPE_SCALE, gyro.getX(), gyro.getY(), gyro.getZ());
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		int row = add(EventType.RSSI, myo, timestamp);
+		if (row >= 0) {
+			current.set(0, row, rssi);
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		int row = add(EventType.BATTERY_LEVEL, myo, timestamp);
+		if (row >= 0) {
+			current.set(0, row, level);
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		int row = add(EventType.EMG, myo, timestamp);
+		if (row >= 0) {
+			int channels = Math.min(emg.length, 8);
+			for (int c = 0; c < channels; c++) {
+				current.set(c, row, emg[c]);
+			}
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		int row = add(EventType.WARMUP_COMPLETED, myo, timestamp);
+		if (row >= 0) {
+			current.set(0, row, ArchiveFormat.ordinal(warmupResult));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.thalmic.myo.archive;
+
+import com.thalmic.myo.enums.EventType;
+
+// The events of one type from one device within a chunk, held as primitive columns.
+// The writer fills one per type and device; the reader decodes into reused ones.
+final class ColumnBlock {
+	private EventType type;
+	private int device;
+	private int count;
+	private long[] timestamps;
+	private long[][] columns;
+
+	ColumnBlock(EventType type, int device, int capacity) {
+		this.timestamps = new long[capacity];
+		this.columns = new long[8][capacity];
+		reset(type, device);
+	}
+
+	void reset(EventType type, int device) {
+		this.type = type;
+		this.device = device;
+		this.count = 0;
+	}
+
+	EventType getType() {
+		return type;
+	}
+
+	int getDevice() {
+		return device;
+	}
+
+	int getCount() {
+		return count;
+	}
+
+	long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	long get(int column, int index) {
+		return columns[column][index];
+	}
+
+	// Adds a row and returns its index; fill the values in with set
+	int add(long timestamp) {
+		if (count == timestamps.length) {
+			grow(count * 2);
+		}
+		timestamps[count] = timestamp;
+		return count++;
+	}
+
+	void set(int column, int index, long value) {
+		columns[column][index] = value;
+	}
+
+	void encode(VarIntWriter out) {
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			out.writeZigZag(timestamps[i] - previous);
+			previous = timestamps[i];
+		}
+		int columnCount = ArchiveFormat.columnCount(type);
+		for (int c = 0; c < columnCount; c++) {
+			long[] column = columns[c];
+			previous = 0;
+			for (int i = 0; i < count; i++) {
+				out.writeZigZag(column[i] - previous);
+				previous = column[i];
+			}
+		}
+	}
+
+	void decode(VarIntReader in, EventType type, int device, int count) {
+		reset(type, device);
+		if (timestamps.length < count) {
+			grow(count);
+		}
+		this.count = count;
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			previous += in.readZigZag();
+			timestamps[i] = previous;
+		}
+		int columnCount = ArchiveFormat.columnCount(type);
+		for (int c = 0; c < columnCount; c++) {
+			long[] column = columns[c];
+			previous = 0;
+			for (int i = 0; i < count; i++) {
+				previous += in.readZigZag();
+				column[i] = previous;
+			}
+		}
+	}
+
+	private void grow(int capacity) {
+		long[] grownTimestamps = new long[capacity];
+		System.arraycopy(timestamps, 0, grownTimestamps, 0, count);
+		timestamps = grownTimestamps;
+		for (int c = 0; c < columns.length; c++) {
+			long[] grown = new long[capacity];
+			System.arraycopy(columns[c], 0, grown, 0, count);
+			columns[c] = grown;
+		}
+	}
+}
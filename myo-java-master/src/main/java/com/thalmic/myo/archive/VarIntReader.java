@@ -0,0 +1,43 @@
+package com.thalmic.myo.archive;
+
+// Varint input over a byte array, see VarIntWriter
+final class VarIntReader {
+	private byte[] buffer;
+	private int position;
+	private int limit;
+
+	void reset(byte[] buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	boolean hasRemaining() {
+		return position < limit;
+	}
+
+	int position() {
+		return position;
+	}
+
+	void skip(int length) {
+		position += length;
+	}
+
+	long readVarLong() {
+		long value = 0;
+		int shift = 0;
+		byte current;
+		do {
+			current = buffer[position++];
+			value |= (long) (current & 0x7F) << shift;
+			shift += 7;
+		} while (current < 0);
+		return value;
+	}
+
+	long readZigZag() {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,50 @@
+package com.thalmic.myo.archive;
+
+// Growable byte buffer with varint output, reused for every chunk
+final class VarIntWriter {
+	private byte[] buffer;
+	private int size;
+
+	VarIntWriter(int capacity) {
+		buffer = new byte[capacity];
+	}
+
+	byte[] buffer() {
+		return buffer;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void reset() {
+		size = 0;
+	}
+
+	void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+	}
+
+	void writeZigZag(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	void writeBytes(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		size += length;
+	}
+
+	private void ensureCapacity(int extra) {
+		if (size + extra > buffer.length) {
+			byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+			System.arraycopy(buffer, 0, grown, 0, size);
+			buffer = grown;
+		}
+	}
+}
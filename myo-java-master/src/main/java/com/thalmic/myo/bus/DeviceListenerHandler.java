@@ -0,0 +1,17 @@
+package com.thalmic.myo.bus;
+
+import com.thalmic.myo.DeviceListener;
+
+// Feeds events from the bus to an ordinary DeviceListener on the consumer's thread
+public class DeviceListenerHandler implements EventHandler {
+	private final DeviceListener listener;
+
+	public DeviceListenerHandler(DeviceListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public void onEvent(EventSlot event, long sequence) {
+		event.dispatchTo(listener);
+	}
+}
@@ -0,0 +1,6 @@
+package com.thalmic.myo.bus;
+
+// Consumes events from an EventRingBuffer. The slot is only valid for the duration of the call.
+public interface EventHandler {
+	public void onEvent(EventSlot event, long sequence);
+}
@@ -0,0 +1,66 @@
+package com.thalmic.myo.bus;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// One consumer of an EventRingBuffer with its own cursor. Either run it on a thread of its own, or call poll()
+// from an existing loop.
+public final class EventProcessor implements Runnable {
+	private final EventRingBuffer ringBuffer;
+	private final EventHandler handler;
+	private final WaitStrategy waitStrategy;
+	private final AtomicLong sequence;
+	private volatile boolean running;
+
+	EventProcessor(EventRingBuffer ringBuffer, EventHandler handler, WaitStrategy waitStrategy, long sequence) {
+		this.ringBuffer = ringBuffer;
+		this.handler = handler;
+		this.waitStrategy = waitStrategy;
+		this.sequence = new AtomicLong(sequence);
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	// Sequence of the last event handled
+	public long getSequence() {
+		return sequence.get();
+	}
+
+	// Events published but not yet handled by this consumer
+	public long getBacklog() {
+		return ringBuffer.getCursor() - sequence.get();
+	}
+
+	// Handles every event published so far and returns how many there were
+	public int poll() {
+		long current = sequence.get();
+		long available = ringBuffer.getCursor();
+		if (available <= current) {
+			return 0;
+		}
+		for (long next = current + 1; next <= available; next++) {
+			handler.onEvent(ringBuffer.get(next), next);
+		}
+		sequence.lazySet(available);
+		return (int) (available - current);
+	}
+
+	@Override
+	public void run() {
+		running = true;
+		while (running && !Thread.currentThread().isInterrupted()) {
+			if (poll() == 0) {
+				waitStrategy.idle();
+			}
+		}
+	}
+
+	public void halt() {
+		running = false;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+}
@@ -0,0 +1,265 @@
+package com.thalmic.myo.bus;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Single producer, multi consumer ring of pre-allocated EventSlots. Register it as the only listener on the Hub;
+// every callback is copied into the next slot and published without locks. Each EventProcessor reads at its own
+// pace. When the slowest consumer is a full ring behind, new events are dropped and counted instead of making
+// the Hub thread wait. Types outside the event mask are ignored without taking a slot.
+public final class EventRingBuffer implements DeviceListener, EventSubscriber {
+	private final EventSlot[] slots;
+	private final int mask;
+	private final int eventMask;
+	private final AtomicLong cursor = new AtomicLong(-1);
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile EventProcessor[] processors = new EventProcessor[0];
+	// Producer-only state
+	private long nextSequence;
+	private long cachedGatingSequence = -1;
+
+	public EventRingBuffer(int capacity) {
+		this(capacity, EventMask.ALL);
+	}
+
+	// Only events whose type is in the EventMask are buffered, typically the mask of the consumers' listeners
+	public EventRingBuffer(int capacity, int eventMask) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+		}
+		slots = new EventSlot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new EventSlot();
+		}
+		mask = capacity - 1;
+		this.eventMask = eventMask;
+	}
+
+	@Override
+	public int getEventMask() {
+		return eventMask;
+	}
+
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	// Sequence of the last published event, -1 before the first
+	public long getCursor() {
+		return cursor.get();
+	}
+
+	// Events dropped because the slowest consumer was a full ring behind
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	// Free slots before the producer starts dropping
+	public long getRemainingCapacity() {
+		long published = cursor.get();
+		return slots.length - (published - minimumSequence(published));
+	}
+
+	// The new consumer starts with the next event published
+	public synchronized EventProcessor addConsumer(EventHandler handler, WaitStrategy waitStrategy) {
+		EventProcessor processor = new EventProcessor(this, handler, waitStrategy, cursor.get());
+		EventProcessor[] updated = Arrays.copyOf(processors, processors.length + 1);
+		updated[updated.length - 1] = processor;
+		processors = updated;
+		return processor;
+	}
+
+	public synchronized void removeConsumer(EventProcessor processor) {
+		EventProcessor[] current = processors;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == processor) {
+				EventProcessor[] updated = new EventProcessor[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+				processors = updated;
+				return;
+			}
+		}
+	}
+
+	EventSlot get(long sequence) {
+		return slots[(int) sequence & mask];
+	}
+
+	private long minimumSequence(long published) {
+		long minimum = published;
+		for (EventProcessor processor : processors) {
+			minimum = Math.min(minimum, processor.getSequence());
+		}
+		return minimum;
+	}
+
+	private EventSlot claim(EventType type, Myo myo, long timestamp) {
+		if (!EventMask.contains(eventMask, type)) {
+			return null;
+		}
+		long wrapPoint = nextSequence - slots.length;
+		if (wrapPoint > cachedGatingSequence) {
+			cachedGatingSequence = minimumSequence(nextSequence - 1);
+			if (wrapPoint > cachedGatingSequence) {
+				dropped.lazySet(dropped.get() + 1);
+				return null;
+			}
+		}
+		EventSlot slot = slots[(int) nextSequence & mask];
+		slot.set(type, myo, timestamp);
+		return slot;
+	}
+
+	private void publish() {
+		cursor.lazySet(nextSequence++);
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		EventSlot slot = claim(EventType.PAIR, myo, timestamp);
+		if (slot != null) {
+			slot.setFirmwareVersion(firmwareVersion);
+			publish();
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		if (claim(EventType.UNPAIR, myo, timestamp) != null) {
+			publish();
+		}
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		EventSlot slot = claim(EventType.CONNECT, myo, timestamp);
+		if (slot != null) {
+			slot.setFirmwareVersion(firmwareVersion);
+			publish();
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		if (claim(EventType.DISCONNECT, myo, timestamp) != null) {
+			publish();
+		}
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		EventSlot slot = claim(EventType.ARM_SYNC, myo, timestamp);
+		if (slot != null) {
+			slot.setArmSync(arm, xDirection, rotation, warmupState);
+			publish();
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		if (claim(EventType.ARM_UNSYNC, myo, timestamp) != null) {
+			publish();
+		}
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		if (claim(EventType.UNLOCK, myo, timestamp) != null) {
+			publish();
+		}
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		if (claim(EventType.LOCK, myo, timestamp) != null) {
+			publish();
+		}
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		EventSlot slot = claim(EventType.POSE, myo, timestamp);
+		if (slot != null) {
+			slot.setPose(pose);
+			publish();
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		EventSlot slot = claim(EventType.ORIENTATION, myo, timestamp);
+		if (slot != null) {
+			slot.setVector(rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+			publish();
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		EventSlot slot = claim(EventType.ACCELEROMETER, myo, timestamp);
+		if (slot != null) {
+			slot.setVector(accel.getX(), accel.getY(), accel.getZ(), 0);
+			publish();
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		EventSlot slot = claim(EventType.GYROSCOPE, myo, timestamp);
+		if (slot != null) {
+			slot.setVector(gyro.getX(), gyro.getY(), gyro.getZ(), 0);
+			publish();
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		EventSlot slot = claim(EventType.RSSI, myo, timestamp);
+		if (slot != null) {
+			slot.setValue(rssi);
+			publish();
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		EventSlot slot = claim(EventType.BATTERY_LEVEL, myo, timestamp);
+		if (slot != null) {
+			slot.setValue(level);
+			publish();
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		EventSlot slot = claim(EventType.EMG, myo, timestamp);
+		if (slot != null) {
+			slot.setEmg(emg);
+			publish();
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		EventSlot slot = claim(EventType.WARMUP_COMPLETED, myo, timestamp);
+		if (slot != null) {
+			slot.setWarmupResult(warmupResult);
+			publish();
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package com.thalmic.myo.bus;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// A reusable copy of one DeviceListener callback. Only the fields belonging to the event type are meaningful:
+// x, y, z, w for orientation, x, y, z for accelerometer and gyroscope, value for rssi and battery level.
+public final class EventSlot {
+	private EventType type;
+	private Myo myo;
+	private long timestamp;
+	private long arrival;
+	private double x;
+	private double y;
+	private double z;
+	private double w;
+	private final byte[] emg = new byte[8];
+	private int value;
+	private Pose pose;
+	private FirmwareVersion firmwareVersion;
+	private Arm arm;
+	private XDirection xDirection;
+	private float rotation;
+	private WarmupState warmupState;
+	private WarmupResult warmupResult;
+
+	public EventType getType() {
+		return type;
+	}
+
+	public Myo getMyo() {
+		return myo;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	// System.nanoTime when the event reached the bus, the start of its latency traces
+	public long getArrival() {
+		return arrival;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public double getW() {
+		return w;
+	}
+
+	// The slot's own array, overwritten when the slot is reused
+	public byte[] getEmg() {
+		return emg;
+	}
+
+	public int getValue() {
+		return value;
+	}
+
+	public Pose getPose() {
+		return pose;
+	}
+
+	public FirmwareVersion getFirmwareVersion() {
+		return firmwareVersion;
+	}
+
+	public Arm getArm() {
+		return arm;
+	}
+
+	public XDirection getXDirection() {
+		return xDirection;
+	}
+
+	public float getRotation() {
+		return rotation;
+	}
+
+	public WarmupState getWarmupState() {
+		return warmupState;
+	}
+
+	public WarmupResult getWarmupResult() {
+		return warmupResult;
+	}
+
+	void set(EventType type, Myo myo, long timestamp) {
+		this.type = type;
+		this.myo = myo;
+		this.timestamp = timestamp;
+		this.arrival = System.nanoTime();
+	}
+
+	void setVector(double x, double y, double z, double w) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+	}
+
+	void setEmg(byte[] emg) {
+		System.arraycopy(emg, 0, this.emg, 0, Math.min(emg.length, this.emg.length));
+	}
+
+	void setValue(int value) {
+		this.value = value;
+	}
+
+	void setPose(Pose pose) {
+		this.pose = pose;
+	}
+
+	void setFirmwareVersion(FirmwareVersion firmwareVersion) {
+		this.firmwareVersion = firmwareVersion;
+	}
+
+	void setArmSync(Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		this.arm = arm;
+		this.xDirection = xDirection;
+		this.rotation = rotation;
+		this.warmupState = warmupState;
+	}
+
+	void setWarmupResult(WarmupResult warmupResult) {
+		this.warmupResult = warmupResult;
+	}
+
+	private boolean dispatchRaw(RawImuListener listener) {
+		switch (type) {
+		case ORIENTATION:
+			listener.onOrientation(myo, timestamp, x, y, z, w);
+			return true;
+		case ACCELEROMETER:
+			listener.onAccelerometer(myo, timestamp, x, y, z);
+			return true;
+		case GYROSCOPE:
+			listener.onGyroscope(myo, timestamp, x, y, z);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	// Copies every field, including the arrival stamp, into this slot
+	void copyFrom(EventSlot other) {
+		type = other.type;
+		myo = other.myo;
+		timestamp = other.timestamp;
+		arrival = other.arrival;
+		x = other.x;
+		y = other.y;
+		z = other.z;
+		w = other.w;
+		System.arraycopy(other.emg, 0, emg, 0, emg.length);
+		value = other.value;
+		pose = other.pose;
+		firmwareVersion = other.firmwareVersion;
+		arm = other.arm;
+		xDirection = other.xDirection;
+		rotation = other.rotation;
+		warmupState = other.warmupState;
+		warmupResult = other.warmupResult;
+	}
+
+	// Replays the event as the original callback. Orientation, IMU and EMG events allocate fresh objects,
+	// as the listener may keep them, except that a RawImuListener gets the IMU components as they are.
+	public void dispatchTo(DeviceListener listener) {
+		if (listener instanceof RawImuListener && dispatchRaw((RawImuListener) listener)) {
+			return;
+		}
+		switch (type) {
+		case PAIR:
+			listener.onPair(myo, timestamp, firmwareVersion);
+			break;
+		case UNPAIR:
+			listener.onUnpair(myo, timestamp);
+			break;
+		case CONNECT:
+			listener.onConnect(myo, timestamp, firmwareVersion);
+			break;
+		case DISCONNECT:
+			listener.onDisconnect(myo, timestamp);
+			break;
+		case ARM_SYNC:
+			listener.onArmSync(myo, timestamp, arm, xDirection, rotation, warmupState);
+			break;
+		case ARM_UNSYNC:
+			listener.onArmUnsync(myo, timestamp);
+			break;
+		case UNLOCK:
+			listener.onUnlock(myo, timestamp);
+			break;
+		case LOCK:
+			listener.onLock(myo, timestamp);
+			break;
+		case POSE:
+			listener.onPose(myo, timestamp, pose);
+			break;
+		case ORIENTATION:
+			listener.onOrientationData(myo, timestamp, new Quaternion(x, y, z, w));
+			break;
+		case ACCELEROMETER:
+			listener.onAccelerometerData(myo, timestamp, new Vector3(x, y, z));
+			break;
+		case GYROSCOPE:
+			listener.onGyroscopeData(myo, timestamp, new Vector3(x, y, z));
+			break;
+		case RSSI:
+			listener.onRssi(myo, timestamp, value);
+			break;
+		case BATTERY_LEVEL:
+			listener.onBatteryLevelReceived(myo, timestamp, value);
+			break;
+		case EMG:
+			listener.onEmgData(myo, timestamp, emg.clone());
+			break;
+		case WARMUP_COMPLETED:
+			listener.onWarmupCompleted(myo, timestamp, warmupResult);
+			break;
+		}
+	}
+}
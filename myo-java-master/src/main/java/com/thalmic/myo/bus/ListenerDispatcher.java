@@ -0,0 +1,391 @@
+package com.thalmic.myo.bus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Fans the callbacks of one Hub out to any number of listeners in Java. Register it as the only listener on the
+// Hub. Each subscriber is either called inline on the Hub thread, in subscription order, or asynchronously from
+// a bounded queue on a thread of its own, so a listener that blocks only delays itself. Asynchronous events are
+// copied into pre-allocated slots before any inline subscriber runs. A listener that throws is counted and
+// skipped without affecting the others. Each subscriber only gets the types in its EventMask. The dispatcher
+// itself takes every type, as subscribers may come and go after it is added to the source.
+// Callbacks must come from a single thread, as they do from the Hub.
+public final class ListenerDispatcher implements DeviceListener {
+	private static final int PAIR = EventType.PAIR.ordinal();
+	private static final int UNPAIR = EventType.UNPAIR.ordinal();
+	private static final int CONNECT = EventType.CONNECT.ordinal();
+	private static final int DISCONNECT = EventType.DISCONNECT.ordinal();
+	private static final int ARM_SYNC = EventType.ARM_SYNC.ordinal();
+	private static final int ARM_UNSYNC = EventType.ARM_UNSYNC.ordinal();
+	private static final int UNLOCK = EventType.UNLOCK.ordinal();
+	private static final int LOCK = EventType.LOCK.ordinal();
+	private static final int POSE = EventType.POSE.ordinal();
+	private static final int ORIENTATION = EventType.ORIENTATION.ordinal();
+	private static final int ACCELEROMETER = EventType.ACCELEROMETER.ordinal();
+	private static final int GYROSCOPE = EventType.GYROSCOPE.ordinal();
+	private static final int RSSI = EventType.RSSI.ordinal();
+	private static final int BATTERY_LEVEL = EventType.BATTERY_LEVEL.ordinal();
+	private static final int EMG = EventType.EMG.ordinal();
+	private static final int WARMUP_COMPLETED = EventType.WARMUP_COMPLETED.ordinal();
+
+	private final List<Subscription> subscriptions = new ArrayList<>();
+	// Subscriptions by EventType ordinal, rebuilt when one is added or removed
+	private volatile Subscription[][] inline = route(subscriptions, false);
+	private volatile Subscription[][] async = route(subscriptions, true);
+	// Hub thread only
+	private final EventSlot event = new EventSlot();
+
+	// Called on the Hub thread, after the subscribers ahead of it
+	public synchronized Subscription subscribe(String name, DeviceListener listener) {
+		Subscription subscription = new Subscription(this, listener, name);
+		add(subscription);
+		return subscription;
+	}
+
+	// Called on a thread of its own with events from a queue of the given capacity, a power of two
+	public synchronized Subscription subscribeAsync(String name, DeviceListener listener, int capacity, OverflowPolicy overflowPolicy) {
+		Subscription subscription = new Subscription(this, listener, name, capacity, overflowPolicy);
+		subscription.start();
+		add(subscription);
+		return subscription;
+	}
+
+	private void add(Subscription subscription) {
+		subscriptions.add(subscription);
+		reroute();
+	}
+
+	synchronized void remove(Subscription subscription) {
+		if (subscriptions.remove(subscription)) {
+			reroute();
+		}
+		subscription.shutdown();
+	}
+
+	private void reroute() {
+		inline = route(subscriptions, false);
+		async = route(subscriptions, true);
+	}
+
+	private static Subscription[][] route(List<Subscription> subscriptions, boolean async) {
+		EventType[] types = EventType.values();
+		Subscription[][] routes = new Subscription[types.length][];
+		for (EventType type : types) {
+			List<Subscription> route = new ArrayList<>();
+			for (Subscription subscription : subscriptions) {
+				if (subscription.isAsync() == async && EventMask.contains(subscription.getEventMask(), type)) {
+					route.add(subscription);
+				}
+			}
+			routes[type.ordinal()] = route.toArray(new Subscription[route.size()]);
+		}
+		return routes;
+	}
+
+	// Inline subscribers first, in subscription order
+	public synchronized List<Subscription> getSubscriptions() {
+		List<Subscription> ordered = new ArrayList<>();
+		for (Subscription subscription : subscriptions) {
+			if (!subscription.isAsync()) {
+				ordered.add(subscription);
+			}
+		}
+		for (Subscription subscription : subscriptions) {
+			if (subscription.isAsync()) {
+				ordered.add(subscription);
+			}
+		}
+		return ordered;
+	}
+
+	// Closes every subscription; asynchronous ones still deliver what they have queued
+	public synchronized void close() {
+		for (Subscription subscription : getSubscriptions()) {
+			remove(subscription);
+		}
+	}
+
+	private EventSlot begin(EventType type, Myo myo, long timestamp) {
+		event.set(type, myo, timestamp);
+		return event;
+	}
+
+	private void publish(EventSlot event) {
+		for (Subscription subscription : async[event.getType().ordinal()]) {
+			subscription.offer(event);
+		}
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		EventSlot event = begin(EventType.PAIR, myo, timestamp);
+		event.setFirmwareVersion(firmwareVersion);
+		publish(event);
+		for (Subscription subscription : inline[PAIR]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onPair(myo, timestamp, firmwareVersion);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		EventSlot event = begin(EventType.UNPAIR, myo, timestamp);
+		publish(event);
+		for (Subscription subscription : inline[UNPAIR]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onUnpair(myo, timestamp);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		EventSlot event = begin(EventType.CONNECT, myo, timestamp);
+		event.setFirmwareVersion(firmwareVersion);
+		publish(event);
+		for (Subscription subscription : inline[CONNECT]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onConnect(myo, timestamp, firmwareVersion);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		EventSlot event = begin(EventType.DISCONNECT, myo, timestamp);
+		publish(event);
+		for (Subscription subscription : inline[DISCONNECT]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onDisconnect(myo, timestamp);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		EventSlot event = begin(EventType.ARM_SYNC, myo, timestamp);
+		event.setArmSync(arm, xDirection, rotation, warmupState);
+		publish(event);
+		for (Subscription subscription : inline[ARM_SYNC]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onArmSync(myo, timestamp, arm, xDirection, rotation, warmupState);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		EventSlot event = begin(EventType.ARM_UNSYNC, myo, timestamp);
+		publish(event);
+		for (Subscription subscription : inline[ARM_UNSYNC]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onArmUnsync(myo, timestamp);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		EventSlot event = begin(EventType.UNLOCK, myo, timestamp);
+		publish(event);
+		for (Subscription subscription : inline[UNLOCK]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onUnlock(myo, timestamp);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		EventSlot event = begin(EventType.LOCK, myo, timestamp);
+		publish(event);
+		for (Subscription subscription : inline[LOCK]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onLock(myo, timestamp);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		EventSlot event = begin(EventType.POSE, myo, timestamp);
+		event.setPose(pose);
+		publish(event);
+		for (Subscription subscription : inline[POSE]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onPose(myo, timestamp, pose);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		EventSlot event = begin(EventType.ORIENTATION, myo, timestamp);
+		event.setVector(rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+		publish(event);
+		for (Subscription subscription : inline[ORIENTATION]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onOrientationData(myo, timestamp, rotation);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		EventSlot event = begin(EventType.ACCELEROMETER, myo, timestamp);
+		event.setVector(accel.getX(), accel.getY(), accel.getZ(), 0);
+		publish(event);
+		for (Subscription subscription : inline[ACCELEROMETER]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onAccelerometerData(myo, timestamp, accel);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		EventSlot event = begin(EventType.GYROSCOPE, myo, timestamp);
+		event.setVector(gyro.getX(), gyro.getY(), gyro.getZ(), 0);
+		publish(event);
+		for (Subscription subscription : inline[GYROSCOPE]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onGyroscopeData(myo, timestamp, gyro);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		EventSlot event = begin(EventType.RSSI, myo, timestamp);
+		event.setValue(rssi);
+		publish(event);
+		for (Subscription subscription : inline[RSSI]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onRssi(myo, timestamp, rssi);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		EventSlot event = begin(EventType.BATTERY_LEVEL, myo, timestamp);
+		event.setValue(level);
+		publish(event);
+		for (Subscription subscription : inline[BATTERY_LEVEL]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onBatteryLevelReceived(myo, timestamp, level);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		EventSlot event = begin(EventType.EMG, myo, timestamp);
+		event.setEmg(emg);
+		publish(event);
+		for (Subscription subscription : inline[EMG]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onEmgData(myo, timestamp, emg);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		EventSlot event = begin(EventType.WARMUP_COMPLETED, myo, timestamp);
+		event.setWarmupResult(warmupResult);
+		publish(event);
+		for (Subscription subscription : inline[WARMUP_COMPLETED]) {
+			RuntimeException failure = null;
+			try {
+				subscription.getListener().onWarmupCompleted(myo, timestamp, warmupResult);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			subscription.delivered(event.getArrival(), failure);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Subscription subscription : getSubscriptions()) {
+			builder.append(subscription).append(String.format("%n"));
+		}
+		return builder.toString();
+	}
+}
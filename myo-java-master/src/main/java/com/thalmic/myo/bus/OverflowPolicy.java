@@ -0,0 +1,12 @@
+package com.thalmic.myo.bus;
+
+// What a ListenerDispatcher does with an event for an asynchronous subscriber whose queue is full.
+public enum OverflowPolicy {
+	// Discards the new event, keeping the queue in order. The Hub thread never waits.
+	DROP_NEWEST,
+	// Discards the oldest queued event to make room, so the subscriber catches up with the newest data.
+	// The Hub thread never waits.
+	DROP_OLDEST,
+	// Makes the Hub thread wait for room. Nothing is lost, but a stuck subscriber stalls every other one.
+	BLOCK
+}
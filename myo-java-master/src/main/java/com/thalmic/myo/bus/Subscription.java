@@ -0,0 +1,233 @@
+package com.thalmic.myo.bus;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.metrics.Histogram;
+
+// One listener registered with a ListenerDispatcher. An inline subscription is called on the Hub thread. An
+// asynchronous one gets a bounded queue of pre-allocated EventSlots drained by a thread of its own, so a slow
+// listener only delays itself. Lag is the time from the event reaching the dispatcher until the listener is
+// called with it, which for inline subscribers is the time spent in the subscribers ahead of them.
+public final class Subscription implements Runnable {
+	private final ListenerDispatcher dispatcher;
+	private final DeviceListener listener;
+	private final String name;
+	private final OverflowPolicy overflowPolicy;
+	private final int eventMask;
+	private final Histogram lag = new Histogram();
+	// Asynchronous delivery, null for inline
+	private final EventSlot[] queue;
+	private final int mask;
+	private final EventSlot current = new EventSlot();
+	private final Object lock = new Object();
+	private Thread consumer;
+	private long head;
+	private long tail;
+	private int maxBacklog;
+	private boolean closed;
+	private long droppedCount;
+	// Written by the delivering thread only
+	private volatile long deliveredCount;
+	private volatile long failedCount;
+
+	Subscription(ListenerDispatcher dispatcher, DeviceListener listener, String name) {
+		this.dispatcher = dispatcher;
+		this.listener = listener;
+		this.name = name;
+		this.eventMask = EventMask.forListener(listener);
+		this.overflowPolicy = null;
+		this.queue = null;
+		this.mask = 0;
+	}
+
+	Subscription(ListenerDispatcher dispatcher, DeviceListener listener, String name, int capacity, OverflowPolicy overflowPolicy) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+		}
+		this.dispatcher = dispatcher;
+		this.listener = listener;
+		this.name = name;
+		this.eventMask = EventMask.forListener(listener);
+		this.overflowPolicy = overflowPolicy;
+		this.queue = new EventSlot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			queue[i] = new EventSlot();
+		}
+		this.mask = capacity - 1;
+	}
+
+	void start() {
+		consumer = new Thread(this, "myo-listener-" + name);
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	public DeviceListener getListener() {
+		return listener;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getEventMask() {
+		return eventMask;
+	}
+
+	public boolean isAsync() {
+		return queue != null;
+	}
+
+	// Null for inline subscriptions
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public int getCapacity() {
+		return queue == null ? 0 : queue.length;
+	}
+
+	public Histogram getLag() {
+		return lag;
+	}
+
+	public long getDeliveredCount() {
+		return deliveredCount;
+	}
+
+	// Callbacks that threw; the exception is printed and delivery carries on
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	// Events discarded by the overflow policy
+	public long getDroppedCount() {
+		synchronized (lock) {
+			return droppedCount;
+		}
+	}
+
+	// Events queued but not yet delivered
+	public int getBacklog() {
+		synchronized (lock) {
+			return (int) (tail - head);
+		}
+	}
+
+	public int getMaxBacklog() {
+		synchronized (lock) {
+			return maxBacklog;
+		}
+	}
+
+	// Called on the Hub thread for asynchronous subscriptions
+	void offer(EventSlot event) {
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			if (tail - head == queue.length) {
+				switch (overflowPolicy) {
+				case DROP_NEWEST:
+					droppedCount++;
+					return;
+				case DROP_OLDEST:
+					head++;
+					droppedCount++;
+					break;
+				default:
+					while (tail - head == queue.length && !closed) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							droppedCount++;
+							return;
+						}
+					}
+					if (closed) {
+						return;
+					}
+					break;
+				}
+			}
+			queue[(int) tail & mask].copyFrom(event);
+			tail++;
+			maxBacklog = Math.max(maxBacklog, (int) (tail - head));
+			lock.notifyAll();
+		}
+	}
+
+	// Called on the Hub thread for inline subscriptions, after the listener returned or threw
+	void delivered(long arrival, RuntimeException failure) {
+		lag.record(System.nanoTime() - arrival);
+		deliveredCount++;
+		if (failure != null) {
+			failed(failure);
+		}
+	}
+
+	private void failed(RuntimeException failure) {
+		failedCount++;
+		System.err.println("Listener " + name + " threw while handling an event");
+		failure.printStackTrace();
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			synchronized (lock) {
+				while (head == tail && !closed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (head == tail) {
+					return;
+				}
+				current.copyFrom(queue[(int) head & mask]);
+				head++;
+				// Wakes a Hub thread blocked on a full queue
+				lock.notifyAll();
+			}
+			lag.record(System.nanoTime() - current.getArrival());
+			try {
+				current.dispatchTo(listener);
+			} catch (RuntimeException e) {
+				failed(e);
+			}
+			deliveredCount++;
+		}
+	}
+
+	// Stops taking events. An asynchronous subscription delivers what is already queued, then its thread ends.
+	public void close() {
+		dispatcher.remove(this);
+	}
+
+	void shutdown() {
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+	}
+
+	// Waits for the consumer thread to deliver the queued events and end, at most the given time
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		if (consumer == null) {
+			return true;
+		}
+		consumer.join(Math.max(1, unit.toMillis(timeout)));
+		return !consumer.isAlive();
+	}
+
+	@Override
+	public String toString() {
+		String mode = queue == null ? "inline" : String.format("async %d %s, backlog %d max %d, %d dropped", queue.length, overflowPolicy, getBacklog(), getMaxBacklog(), getDroppedCount());
+		return String.format("%s (%s): %d delivered, %d failed%n  lag %s", name, mode, deliveredCount, failedCount, lag.toString(TimeUnit.MILLISECONDS));
+	}
+}
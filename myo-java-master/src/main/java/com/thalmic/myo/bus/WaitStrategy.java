@@ -0,0 +1,32 @@
+package com.thalmic.myo.bus;
+
+import java.util.concurrent.locks.LockSupport;
+
+// What an EventProcessor does when it has caught up with the producer.
+// The producer never signals consumers, so none of these cost the Hub thread anything.
+public enum WaitStrategy {
+	// Lowest latency, burns a core
+	BUSY_SPIN {
+		@Override
+		void idle() {
+		}
+	},
+	// Gives up the time slice between checks
+	YIELD {
+		@Override
+		void idle() {
+			Thread.yield();
+		}
+	},
+	// Sleeps briefly between checks, cheapest on CPU
+	PARK {
+		@Override
+		void idle() {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	};
+
+	private static final long PARK_NANOS = 100000L;
+
+	abstract void idle();
+}
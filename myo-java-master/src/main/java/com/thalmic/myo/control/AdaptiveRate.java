@@ -0,0 +1,197 @@
+package com.thalmic.myo.control;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.enums.PoseType;
+
+// Drops a ControlLoop to an idle rate while one armband is still and puts it back on the high rate as soon as it
+// moves. Still means the orientation stays within a band around where it settled, the smoothed EMG level stays
+// below a threshold and the pose stays at rest. The first sample outside the band switches to the high rate, and
+// registered on the event source the loop pumps, that happens while the loop waits, so the next tick follows at
+// once. The idle rate needs the armband still for the idle dwell and the loop at the high rate for at least the
+// high dwell. While busy, e.g. while the motors are still being driven, the rate stays high. Times are taken from
+// the event timestamps, in microseconds, so replays behave as the session did.
+public class AdaptiveRate extends AbstractDeviceListener implements RawImuListener, EventSubscriber {
+	public enum Rate { HIGH, IDLE }
+
+	// Weight of each new EMG sample in the smoothed level, about 25 ms at 200 Hz
+	private static final double EMG_SMOOTHING = 0.2;
+
+	private final ControlLoop loop;
+	private final long highPeriod;
+	private final long idlePeriod;
+	private double maxAngle = Math.toRadians(3);
+	private double maxEmg = 10;
+	private long idleDwell = TimeUnit.SECONDS.toMicros(2);
+	private long highDwell = TimeUnit.MILLISECONDS.toMicros(500);
+
+	private final MutableQuaternion anchor = new MutableQuaternion();
+	private boolean anchored;
+	private double emgLevel;
+	private boolean posed;
+	private boolean busy;
+	private Rate rate = Rate.HIGH;
+	private long stillSince = -1;
+	private long rateSince = -1;
+	private long lastTimestamp = -1;
+	private final long[] transitions = new long[Rate.values().length];
+	private final long[] timeIn = new long[Rate.values().length];
+
+	// The loop's current period is the high rate
+	public AdaptiveRate(ControlLoop loop, long idlePeriod, TimeUnit unit) {
+		if (idlePeriod <= 0) {
+			throw new IllegalArgumentException("Idle period must be positive, was " + idlePeriod);
+		}
+		this.loop = loop;
+		this.highPeriod = loop.getPeriod(TimeUnit.NANOSECONDS);
+		this.idlePeriod = unit.toNanos(idlePeriod);
+	}
+
+	// Largest rotation from the settled orientation, in radians, and smoothed EMG mean absolute value that still
+	// count as still
+	public void setStillnessBand(double maxAngle, double maxEmg) {
+		if (maxAngle <= 0 || maxEmg <= 0) {
+			throw new IllegalArgumentException("Stillness band must be positive, was " + maxAngle + " rad and " + maxEmg);
+		}
+		this.maxAngle = maxAngle;
+		this.maxEmg = maxEmg;
+	}
+
+	// How long the armband has to be still before idling, and the least time spent at the high rate once woken
+	public void setDwell(long idleDwell, long highDwell, TimeUnit unit) {
+		if (idleDwell < 0 || highDwell < 0) {
+			throw new IllegalArgumentException("Dwell times must not be negative, were " + idleDwell + " and " + highDwell);
+		}
+		this.idleDwell = unit.toMicros(idleDwell);
+		this.highDwell = unit.toMicros(highDwell);
+	}
+
+	@Override
+	public int getEventMask() {
+		return EventMask.ORIENTATION | EventMask.EMG | EventMask.POSE;
+	}
+
+	public synchronized Rate getRate() {
+		return rate;
+	}
+
+	public synchronized void setBusy(boolean busy) {
+		this.busy = busy;
+		if (busy) {
+			wake(lastTimestamp);
+		}
+	}
+
+	@Override
+	public synchronized void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+		double norm = Math.sqrt(x * x + y * y + z * z + w * w);
+		if (anchored) {
+			double dot = Math.abs((anchor.getX() * x + anchor.getY() * y + anchor.getZ() * z + anchor.getW() * w) / norm);
+			double angle = 2 * Math.acos(Math.min(1, dot));
+			if (angle <= maxAngle) {
+				sample(timestamp, emgLevel <= maxEmg && !posed);
+				return;
+			}
+		}
+		// Settles around the new orientation
+		anchor.set(x / norm, y / norm, z / norm, w / norm);
+		anchored = true;
+		sample(timestamp, false);
+	}
+
+	@Override
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+	}
+
+	@Override
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+	}
+
+	@Override
+	public synchronized void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		double sum = 0;
+		for (byte value : emg) {
+			sum += Math.abs(value);
+		}
+		emgLevel += EMG_SMOOTHING * (sum / emg.length - emgLevel);
+		sample(timestamp, emgLevel <= maxEmg && !posed);
+	}
+
+	@Override
+	public synchronized void onPose(Myo myo, long timestamp, Pose pose) {
+		posed = pose.getType() != PoseType.REST && pose.getType() != PoseType.UNKNOWN;
+		sample(timestamp, !posed);
+	}
+
+	private void sample(long timestamp, boolean still) {
+		if (rateSince < 0) {
+			rateSince = timestamp;
+		}
+		account(timestamp);
+		if (!still || busy) {
+			stillSince = -1;
+			wake(timestamp);
+			return;
+		}
+		if (stillSince < 0) {
+			stillSince = timestamp;
+		}
+		if (rate == Rate.HIGH && timestamp - stillSince >= idleDwell && timestamp - rateSince >= highDwell) {
+			change(Rate.IDLE, timestamp);
+		}
+	}
+
+	private void wake(long timestamp) {
+		if (rate == Rate.IDLE) {
+			change(Rate.HIGH, timestamp);
+		}
+	}
+
+	private void change(Rate rate, long timestamp) {
+		account(timestamp);
+		this.rate = rate;
+		rateSince = timestamp;
+		transitions[rate.ordinal()]++;
+		loop.setPeriod(rate == Rate.HIGH ? highPeriod : idlePeriod, TimeUnit.NANOSECONDS);
+	}
+
+	// Adds the time since the last event to the current rate
+	private void account(long timestamp) {
+		if (lastTimestamp >= 0 && timestamp > lastTimestamp) {
+			timeIn[rate.ordinal()] += timestamp - lastTimestamp;
+		}
+		if (timestamp > lastTimestamp) {
+			lastTimestamp = timestamp;
+		}
+	}
+
+	// Switches into the rate
+	public synchronized long getTransitionCount(Rate rate) {
+		return transitions[rate.ordinal()];
+	}
+
+	public synchronized long getTimeIn(Rate rate, TimeUnit unit) {
+		return unit.convert(timeIn[rate.ordinal()], TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public synchronized String toString() {
+		long high = timeIn[Rate.HIGH.ordinal()];
+		long idle = timeIn[Rate.IDLE.ordinal()];
+		double idleShare = high + idle == 0 ? 0 : 100.0 * idle / (high + idle);
+		return String.format("%s at %.1f Hz, %.1f s high at %.1f Hz, %.1f s idle at %.1f Hz (%.0f%%), %d idled, %d woken", rate, 1e9 / (rate == Rate.HIGH ? highPeriod : idlePeriod), high / 1e6, 1e9 / highPeriod, idle / 1e6, 1e9 / idlePeriod, idleShare, transitions[Rate.IDLE.ordinal()], transitions[Rate.HIGH.ordinal()]);
+	}
+}
@@ -0,0 +1,162 @@
+package com.thalmic.myo.control;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.thalmic.myo.EventSource;
+import com.thalmic.myo.metrics.Histogram;
+
+// Runs a task at a fixed rate on the calling thread and pumps the event source with runOnce in between, so
+// listeners are called on the same thread and never during a tick. Ticks are scheduled on a fixed grid from
+// the start: a tick that starts late does not shift the ones after it, and when a tick finishes past the next
+// scheduled start that is an overrun. Ticks missed entirely are skipped rather than run in a burst.
+// Period, jitter (how late a tick started) and compute time are kept in nanosecond histograms.
+// The period can be changed while running, from a tick, a listener or another thread. A shorter one cuts the
+// current wait short, so a listener pumped by the loop can bring the next tick forward.
+public class ControlLoop implements Runnable {
+	private final EventSource source;
+	private final Runnable task;
+	private volatile long period;
+	private volatile boolean rescheduled;
+	private final Histogram periods = new Histogram();
+	private final Histogram jitter = new Histogram();
+	private final Histogram compute = new Histogram();
+	private volatile boolean running;
+	private volatile long tickCount;
+	private volatile long overrunCount;
+	private volatile long skippedCount;
+
+	public ControlLoop(EventSource source, Runnable task, long period, TimeUnit unit) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive, was " + period);
+		}
+		this.source = source;
+		this.task = task;
+		this.period = unit.toNanos(period);
+	}
+
+	public long getPeriod(TimeUnit unit) {
+		return unit.convert(period, TimeUnit.NANOSECONDS);
+	}
+
+	// Takes effect from the next tick. When shorter, that tick is due the new period after the last one started,
+	// at once if that has already passed.
+	public void setPeriod(long period, TimeUnit unit) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive, was " + period);
+		}
+		long nanos = unit.toNanos(period);
+		long previous = this.period;
+		this.period = nanos;
+		if (nanos < previous) {
+			rescheduled = true;
+		}
+	}
+
+	// Runs until stop is called, from a tick, a listener or another thread
+	@Override
+	public void run() {
+		running = true;
+		long next = System.nanoTime() + period;
+		long lastStart = 0;
+		while (running) {
+			pumpUntil(next);
+			if (!running) {
+				break;
+			}
+			if (rescheduled) {
+				rescheduled = false;
+				// A tick brought forward into the past starts now, it is not late
+				long now = System.nanoTime();
+				long sooner = lastStart == 0 ? now : lastStart + period;
+				if (sooner - now < 0) {
+					sooner = now;
+				}
+				if (sooner - next < 0) {
+					next = sooner;
+				}
+				if (next - now > 0) {
+					continue;
+				}
+			}
+			long start = System.nanoTime();
+			jitter.record(start - next);
+			if (lastStart != 0) {
+				periods.record(start - lastStart);
+			}
+			lastStart = start;
+
+			task.run();
+
+			long end = System.nanoTime();
+			compute.record(end - start);
+			tickCount++;
+			long period = this.period;
+			next += period;
+			if (end - next > 0) {
+				overrunCount++;
+				long missed = (end - next) / period;
+				if (missed > 0) {
+					skippedCount += missed;
+					next += missed * period;
+				}
+			}
+		}
+	}
+
+	public void stop() {
+		running = false;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	// Waits for events until the deadline in whole milliseconds, then parks for the rest so the tick starts on time.
+	// Returns early when the period was shortened.
+	private void pumpUntil(long deadline) {
+		while (running && !rescheduled) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return;
+			}
+			int millis = (int) TimeUnit.NANOSECONDS.toMillis(remaining);
+			if (millis > 0) {
+				source.runOnce(millis);
+			} else {
+				LockSupport.parkNanos(remaining);
+			}
+		}
+	}
+
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	// Ticks that finished after the next one was due
+	public long getOverrunCount() {
+		return overrunCount;
+	}
+
+	// Scheduled ticks that were dropped because an overrun ran past them
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	public Histogram getPeriods() {
+		return periods;
+	}
+
+	public Histogram getJitter() {
+		return jitter;
+	}
+
+	public Histogram getCompute() {
+		return compute;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d ticks at %.1f Hz, %d overruns, %d skipped%n  period  %s%n  jitter  %s%n  compute %s", tickCount, 1e9 / period, overrunCount, skippedCount, periods.toString(TimeUnit.MILLISECONDS), jitter.toString(TimeUnit.MILLISECONDS), compute.toString(TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,192 @@
+package com.thalmic.myo.device;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Gives every armband a stable id and keeps its state in a DeviceState of its own. Register it on the Hub ahead of
+// the listeners that look devices up. Lookups by Myo are a hash map read and lookups by id an array read, neither
+// taking a lock, so they stay flat with tens of armbands. Each callback writes only the state of the Myo it is
+// for.
+public class DeviceRegistry extends AbstractDeviceListener implements RawImuListener {
+	private final ConcurrentMap<Myo, DeviceState> devices = new ConcurrentHashMap<>();
+	private volatile DeviceState[] byId = new DeviceState[0];
+
+	// The state of the Myo, registering it under the next id the first time it is seen
+	public DeviceState register(Myo myo) {
+		DeviceState state = devices.get(myo);
+		if (state != null) {
+			return state;
+		}
+		synchronized (this) {
+			state = devices.get(myo);
+			if (state == null) {
+				DeviceState[] current = byId;
+				state = new DeviceState(current.length, myo);
+				DeviceState[] updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = state;
+				byId = updated;
+				devices.put(myo, state);
+			}
+			return state;
+		}
+	}
+
+	// Null for an armband not seen yet
+	public DeviceState get(Myo myo) {
+		return devices.get(myo);
+	}
+
+	public DeviceState get(int id) {
+		DeviceState[] current = byId;
+		if (id < 0 || id >= current.length) {
+			throw new IllegalArgumentException("Device id must be between 0 and " + (current.length - 1) + ", was " + id);
+		}
+		return current[id];
+	}
+
+	// -1 for an armband not seen yet
+	public int getId(Myo myo) {
+		DeviceState state = devices.get(myo);
+		return state == null ? -1 : state.getId();
+	}
+
+	public int size() {
+		return byId.length;
+	}
+
+	// In id order
+	public List<DeviceState> getDevices() {
+		return Collections.unmodifiableList(Arrays.asList(byId));
+	}
+
+	private DeviceState event(Myo myo, long timestamp) {
+		DeviceState state = register(myo);
+		state.event(timestamp);
+		return state;
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		event(myo, timestamp).setPaired(true);
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		DeviceState state = event(myo, timestamp);
+		state.setPaired(false);
+		state.setConnected(false);
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		DeviceState state = event(myo, timestamp);
+		state.setPaired(true);
+		state.setConnected(true);
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		DeviceState state = event(myo, timestamp);
+		state.setConnected(false);
+		state.setArm(Arm.ARM_UNKNOWN, XDirection.X_DIRECTION_UNKNOWN);
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		event(myo, timestamp).setArm(arm, xDirection);
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		event(myo, timestamp).setArm(Arm.ARM_UNKNOWN, XDirection.X_DIRECTION_UNKNOWN);
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		event(myo, timestamp).setUnlocked(true);
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		event(myo, timestamp).setUnlocked(false);
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		event(myo, timestamp).setPose(pose);
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+	}
+
+	@Override
+	public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+		event(myo, timestamp).setOrientation(x, y, z, w, timestamp);
+	}
+
+	@Override
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		event(myo, timestamp).setRssi(rssi);
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		event(myo, timestamp).setBatteryLevel(level);
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		event(myo, timestamp);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (DeviceState state : byId) {
+			builder.append(state).append(String.format("%n"));
+		}
+		return builder.toString();
+	}
+}
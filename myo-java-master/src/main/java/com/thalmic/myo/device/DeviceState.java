@@ -0,0 +1,156 @@
+package com.thalmic.myo.device;
+
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.XDirection;
+
+// The latest known state of one armband, owned by a DeviceRegistry. Only the Hub thread writes it, so updates
+// take no locks; other threads read it at any time. The orientation is written under a sequence lock so a
+// reader never sees half of one quaternion and half of the next. Every other value is a single volatile field.
+public final class DeviceState {
+	private final int id;
+	private final Myo myo;
+	// Sequence lock, odd while the Hub thread is writing the orientation and its timestamp
+	private volatile long orientationSequence;
+	private volatile double x;
+	private volatile double y;
+	private volatile double z;
+	private volatile double w = 1;
+	private volatile long orientationTimestamp;
+	private volatile boolean paired;
+	private volatile boolean connected;
+	private volatile boolean unlocked;
+	private volatile Arm arm = Arm.ARM_UNKNOWN;
+	private volatile XDirection xDirection = XDirection.X_DIRECTION_UNKNOWN;
+	private volatile Pose pose;
+	private volatile int batteryLevel = -1;
+	private volatile int rssi;
+	private volatile long lastTimestamp;
+	private volatile long eventCount;
+
+	DeviceState(int id, Myo myo) {
+		this.id = id;
+		this.myo = myo;
+	}
+
+	// Assigned in the order armbands were first seen, starting at 0, and never reused
+	public int getId() {
+		return id;
+	}
+
+	public Myo getMyo() {
+		return myo;
+	}
+
+	// Copies the latest orientation into dest and returns its device timestamp, 0 before the first one
+	public long getOrientation(MutableQuaternion dest) {
+		while (true) {
+			long before = orientationSequence;
+			double x = this.x;
+			double y = this.y;
+			double z = this.z;
+			double w = this.w;
+			long timestamp = orientationTimestamp;
+			if ((before & 1) == 0 && before == orientationSequence) {
+				dest.set(x, y, z, w);
+				return timestamp;
+			}
+		}
+	}
+
+	public boolean isPaired() {
+		return paired;
+	}
+
+	public boolean isConnected() {
+		return connected;
+	}
+
+	public boolean isUnlocked() {
+		return unlocked;
+	}
+
+	public Arm getArm() {
+		return arm;
+	}
+
+	public XDirection getXDirection() {
+		return xDirection;
+	}
+
+	// Null before the first pose
+	public Pose getPose() {
+		return pose;
+	}
+
+	// -1 until the armband reports it
+	public int getBatteryLevel() {
+		return batteryLevel;
+	}
+
+	public int getRssi() {
+		return rssi;
+	}
+
+	// Device timestamp of the latest event of any kind
+	public long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	void event(long timestamp) {
+		lastTimestamp = timestamp;
+		eventCount++;
+	}
+
+	void setOrientation(double x, double y, double z, double w, long timestamp) {
+		orientationSequence++;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+		orientationTimestamp = timestamp;
+		orientationSequence++;
+	}
+
+	void setPaired(boolean paired) {
+		this.paired = paired;
+	}
+
+	void setConnected(boolean connected) {
+		this.connected = connected;
+	}
+
+	void setUnlocked(boolean unlocked) {
+		this.unlocked = unlocked;
+	}
+
+	void setArm(Arm arm, XDirection xDirection) {
+		this.arm = arm;
+		this.xDirection = xDirection;
+	}
+
+	void setPose(Pose pose) {
+		this.pose = pose;
+	}
+
+	void setBatteryLevel(int batteryLevel) {
+		this.batteryLevel = batteryLevel;
+	}
+
+	void setRssi(int rssi) {
+		this.rssi = rssi;
+	}
+
+	@Override
+	public String toString() {
+		MutableQuaternion orientation = new MutableQuaternion();
+		getOrientation(orientation);
+		return String.format("myo-%d %s %s %s, pose %s, battery %d, rssi %d, roll %.2f pitch %.2f yaw %.2f, %d events", id, connected ? "connected" : "disconnected", unlocked ? "unlocked" : "locked", arm, pose, batteryLevel, rssi, orientation.roll(), orientation.pitch(), orientation.yaw(), eventCount);
+	}
+}
@@ -0,0 +1,9 @@
+package com.thalmic.myo.emg;
+
+import com.thalmic.myo.Myo;
+
+// Receives EMG in blocks. channels[c][i] is channel c of sample i, timestamps[i] its timestamp, for i < sampleCount.
+// The arrays are reused for the next batch, so copy anything that has to outlive the call.
+public interface EmgBatchListener {
+	public void onEmgBatch(Myo myo, long[] timestamps, byte[][] channels, int sampleCount);
+}
@@ -0,0 +1,109 @@
+package com.thalmic.myo.emg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+
+// Collects onEmgData samples into per-device channel-major buffers and hands them to EmgBatchListeners
+// once batchSize samples are in, or once the oldest buffered sample is maxLatency microseconds old. Both limits
+// are checked as samples arrive, going by their timestamps, so a batch is delivered with the first sample that
+// reaches either limit; flush() delivers what is left when the stream stops, as a disconnect or unpair does.
+public class EmgBatcher extends AbstractDeviceListener {
+	public static final int CHANNELS = 8;
+
+	private final int batchSize;
+	private final long maxLatency;
+	private final Map<Myo, Batch> batches = new HashMap<>();
+	private final List<EmgBatchListener> listeners = new CopyOnWriteArrayList<>();
+
+	public EmgBatcher(int batchSize, long maxLatency) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1, was " + batchSize);
+		}
+		this.batchSize = batchSize;
+		this.maxLatency = maxLatency;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	public void addListener(EmgBatchListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(EmgBatchListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		Batch batch = batches.get(myo);
+		if (batch == null) {
+			batch = new Batch(batchSize);
+			batches.put(myo, batch);
+		}
+		int index = batch.count++;
+		batch.timestamps[index] = timestamp;
+		int channels = Math.min(CHANNELS, emg.length);
+		for (int c = 0; c < channels; c++) {
+			batch.channels[c][index] = emg[c];
+		}
+		if (batch.count == batchSize || timestamp - batch.timestamps[0] >= maxLatency) {
+			flush(myo, batch);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		flush(myo);
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		flush(myo);
+	}
+
+	// Delivers whatever is buffered for the device, e.g. when its stream stops
+	public void flush(Myo myo) {
+		Batch batch = batches.get(myo);
+		if (batch != null) {
+			flush(myo, batch);
+		}
+	}
+
+	public void flush() {
+		for (Map.Entry<Myo, Batch> entry : batches.entrySet()) {
+			flush(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void flush(Myo myo, Batch batch) {
+		if (batch.count == 0) {
+			return;
+		}
+		for (EmgBatchListener listener : listeners) {
+			listener.onEmgBatch(myo, batch.timestamps, batch.channels, batch.count);
+		}
+		batch.count = 0;
+	}
+
+	private static final class Batch {
+		private final long[] timestamps;
+		private final byte[][] channels;
+		private int count;
+
+		private Batch(int batchSize) {
+			timestamps = new long[batchSize];
+			channels = new byte[CHANNELS][batchSize];
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package com.thalmic.myo.emg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+
+// Time-domain EMG features over a sliding window of windowSize samples per channel, published every hop samples
+// once the window is full. Every feature is kept as a running sum over per-sample contributions held in
+// primitive rings, so a sample costs the same whatever the window size. Feed it from the Hub through onEmgData
+// or from an EmgBatcher through onEmgBatch.
+public class EmgFeatureExtractor extends AbstractDeviceListener implements EmgBatchListener {
+	public static final int CHANNELS = EmgBatcher.CHANNELS;
+	public static final int RMS = 0;
+	public static final int MEAN_ABSOLUTE_VALUE = 1;
+	public static final int ZERO_CROSSINGS = 2;
+	public static final int SLOPE_SIGN_CHANGES = 3;
+	public static final int WAVEFORM_LENGTH = 4;
+	public static final int FEATURES = 5;
+
+	private static final byte ZERO_CROSSING = 1;
+	private static final byte SLOPE_SIGN_CHANGE = 2;
+
+	private final int windowSize;
+	private final int hop;
+	private int threshold;
+	private final Map<Myo, Window> windows = new HashMap<>();
+	private final List<EmgFeatureListener> listeners = new CopyOnWriteArrayList<>();
+
+	public EmgFeatureExtractor(int windowSize, int hop) {
+		if (windowSize < 3 || hop < 1) {
+			throw new IllegalArgumentException("Window size must be at least 3 and hop at least 1, were " + windowSize + " and " + hop);
+		}
+		this.windowSize = windowSize;
+		this.hop = hop;
+	}
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	public int getHop() {
+		return hop;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	// Noise floor for zero crossings and slope sign changes; steps no larger than it are not counted
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	public void addListener(EmgFeatureListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(EmgFeatureListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		Window window = window(myo);
+		window.add(emg);
+		publishIfDue(myo, timestamp, window);
+	}
+
+	@Override
+	public void onEmgBatch(Myo myo, long[] timestamps, byte[][] channels, int sampleCount) {
+		Window window = window(myo);
+		for (int i = 0; i < sampleCount; i++) {
+			for (int c = 0; c < CHANNELS; c++) {
+				window.sample[c] = channels[c][i];
+			}
+			window.add(window.sample);
+			publishIfDue(myo, timestamps[i], window);
+		}
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		reset(myo);
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		reset(myo);
+	}
+
+	private void reset(Myo myo) {
+		Window window = windows.get(myo);
+		if (window != null) {
+			window.reset();
+		}
+	}
+
+	private Window window(Myo myo) {
+		Window window = windows.get(myo);
+		if (window == null) {
+			window = new Window();
+			windows.put(myo, window);
+		}
+		return window;
+	}
+
+	private void publishIfDue(Myo myo, long timestamp, Window window) {
+		if (window.count < windowSize || ++window.sinceLastPublish < hop) {
+			return;
+		}
+		window.sinceLastPublish = 0;
+		double[] features = window.features;
+		for (int c = 0; c < CHANNELS; c++) {
+			features[RMS * CHANNELS + c] = Math.sqrt((double) window.sumSquares[c] / windowSize);
+			features[MEAN_ABSOLUTE_VALUE * CHANNELS + c] = (double) window.sumAbsolute[c] / windowSize;
+			features[ZERO_CROSSINGS * CHANNELS + c] = window.zeroCrossings[c];
+			features[SLOPE_SIGN_CHANGES * CHANNELS + c] = window.slopeSignChanges[c];
+			features[WAVEFORM_LENGTH * CHANNELS + c] = window.waveformLength[c];
+		}
+		for (EmgFeatureListener listener : listeners) {
+			listener.onEmgFeatures(myo, timestamp, features);
+		}
+	}
+
+	// Rings are channel-major: ring[channel * windowSize + slot]. Each slot keeps the sample and what it added to
+	// the running sums, so evicting it is a subtraction. The difference and zero crossing a slot keeps are those
+	// with the sample before it, its slope sign change the one at the sample before it. Once the window is full,
+	// the oldest sample's pair with the evicted one and the next sample's slope sign change at the oldest are
+	// taken out as well, so the sums only cover pairs and triples inside the window.
+	private final class Window {
+		private final byte[] samples = new byte[CHANNELS * windowSize];
+		private final short[] absoluteDifferences = new short[CHANNELS * windowSize];
+		private final byte[] flags = new byte[CHANNELS * windowSize];
+		private final long[] sumSquares = new long[CHANNELS];
+		private final long[] sumAbsolute = new long[CHANNELS];
+		private final long[] waveformLength = new long[CHANNELS];
+		private final int[] zeroCrossings = new int[CHANNELS];
+		private final int[] slopeSignChanges = new int[CHANNELS];
+		private final double[] features = new double[FEATURES * CHANNELS];
+		private final byte[] sample = new byte[CHANNELS];
+		private long count;
+		private int sinceLastPublish;
+
+		private void add(byte[] emg) {
+			int slot = (int) (count % windowSize);
+			int previousSlot = slot == 0 ? windowSize - 1 : slot - 1;
+			int olderSlot = previousSlot == 0 ? windowSize - 1 : previousSlot - 1;
+			int oldestSlot = slot == windowSize - 1 ? 0 : slot + 1;
+			int secondSlot = oldestSlot == windowSize - 1 ? 0 : oldestSlot + 1;
+			for (int c = 0; c < CHANNELS; c++) {
+				int base = c * windowSize;
+				int index = base + slot;
+				if (count >= windowSize) {
+					// The evicted slot's own pair and triple were taken out when it became the oldest
+					int old = samples[index];
+					sumSquares[c] -= old * old;
+					sumAbsolute[c] -= Math.abs(old);
+					int oldest = base + oldestSlot;
+					waveformLength[c] -= absoluteDifferences[oldest];
+					absoluteDifferences[oldest] = 0;
+					if ((flags[oldest] & ZERO_CROSSING) != 0) {
+						zeroCrossings[c]--;
+						flags[oldest] &= ~ZERO_CROSSING;
+					}
+					int second = base + secondSlot;
+					if ((flags[second] & SLOPE_SIGN_CHANGE) != 0) {
+						slopeSignChanges[c]--;
+						flags[second] &= ~SLOPE_SIGN_CHANGE;
+					}
+				}
+
+				int value = emg[c];
+				int difference = 0;
+				byte flag = 0;
+				if (count >= 1) {
+					int previous = samples[base + previousSlot];
+					difference = Math.abs(value - previous);
+					if (previous * value < 0 && difference > threshold) {
+						flag |= ZERO_CROSSING;
+					}
+					// The slope sign change at the previous sample is only known once this one is in
+					if (count >= 2) {
+						int older = samples[base + olderSlot];
+						if ((previous - older) * (previous - value) > threshold) {
+							flag |= SLOPE_SIGN_CHANGE;
+						}
+					}
+				}
+
+				samples[index] = (byte) value;
+				absoluteDifferences[index] = (short) difference;
+				flags[index] = flag;
+				sumSquares[c] += value * value;
+				sumAbsolute[c] += Math.abs(value);
+				waveformLength[c] += difference;
+				if ((flag & ZERO_CROSSING) != 0) {
+					zeroCrossings[c]++;
+				}
+				if ((flag & SLOPE_SIGN_CHANGE) != 0) {
+					slopeSignChanges[c]++;
+				}
+			}
+			count++;
+		}
+
+		private void reset() {
+			count = 0;
+			sinceLastPublish = 0;
+			for (int c = 0; c < CHANNELS; c++) {
+				sumSquares[c] = 0;
+				sumAbsolute[c] = 0;
+				waveformLength[c] = 0;
+				zeroCrossings[c] = 0;
+				slopeSignChanges[c] = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.thalmic.myo.emg;
+
+import com.thalmic.myo.Myo;
+
+// Receives one feature vector per hop. features[feature * EmgFeatureExtractor.CHANNELS + channel] holds the
+// feature (EmgFeatureExtractor.RMS and so on) of a channel. The array is reused for the device's next window.
+public interface EmgFeatureListener {
+	public void onEmgFeatures(Myo myo, long timestamp, double[] features);
+}
@@ -0,0 +1,21 @@
+package com.thalmic.myo.enums;
+
+// One constant per DeviceListener callback
+public enum EventType {
+	PAIR,
+	UNPAIR,
+	CONNECT,
+	DISCONNECT,
+	ARM_SYNC,
+	ARM_UNSYNC,
+	UNLOCK,
+	LOCK,
+	POSE,
+	ORIENTATION,
+	ACCELEROMETER,
+	GYROSCOPE,
+	RSSI,
+	BATTERY_LEVEL,
+	EMG,
+	WARMUP_COMPLETED
+}
@@ -0,0 +1,140 @@
+package com.thalmic.myo.example;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// The outcome of one action submitted to an ArmActionExecutor. get returns how long the action ran, in
+// nanoseconds, once the motor has stopped at its target. An action superseded by a newer one or cancelled ends
+// without a result and get throws CancellationException; one whose motor call failed throws ExecutionException.
+public final class ActionFuture implements Future<Long> {
+	public enum State { PENDING, RUNNING, COMPLETED, PREEMPTED, CANCELLED, FAILED }
+
+	private final ArmActionExecutor executor;
+	private final ArmActionExecutor.Action action;
+	private final long submitted;
+	private final long arrival;
+	private final long delivered;
+	private State state = State.PENDING;
+	private long started;
+	private long duration;
+	private Throwable failure;
+
+	ActionFuture(ArmActionExecutor executor, ArmActionExecutor.Action action, long arrival, long delivered) {
+		this.executor = executor;
+		this.action = action;
+		this.submitted = System.nanoTime();
+		this.arrival = arrival;
+		this.delivered = delivered;
+	}
+
+	public ArmActionExecutor.Action getAction() {
+		return action;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	long getSubmitted() {
+		return submitted;
+	}
+
+	long getArrival() {
+		return arrival;
+	}
+
+	long getDelivered() {
+		return delivered;
+	}
+
+	synchronized long getStarted() {
+		return started;
+	}
+
+	// False if the action already ended, e.g. cancelled before the executor got to it
+	synchronized boolean start(long now) {
+		if (state != State.PENDING) {
+			return false;
+		}
+		state = State.RUNNING;
+		started = now;
+		return true;
+	}
+
+	// False if the action already ended, so each one is counted once
+	synchronized boolean finish(State state, long now, Throwable failure) {
+		if (isDone()) {
+			return false;
+		}
+		this.state = state;
+		this.duration = started == 0 ? 0 : now - started;
+		this.failure = failure;
+		notifyAll();
+		return true;
+	}
+
+	// A running action stops the motor where it is
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		synchronized (this) {
+			if (isDone()) {
+				return false;
+			}
+			state = State.CANCELLED;
+			duration = started == 0 ? 0 : System.nanoTime() - started;
+			notifyAll();
+		}
+		executor.cancelled(this);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return state == State.CANCELLED || state == State.PREEMPTED;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return state != State.PENDING && state != State.RUNNING;
+	}
+
+	@Override
+	public synchronized Long get() throws InterruptedException, ExecutionException {
+		while (!isDone()) {
+			wait();
+		}
+		return result();
+	}
+
+	@Override
+	public synchronized Long get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!isDone()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				throw new TimeoutException(action + " still " + state);
+			}
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return result();
+	}
+
+	private Long result() throws ExecutionException {
+		switch (state) {
+		case COMPLETED:
+			return duration;
+		case FAILED:
+			throw new ExecutionException(failure);
+		default:
+			throw new CancellationException(action + " " + state);
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s %s", action, state);
+	}
+}
@@ -0,0 +1,79 @@
+package com.thalmic.myo.example;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.control.AdaptiveRate;
+import com.thalmic.myo.control.ControlLoop;
+import com.thalmic.myo.metrics.Histogram;
+
+// Runs the control loop with an AdaptiveRate against a paced simulated armband that alternates between moving
+// and holding still, and reports how many ticks the idle rate saved against the fixed rate and how long the loop
+// took to get back to the high rate once the armband moved again, measured from the tick that set it moving.
+// Usage: AdaptiveRateShift [rate in Hz] [idle rate in Hz] [seconds moving] [seconds still] [cycles]
+public class AdaptiveRateShift {
+	public static void main(String[] args) {
+		int rate = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int idleRate = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		final long moving = TimeUnit.SECONDS.toMicros(args.length > 2 ? Integer.parseInt(args[2]) : 3);
+		final long still = TimeUnit.SECONDS.toMicros(args.length > 3 ? Integer.parseInt(args[3]) : 6);
+		final int cycles = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+
+		final SimulatedHub hub = new SimulatedHub(3);
+		hub.setPaced(true);
+		final SimulatedDevice device = new SimulatedDevice();
+		device.setPoseRate(0);
+		final double motionFrequency = device.getMotionFrequency();
+		hub.addDevice(device);
+
+		final ControlLoop[] loop = new ControlLoop[1];
+		final AdaptiveRate[] adaptive = new AdaptiveRate[1];
+		final Histogram wake = new Histogram();
+		loop[0] = new ControlLoop(hub, new Runnable() {
+			private long phaseStart = -1;
+			private int cycle;
+			private long woken;
+
+			@Override
+			public void run() {
+				long now = System.nanoTime();
+				if (woken != 0 && adaptive[0].getRate() == AdaptiveRate.Rate.HIGH) {
+					wake.record(now - woken);
+					woken = 0;
+				}
+				long timestamp = hub.getTimestamp();
+				if (phaseStart < 0) {
+					phaseStart = timestamp;
+				}
+				boolean isMoving = device.getMotionFrequency() != 0;
+				if (isMoving && timestamp - phaseStart >= moving) {
+					device.setMotionFrequency(0);
+					phaseStart = timestamp;
+				} else if (!isMoving && timestamp - phaseStart >= still) {
+					if (++cycle >= cycles) {
+						loop[0].stop();
+						return;
+					}
+					device.setMotionFrequency(motionFrequency);
+					phaseStart = timestamp;
+					if (adaptive[0].getRate() == AdaptiveRate.Rate.IDLE) {
+						woken = now;
+					}
+				}
+			}
+		}, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+		adaptive[0] = new AdaptiveRate(loop[0], TimeUnit.SECONDS.toNanos(1) / idleRate, TimeUnit.NANOSECONDS);
+		hub.addListener(adaptive[0]);
+
+		long start = System.nanoTime();
+		loop[0].run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long fixed = Math.round(seconds * rate);
+		long ticks = loop[0].getTickCount();
+		System.out.println(String.format("%.1f s, %d ticks against %d at a fixed %d Hz, %d saved (%.0f%%)", seconds, ticks, fixed, rate, fixed - ticks, 100.0 * (fixed - ticks) / fixed));
+		System.out.println(adaptive[0]);
+		System.out.println("Wake to next tick " + wake.toString(TimeUnit.MILLISECONDS));
+		System.out.println(loop[0]);
+	}
+}
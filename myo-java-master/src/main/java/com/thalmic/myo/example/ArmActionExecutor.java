@@ -0,0 +1,243 @@
+package com.thalmic.myo.example;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.metrics.Histogram;
+import com.thalmic.myo.metrics.LatencyTracer;
+
+// Runs discrete actions, such as opening or closing the gripper, on a thread of its own and hands back an
+// ActionFuture straight away, so a pose callback never waits for the motor. The motor is told to rotate and
+// return at once, then polled until it stops. A newer action supersedes the running one: the new target is sent
+// immediately and the motor turns towards it from wherever it is, so a FIST followed quickly by FINGERS_SPREAD
+// no longer closes fully before opening. An action submitted while another is still waiting to start replaces
+// it. Durations, from the motor command until the motor stopped, are recorded per action for those that
+// completed.
+// With a tracer set, a completed action carrying the stamps of the pose event it came from records the path
+// from arrival to the motor stopping in MotorMailbox.TRACE_STAGES.
+public class ArmActionExecutor implements Runnable {
+	public enum Action {
+		OPEN_GRIPPER(90), CLOSE_GRIPPER(-90);
+
+		private final int angle;
+
+		private Action(int angle) {
+			this.angle = angle;
+		}
+
+		public int getAngle() {
+			return angle;
+		}
+	}
+
+	private static final int BUS = 0;
+	private static final int TICK = 1;
+	private static final int QUEUE = 2;
+	private static final int MOTOR = 3;
+
+	private final String name;
+	private final MotorCommandFilter motor;
+	private final long pollMillis;
+	private final Object lock = new Object();
+	private final Histogram[] durations = new Histogram[Action.values().length];
+	// Per action and ActionFuture.State, the final states only
+	private final long[][] counts = new long[Action.values().length][ActionFuture.State.values().length];
+	private Thread executor;
+	private ActionFuture pending;
+	private boolean closed;
+	private volatile LatencyTracer tracer;
+
+	public ArmActionExecutor(String name, MotorCommandFilter motor, long pollInterval, TimeUnit unit) {
+		if (pollInterval <= 0) {
+			throw new IllegalArgumentException("Poll interval must be positive, was " + pollInterval);
+		}
+		this.name = name;
+		this.motor = motor;
+		this.pollMillis = Math.max(1, unit.toMillis(pollInterval));
+		for (int i = 0; i < durations.length; i++) {
+			durations[i] = new Histogram();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void start() {
+		executor = new Thread(this, "actions-" + name);
+		executor.setDaemon(true);
+		executor.start();
+	}
+
+	public void setTracer(LatencyTracer tracer) {
+		this.tracer = tracer;
+	}
+
+	public ActionFuture submit(Action action) {
+		return submit(action, 0, 0);
+	}
+
+	// Arrival and delivery are the EventSlot arrival and the time the event reached the data collector, 0 for none
+	public ActionFuture submit(Action action, long arrival, long delivered) {
+		ActionFuture future = new ActionFuture(this, action, arrival, delivered);
+		ActionFuture superseded;
+		synchronized (lock) {
+			if (closed) {
+				future.finish(ActionFuture.State.CANCELLED, System.nanoTime(), null);
+				return future;
+			}
+			superseded = pending;
+			pending = future;
+			lock.notifyAll();
+		}
+		if (superseded != null && superseded.finish(ActionFuture.State.PREEMPTED, System.nanoTime(), null)) {
+			count(superseded.getAction(), ActionFuture.State.PREEMPTED);
+		}
+		return future;
+	}
+
+	// Called by ActionFuture.cancel, wakes the executor if the action is running
+	void cancelled(ActionFuture future) {
+		synchronized (lock) {
+			if (pending == future) {
+				pending = null;
+				counts[future.getAction().ordinal()][ActionFuture.State.CANCELLED.ordinal()]++;
+			}
+			lock.notifyAll();
+		}
+	}
+
+	@Override
+	public void run() {
+		ActionFuture current = null;
+		while (true) {
+			ActionFuture next;
+			synchronized (lock) {
+				try {
+					if (current == null) {
+						while (pending == null && !closed) {
+							lock.wait();
+						}
+						if (pending == null) {
+							return;
+						}
+					} else if (pending == null && !current.isDone()) {
+						// Woken early by a newer action or a cancel
+						lock.wait(pollMillis);
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+				next = pending;
+				pending = null;
+			}
+			long now = System.nanoTime();
+			if (current != null) {
+				if (next != null) {
+					ended(current, ActionFuture.State.PREEMPTED, now, null);
+				} else if (current.getState() == ActionFuture.State.CANCELLED) {
+					stopMotor();
+					count(current.getAction(), ActionFuture.State.CANCELLED);
+				} else {
+					try {
+						if (motor.isMoving()) {
+							continue;
+						}
+						ended(current, ActionFuture.State.COMPLETED, System.nanoTime(), null);
+					} catch (RemoteException e) {
+						ended(current, ActionFuture.State.FAILED, now, e);
+					}
+				}
+				current = null;
+			}
+			if (next == null) {
+				continue;
+			}
+			if (!next.start(now)) {
+				// Cancelled between being taken and started
+				count(next.getAction(), ActionFuture.State.CANCELLED);
+				continue;
+			}
+			try {
+				motor.rotateTo(next.getAction().getAngle(), true);
+				current = next;
+			} catch (RemoteException e) {
+				ended(next, ActionFuture.State.FAILED, System.nanoTime(), e);
+			}
+		}
+	}
+
+	private void stopMotor() {
+		try {
+			motor.stop(true);
+		} catch (RemoteException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void ended(ActionFuture future, ActionFuture.State state, long now, Throwable failure) {
+		if (failure != null) {
+			failure.printStackTrace();
+		}
+		// Lost a race with cancel, which then is what is counted
+		if (!future.finish(state, now, failure)) {
+			state = future.getState();
+		}
+		count(future.getAction(), state);
+		if (state != ActionFuture.State.COMPLETED) {
+			return;
+		}
+		long started = future.getStarted();
+		durations[future.getAction().ordinal()].record(now - started);
+		LatencyTracer tracer = this.tracer;
+		long arrival = future.getArrival();
+		if (tracer != null && arrival != 0) {
+			tracer.recordStage(BUS, arrival, future.getDelivered());
+			tracer.recordStage(TICK, future.getDelivered(), future.getSubmitted());
+			tracer.recordStage(QUEUE, future.getSubmitted(), started);
+			tracer.recordStage(MOTOR, started, now);
+			tracer.recordTotal(arrival, now);
+		}
+	}
+
+	private void count(Action action, ActionFuture.State state) {
+		synchronized (lock) {
+			counts[action.ordinal()][state.ordinal()]++;
+		}
+	}
+
+	// Runs the running and pending actions to the end, then stops the executor and waits for it
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		if (executor != null) {
+			try {
+				executor.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	// From the motor command until the motor stopped, completed actions only
+	public Histogram getDuration(Action action) {
+		return durations[action.ordinal()];
+	}
+
+	public long getCount(Action action, ActionFuture.State state) {
+		synchronized (lock) {
+			return counts[action.ordinal()][state.ordinal()];
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(name).append(':');
+		for (Action action : Action.values()) {
+			builder.append(String.format("%n  %s: %d completed, %d preempted, %d cancelled, %d failed%n    duration %s", action, getCount(action, ActionFuture.State.COMPLETED), getCount(action, ActionFuture.State.PREEMPTED), getCount(action, ActionFuture.State.CANCELLED), getCount(action, ActionFuture.State.FAILED), durations[action.ordinal()].toString(TimeUnit.MILLISECONDS)));
+		}
+		return builder.append(String.format("%n  %s", motor)).toString();
+	}
+}
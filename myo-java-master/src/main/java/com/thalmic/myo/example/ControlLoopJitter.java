@@ -0,0 +1,45 @@
+package com.thalmic.myo.example;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.control.ControlLoop;
+
+// Runs the control loop against paced simulated armbands with the DataCollector mapping as the tick and
+// reports whether the rate holds.
+// Usage: ControlLoopJitter [rate in Hz] [seconds] [devices]
+public class ControlLoopJitter {
+	public static void main(String[] args) {
+		int rate = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int deviceCount = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+		SimulatedHub hub = new SimulatedHub(1);
+		hub.setPaced(true);
+		for (int i = 0; i < deviceCount; i++) {
+			// No poses, the data collector would drive a real arm from them
+			SimulatedDevice device = new SimulatedDevice();
+			device.setPoseRate(0);
+			hub.addDevice(device);
+		}
+		final DataCollector dataCollector = new DataCollector(null);
+		hub.addListener(dataCollector);
+		final double[] speeds = new double[2];
+		final ControlLoop[] loop = new ControlLoop[1];
+		final long ticks = (long) rate * seconds;
+		loop[0] = new ControlLoop(hub, new Runnable() {
+			@Override
+			public void run() {
+				speeds[0] = dataCollector.getPitch();
+				speeds[1] = dataCollector.getRoll();
+				if (loop[0].getTickCount() + 1 >= ticks) {
+					loop[0].stop();
+				}
+			}
+		}, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+		loop[0].run();
+		System.out.println(String.format("%d events, last pitch %.1f roll %.1f", hub.getEventCount(), speeds[0], speeds[1]));
+		System.out.println(loop[0]);
+	}
+}
@@ -0,0 +1,53 @@
+package com.thalmic.myo.example;
+
+import com.thalmic.myo.MutableVector3;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+
+// Checks Vector3.cross and MutableVector3.cross against cross products worked out by hand, and that
+// Quaternion.rotate(from, to), which expects unit vectors, turns from onto to. Exits with 1 if any check fails.
+// Usage: CrossProductCheck
+public class CrossProductCheck {
+	private static final double TOLERANCE = 1e-9;
+	// Pairs of operands followed by their cross product
+	private static final double[][] CASES = {
+		{ 1, 0, 0, 0, 1, 0, 0, 0, 1 },
+		{ 0, 1, 0, 0, 0, 1, 1, 0, 0 },
+		{ 0, 0, 1, 1, 0, 0, 0, 1, 0 },
+		{ 0, 1, 0, 1, 0, 0, 0, 0, -1 },
+		{ 1, 2, 3, 4, 5, 6, -3, 6, -3 },
+		{ 2, -1, 0.5, -3, 4, 2, -4, -5.5, 5 },
+		{ 1, 1, 1, 2, 2, 2, 0, 0, 0 },
+	};
+
+	public static void main(String[] args) {
+		int failures = 0;
+		for (double[] c : CASES) {
+			Vector3 cross = new Vector3(c[0], c[1], c[2]).cross(new Vector3(c[3], c[4], c[5]));
+			failures += check("Vector3", c, cross.getX(), cross.getY(), cross.getZ());
+			MutableVector3 mutable = new MutableVector3(c[0], c[1], c[2]).cross(new MutableVector3(c[3], c[4], c[5]));
+			failures += check("MutableVector3", c, mutable.getX(), mutable.getY(), mutable.getZ());
+		}
+		double[][] rotations = { { 1, 0, 0, 0, 1, 0 }, { 1, 2, 3, -2, 0.5, 1 }, { 0.3, -0.7, 0.2, 0.9, 0.1, -0.4 } };
+		for (double[] r : rotations) {
+			Vector3 from = new Vector3(r[0], r[1], r[2]).normalized();
+			Vector3 to = new Vector3(r[3], r[4], r[5]).normalized();
+			Vector3 rotated = Vector3.rotate(Quaternion.rotate(from, to).normalized(), from);
+			boolean ok = Math.abs(rotated.getX() - to.getX()) < TOLERANCE && Math.abs(rotated.getY() - to.getY()) < TOLERANCE && Math.abs(rotated.getZ() - to.getZ()) < TOLERANCE;
+			if (!ok) {
+				failures++;
+			}
+			System.out.println(String.format("%s rotate %s onto %s: %s", ok ? "ok  " : "FAIL", from, to, rotated));
+		}
+		System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static int check(String type, double[] c, double x, double y, double z) {
+		boolean ok = Math.abs(x - c[6]) < TOLERANCE && Math.abs(y - c[7]) < TOLERANCE && Math.abs(z - c[8]) < TOLERANCE;
+		System.out.println(String.format("%s %s (%s, %s, %s) x (%s, %s, %s) = (%s, %s, %s)", ok ? "ok  " : "FAIL", type, c[0], c[1], c[2], c[3], c[4], c[5], x, y, z));
+		return ok ? 0 : 1;
+	}
+}
@@ -8,18 +8,23 @@
 package com.thalmic.myo.example;
 
 import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
 import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.MutableQuaternion;
 import com.thalmic.myo.Myo;
 import com.thalmic.myo.Pose;
 import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
 import com.thalmic.myo.Vector3;
 import com.thalmic.myo.enums.Arm;
 import com.thalmic.myo.enums.PoseType;
 import com.thalmic.myo.enums.VibrationType;
 import com.thalmic.myo.enums.WarmupState;
 import com.thalmic.myo.enums.XDirection;
+import com.thalmic.myo.imu.OrientationPredictor;
 
-public class DataCollector extends AbstractDeviceListener {
+public class DataCollector extends AbstractDeviceListener implements EventSubscriber, RawImuListener {
 	public static final int SCALE = 20;
     private double rollW;
     private double pitchW;
@@ -28,6 +33,11 @@ public class DataCollector extends AbstractDeviceListener {
     private Arm whichArm;
     private RoboticArm myoArm;
     private boolean connected = false;
+    private final MutableQuaternion normalized = new MutableQuaternion();
+    private OrientationPredictor predictor;
+    // What the telemetry console draws, packed into one int so another thread reads it whole: the roll and pitch
+    // bar lengths, the arm and the pose
+    private volatile int display;
 
     public DataCollector(RoboticArm myoArm) {
 		rollW = 0;
@@ -35,19 +45,97 @@ public class DataCollector extends AbstractDeviceListener {
 		yawW = 0;
 		currentPose = new Pose();
 		this.myoArm = myoArm;
+		publish();
+    }
+
+    // Connection, arm and lock changes, poses and orientation, plus the gyroscope with a predictor; accelerometer,
+    // EMG and status events are never needed
+    @Override
+    public int getEventMask() {
+    	int mask = EventMask.LIFECYCLE | EventMask.POSE | EventMask.ORIENTATION;
+    	return predictor == null ? mask : mask | predictor.getEventMask();
+    }
+
+    // With a predictor the angles are where the arm is expected to be once a command reaches the motors. Set it
+    // before the collector is registered, its event mask changes.
+    public void setPredictor(OrientationPredictor predictor) {
+    	this.predictor = predictor;
+    }
+
+    public OrientationPredictor getPredictor() {
+    	return predictor;
     }
 
     @Override
     public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
-    	Quaternion normalized = rotation.normalized();
+    	onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+    }
 
-		double roll = Math.atan2(2.0f * (normalized.getW() * normalized.getX() + normalized.getY() * normalized.getZ()), 1.0f - 2.0f * (normalized.getX() * normalized.getX() + normalized.getY() * normalized.getY()));
-		double pitch = Math.asin(2.0f * (normalized.getW() * normalized.getY() - normalized.getZ() * normalized.getX()));
-		double yaw = Math.atan2(2.0f * (normalized.getW() * normalized.getZ() + normalized.getX() * normalized.getY()), 1.0f - 2.0f * (normalized.getY() * normalized.getY() + normalized.getZ() * normalized.getZ()));
+    @Override
+    public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+    	if (predictor != null) {
+    		predictor.onOrientation(myo, timestamp, x, y, z, w);
+    		setAngles(predictor.getPredicted());
+    		return;
+    	}
+    	// Reuses one scratch quaternion instead of allocating a normalised copy per event
+    	setAngles(normalized.set(x, y, z, w).normalize());
+    }
+
+    private void setAngles(MutableQuaternion orientation) {
+		double roll = orientation.roll();
+		double pitch = orientation.pitch();
+		double yaw = orientation.yaw();
 
 		rollW = ((roll + Math.PI) / (Math.PI * 2.0) * SCALE);
 		pitchW = ((pitch + Math.PI / 2.0) / Math.PI * SCALE);
 		yawW = ((yaw + Math.PI) / (Math.PI * 2.0) * SCALE);
+		publish();
+    }
+
+    private void publish() {
+    	int arm = whichArm == null ? 0 : whichArm == Arm.ARM_LEFT ? 1 : 2;
+    	int pose = currentPose == null ? 0 : currentPose.getType().ordinal() + 1;
+    	display = bar(rollW) | bar(pitchW) << 8 | arm << 16 | pose << 18;
+    }
+
+    private static int bar(double width) {
+    	return Math.max(0, Math.min(SCALE, (int) width));
+    }
+
+    // Read from any thread, see the display accessors below
+    public int getDisplay() {
+    	return display;
+    }
+
+    public static int displayRoll(int display) {
+    	return display & 0xff;
+    }
+
+    public static int displayPitch(int display) {
+    	return display >>> 8 & 0xff;
+    }
+
+    // 0 while not synced, 1 for the left arm, 2 for the right
+    public static int displayArm(int display) {
+    	return display >>> 16 & 0x3;
+    }
+
+    // The PoseType ordinal plus one, 0 for none
+    public static int displayPose(int display) {
+    	return display >>> 18 & 0xf;
+    }
+
+    @Override
+    public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+    }
+
+    @Override
+    public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+    	if (predictor != null) {
+    		predictor.onGyroscope(myo, timestamp, x, y, z);
+    		setAngles(predictor.getPredicted());
+    	}
     }
 
     @Override
@@ -76,16 +164,19 @@ public class DataCollector extends AbstractDeviceListener {
 		    myo.vibrate(VibrationType.VIBRATION_MEDIUM);
 		    myoArm.stop();
 		}
+		publish();
     }
 
     @Override
     public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
     	whichArm = arm;
+    	publish();
     }
 
     @Override
     public void onArmUnsync(Myo myo, long timestamp) {
     	whichArm = null;
+    	publish();
     }
 
     @Override
@@ -114,6 +205,7 @@ public class DataCollector extends AbstractDeviceListener {
 
     @Override
     public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+    	onGyroscope(myo, timestamp, gyro.getX(), gyro.getY(), gyro.getZ());
     }
 
     @Override
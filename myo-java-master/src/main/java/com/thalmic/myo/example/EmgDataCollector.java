@@ -5,8 +5,10 @@ import java.util.Arrays;
 import com.thalmic.myo.AbstractDeviceListener;
 import com.thalmic.myo.FirmwareVersion;
 import com.thalmic.myo.Myo;
+import com.thalmic.myo.emg.EmgBatchListener;
+import com.thalmic.myo.emg.EmgBatcher;
 
-public class EmgDataCollector extends AbstractDeviceListener {
+public class EmgDataCollector extends AbstractDeviceListener implements EmgBatchListener {
 	private byte[] emgSamples;
 
 	public EmgDataCollector() {
@@ -26,6 +28,17 @@ public class EmgDataCollector extends AbstractDeviceListener {
 		this.emgSamples = emg;
 	}
 
+	// Keeps the newest sample of the batch; the batch buffers are reused so it is copied out
+	@Override
+	public void onEmgBatch(Myo myo, long[] timestamps, byte[][] channels, int sampleCount) {
+		if (emgSamples == null) {
+			emgSamples = new byte[EmgBatcher.CHANNELS];
+		}
+		for (int c = 0; c < emgSamples.length; c++) {
+			emgSamples[c] = channels[c][sampleCount - 1];
+		}
+	}
+
 	@Override
 	public String toString() {
 		return Arrays.toString(emgSamples);
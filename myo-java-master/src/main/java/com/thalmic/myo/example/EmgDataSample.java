@@ -1,8 +1,8 @@
 package com.thalmic.myo.example;
 
-import com.thalmic.myo.DeviceListener;
 import com.thalmic.myo.Hub;
 import com.thalmic.myo.Myo;
+import com.thalmic.myo.emg.EmgBatcher;
 import com.thalmic.myo.enums.StreamEmgType;
 
 public class EmgDataSample {
@@ -19,8 +19,11 @@ public class EmgDataSample {
 
 			System.out.println("Connected to a Myo armband!");
 			myo.setStreamEmg(StreamEmgType.STREAM_EMG_ENABLED);
-			DeviceListener dataCollector = new EmgDataCollector();
-			hub.addListener(dataCollector);
+			EmgDataCollector dataCollector = new EmgDataCollector();
+			// Ten samples per callback, and never more than 50 ms behind the armband
+			EmgBatcher batcher = new EmgBatcher(10, 50000);
+			batcher.addListener(dataCollector);
+			hub.addListener(batcher);
 
 			while (true) {
 				hub.run(1000 / 20);
@@ -0,0 +1,114 @@
+package com.thalmic.myo.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.emg.EmgFeatureExtractor;
+import com.thalmic.myo.emg.EmgFeatureListener;
+
+// Feeds random EMG, with runs of zeros, to an EmgFeatureExtractor for several window sizes and thresholds and
+// compares every published feature with the same feature computed from scratch over the window: RMS and mean
+// absolute value over its samples, waveform length and zero crossings over the pairs inside it, slope sign
+// changes over its inner samples. The stream is reset halfway through, as on a disconnect. Exits with 1 if any
+// feature differs.
+// Usage: EmgFeatureCheck [samples] [seed]
+public class EmgFeatureCheck {
+	private static final int[] WINDOW_SIZES = { 3, 4, 7, 50 };
+	private static final int[] THRESHOLDS = { 0, 3, 40 };
+	private static final double TOLERANCE = 1e-9;
+
+	public static void main(String[] args) {
+		int samples = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+		Random random = new Random(seed);
+		Myo myo = Myo.createSimulated();
+		long published = 0;
+		long failures = 0;
+		for (int windowSize : WINDOW_SIZES) {
+			for (int threshold : THRESHOLDS) {
+				EmgFeatureExtractor extractor = new EmgFeatureExtractor(windowSize, 1);
+				extractor.setThreshold(threshold);
+				Reference reference = new Reference(windowSize, threshold);
+				extractor.addListener(reference);
+				for (int i = 0; i < samples; i++) {
+					byte[] emg = new byte[EmgFeatureExtractor.CHANNELS];
+					for (int c = 0; c < emg.length; c++) {
+						emg[c] = (byte) (random.nextInt(5) == 0 ? 0 : random.nextInt(256) - 128);
+					}
+					reference.history.add(emg);
+					extractor.onEmgData(myo, i, emg);
+					if (i == samples / 2) {
+						extractor.onDisconnect(myo, i);
+						reference.history.clear();
+					}
+				}
+				System.out.println(String.format("%s window %d, threshold %d: %d windows, %d features differ", reference.failures == 0 ? "ok  " : "FAIL", windowSize, threshold, reference.published, reference.failures));
+				published += reference.published;
+				failures += reference.failures;
+			}
+		}
+		System.out.println(failures == 0 ? "All " + published + " windows match" : failures + " features differ");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	private static class Reference implements EmgFeatureListener {
+		private final int windowSize;
+		private final int threshold;
+		private final List<byte[]> history = new ArrayList<>();
+		private long published;
+		private long failures;
+
+		private Reference(int windowSize, int threshold) {
+			this.windowSize = windowSize;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public void onEmgFeatures(Myo myo, long timestamp, double[] features) {
+			published++;
+			int end = history.size();
+			int start = end - windowSize;
+			for (int c = 0; c < EmgFeatureExtractor.CHANNELS; c++) {
+				long sumSquares = 0;
+				long sumAbsolute = 0;
+				long waveformLength = 0;
+				int zeroCrossings = 0;
+				int slopeSignChanges = 0;
+				for (int i = start; i < end; i++) {
+					int value = history.get(i)[c];
+					sumSquares += value * value;
+					sumAbsolute += Math.abs(value);
+					if (i > start) {
+						int previous = history.get(i - 1)[c];
+						waveformLength += Math.abs(value - previous);
+						if (previous * value < 0 && Math.abs(value - previous) > threshold) {
+							zeroCrossings++;
+						}
+						if (i < end - 1) {
+							int next = history.get(i + 1)[c];
+							if ((value - previous) * (value - next) > threshold) {
+								slopeSignChanges++;
+							}
+						}
+					}
+				}
+				check(features, EmgFeatureExtractor.RMS, c, Math.sqrt((double) sumSquares / windowSize));
+				check(features, EmgFeatureExtractor.MEAN_ABSOLUTE_VALUE, c, (double) sumAbsolute / windowSize);
+				check(features, EmgFeatureExtractor.WAVEFORM_LENGTH, c, waveformLength);
+				check(features, EmgFeatureExtractor.ZERO_CROSSINGS, c, zeroCrossings);
+				check(features, EmgFeatureExtractor.SLOPE_SIGN_CHANGES, c, slopeSignChanges);
+			}
+		}
+
+		private void check(double[] features, int feature, int channel, double expected) {
+			if (Math.abs(features[feature * EmgFeatureExtractor.CHANNELS + channel] - expected) > TOLERANCE) {
+				failures++;
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.thalmic.myo.example;
+
+import java.io.File;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.gesture.Classifier;
+import com.thalmic.myo.gesture.Gesture;
+import com.thalmic.myo.gesture.GestureListener;
+import com.thalmic.myo.gesture.GestureModel;
+import com.thalmic.myo.gesture.GestureRecognizer;
+import com.thalmic.myo.gesture.KnnClassifier;
+import com.thalmic.myo.gesture.LdaClassifier;
+import com.thalmic.myo.gesture.TrainingSet;
+
+// Trains LDA and k-NN gesture models on a simulated armband, labelling every window with the pose the armband
+// reports, then saves, reloads and evaluates each model on a second held out session.
+// Usage: GestureTraining [model file] [simulated training seconds]
+public class GestureTraining {
+	private static final int WINDOW_SIZE = 40;
+	private static final int HOP = 10;
+	private static final int THRESHOLD = 2;
+
+	public static void main(String[] args) {
+		try {
+			File file = args.length > 0 ? new File(args[0]) : File.createTempFile("gestures", ".model");
+			int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+			SimulatedHub hub = new SimulatedHub(7);
+			hub.addDevice(new SimulatedDevice());
+			final GestureRecognizer recognizer = new GestureRecognizer(WINDOW_SIZE, HOP, THRESHOLD, false);
+			AbstractDeviceListener labeller = new AbstractDeviceListener() {
+				@Override
+				public void onPose(Myo myo, long timestamp, Pose pose) {
+					recognizer.startTraining(pose.getType().name());
+				}
+			};
+			hub.addListener(labeller);
+			hub.addListener(recognizer);
+
+			hub.run(seconds * 1000);
+			TrainingSet training = recognizer.getTrainingSet();
+			recognizer.clearTrainingSet();
+			hub.run(seconds * 1000 / 4);
+			recognizer.stopTraining();
+			TrainingSet test = recognizer.getTrainingSet();
+			System.out.println(String.format("%d training and %d test windows, labels %s", training.size(), test.size(), training.getLabels()));
+
+			recognizer.clearTrainingSet();
+			Classifier[] classifiers = { LdaClassifier.train(training), KnnClassifier.train(training) };
+			GestureModel model = null;
+			for (Classifier classifier : classifiers) {
+				model = new GestureModel(training.getLabels(), WINDOW_SIZE, HOP, THRESHOLD, false, classifier);
+				model.write(file);
+				long start = System.nanoTime();
+				model = GestureModel.read(file);
+				long loadMicros = (System.nanoTime() - start) / 1000;
+				evaluate(model, test, file.length(), loadMicros);
+			}
+
+			// Live inference with the last model, gestures named after poses also arrive through onPose
+			hub.removeListener(labeller);
+			recognizer.setModel(model);
+			recognizer.addListener(new GestureListener() {
+				@Override
+				public void onGesture(Myo myo, long timestamp, Gesture gesture) {
+					System.out.println(String.format("%8.3f s gesture %s", timestamp / 1e6, gesture.getName()));
+				}
+			});
+			hub.run(10 * 1000);
+			System.out.println(String.format("%d inferences, mean %.1f us, max %.1f us", recognizer.getInferenceCount(), recognizer.getMeanInferenceNanos() / 1000, recognizer.getMaxInferenceNanos() / 1000.0));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void evaluate(GestureModel model, TrainingSet test, long size, long loadMicros) {
+		Classifier classifier = model.getClassifier();
+		double[] features = new double[test.getFeatureCount()];
+		int correct = 0;
+		long maxNanos = 0;
+		long totalNanos = 0;
+		for (int i = 0; i < test.size(); i++) {
+			test.getFeatures(i, features);
+			long start = System.nanoTime();
+			int predicted = classifier.classify(features);
+			long elapsed = System.nanoTime() - start;
+			totalNanos += elapsed;
+			maxNanos = Math.max(maxNanos, elapsed);
+			String expected = test.getLabels().get(test.getLabel(i));
+			if (model.getGestures().get(predicted).getName().equals(expected)) {
+				correct++;
+			}
+		}
+		System.out.println(String.format("%s: %d bytes, loaded in %d us, accuracy %.1f%%, mean %.1f us, max %.1f us", classifier.getClass().getSimpleName(), size, loadMicros, 100.0 * correct / test.size(), totalNanos / 1000.0 / test.size(), maxNanos / 1000.0));
+	}
+}
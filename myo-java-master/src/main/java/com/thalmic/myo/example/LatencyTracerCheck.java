@@ -0,0 +1,72 @@
+package com.thalmic.myo.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.thalmic.myo.metrics.LatencyTracer;
+
+// Records traces from writer threads while the main thread takes interval summaries as fast as it can, and
+// checks that the interval counts add up to the cumulative count for every stage and the total, so no trace is
+// lost between two intervals. Exits with 1 if they do not.
+// Usage: LatencyTracerCheck [traces per writer] [writers]
+public class LatencyTracerCheck {
+	private static final Pattern COUNT = Pattern.compile("^\\s+(\\S+)\\s+count=(\\d+)", Pattern.MULTILINE);
+
+	public static void main(String[] args) throws InterruptedException {
+		final int traces = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int writerCount = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+		final LatencyTracer tracer = new LatencyTracer("check", "first", "second");
+		Thread[] writers = new Thread[writerCount];
+		for (int i = 0; i < writers.length; i++) {
+			writers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < traces; i++) {
+						tracer.recordStage(0, 0, 1000);
+						tracer.recordStage(1, 1000, 3000);
+						tracer.recordTotal(0, 3000);
+					}
+				}
+			}, "writer-" + i);
+			writers[i].start();
+		}
+		long[] counts = new long[tracer.getStageCount() + 1];
+		int summaries = 0;
+		boolean running = true;
+		while (running) {
+			running = false;
+			for (Thread writer : writers) {
+				running |= writer.isAlive();
+			}
+			// One more after the writers finish takes what is left
+			add(counts, tracer.intervalSummary(TimeUnit.MICROSECONDS));
+			summaries++;
+		}
+
+		int failures = 0;
+		for (int stage = 0; stage <= tracer.getStageCount(); stage++) {
+			boolean total = stage == tracer.getStageCount();
+			long cumulative = total ? tracer.getTotal().getCount() : tracer.getStage(stage).getCount();
+			boolean ok = counts[stage] == cumulative && cumulative == (long) traces * writers.length;
+			if (!ok) {
+				failures++;
+			}
+			System.out.println(String.format("%s %-6s %d in intervals, %d cumulative", ok ? "ok  " : "FAIL", total ? "total" : tracer.getStageName(stage), counts[stage], cumulative));
+		}
+		System.out.println(String.format("%d interval summaries; %s", summaries, failures == 0 ? "no trace lost" : failures + " counts differ"));
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	// Adds the count of each stage, then the total, from an interval summary
+	private static void add(long[] counts, String summary) {
+		Matcher matcher = COUNT.matcher(summary);
+		int line = 0;
+		while (matcher.find() && line < counts.length) {
+			counts[line++] += Long.parseLong(matcher.group(2));
+		}
+	}
+}
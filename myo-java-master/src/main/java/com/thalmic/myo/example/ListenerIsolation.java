@@ -0,0 +1,65 @@
+package com.thalmic.myo.example;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.bus.ListenerDispatcher;
+import com.thalmic.myo.bus.OverflowPolicy;
+
+// Paced simulated armbands with a fast orientation listener next to a pose listener that blocks like a gripper
+// rotateTo. The slow listener runs first inline, then asynchronously, and the fast listener's lag is reported
+// for both.
+// Usage: ListenerIsolation [slow listener ms] [seconds] [overflow policy]
+public class ListenerIsolation {
+	public static void main(String[] args) throws InterruptedException {
+		final long blockMillis = args.length > 0 ? Long.parseLong(args[0]) : 200;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		OverflowPolicy overflowPolicy = args.length > 2 ? OverflowPolicy.valueOf(args[2]) : OverflowPolicy.DROP_OLDEST;
+
+		AbstractDeviceListener gripper = new AbstractDeviceListener() {
+			@Override
+			public void onPose(Myo myo, long timestamp, Pose pose) {
+				try {
+					Thread.sleep(blockMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		final double[] pitch = new double[1];
+		AbstractDeviceListener orientation = new AbstractDeviceListener() {
+			@Override
+			public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+				Quaternion normalized = rotation.normalized();
+				pitch[0] = Math.asin(2.0f * (normalized.getW() * normalized.getY() - normalized.getZ() * normalized.getX()));
+			}
+		};
+
+		System.out.println("Both inline:");
+		ListenerDispatcher dispatcher = new ListenerDispatcher();
+		dispatcher.subscribe("gripper", gripper);
+		dispatcher.subscribe("orientation", orientation);
+		run(dispatcher, seconds);
+
+		System.out.println("Gripper asynchronous:");
+		dispatcher = new ListenerDispatcher();
+		dispatcher.subscribeAsync("gripper", gripper, 16, overflowPolicy);
+		dispatcher.subscribe("orientation", orientation);
+		run(dispatcher, seconds);
+	}
+
+	private static void run(ListenerDispatcher dispatcher, int seconds) {
+		SimulatedHub hub = new SimulatedHub(7);
+		hub.setPaced(true);
+		SimulatedDevice device = new SimulatedDevice();
+		device.setPoseRate(4);
+		hub.addDevice(device);
+		hub.addListener(dispatcher);
+		hub.run(seconds * 1000);
+		System.out.print(dispatcher);
+		dispatcher.close();
+	}
+}
@@ -0,0 +1,157 @@
+package com.thalmic.myo.example;
+
+import java.rmi.RemoteException;
+
+import lejos.remote.ev3.RMIRegulatedMotor;
+
+// Sits in front of an RMIRegulatedMotor and drops commands that would not change what the motor is doing, so a
+// control loop can restate its targets every tick without paying an RMI round trip for each. Speeds within the
+// deadband of the last sent speed are suppressed, except changes to or from zero which always go through.
+// After a failed call the last state is unknown and the next command is always sent.
+public class MotorCommandFilter {
+	private enum Direction { UNKNOWN, FORWARD, BACKWARD, STOPPED }
+
+	private final RMIRegulatedMotor motor;
+	private final int speedDeadband;
+	private boolean speedKnown;
+	private int speed;
+	private Direction direction = Direction.UNKNOWN;
+	private float maxSpeed = Float.NaN;
+	private long sentCount;
+	private long suppressedCount;
+	private long sendNanos;
+
+	public MotorCommandFilter(RMIRegulatedMotor motor, int speedDeadband) {
+		this.motor = motor;
+		this.speedDeadband = speedDeadband;
+	}
+
+	public RMIRegulatedMotor getMotor() {
+		return motor;
+	}
+
+	public void setSpeed(int speed) throws RemoteException {
+		if (speedKnown && Math.abs(speed - this.speed) <= speedDeadband && (speed == 0) == (this.speed == 0)) {
+			suppressedCount++;
+			return;
+		}
+		long start = System.nanoTime();
+		speedKnown = false;
+		try {
+			motor.setSpeed(speed);
+		} catch (RemoteException e) {
+			invalidate();
+			throw e;
+		}
+		sent(start);
+		this.speed = speed;
+		speedKnown = true;
+	}
+
+	public void forward() throws RemoteException {
+		if (direction == Direction.FORWARD) {
+			suppressedCount++;
+			return;
+		}
+		long start = System.nanoTime();
+		direction = Direction.UNKNOWN;
+		try {
+			motor.forward();
+		} catch (RemoteException e) {
+			invalidate();
+			throw e;
+		}
+		sent(start);
+		direction = Direction.FORWARD;
+	}
+
+	public void backward() throws RemoteException {
+		if (direction == Direction.BACKWARD) {
+			suppressedCount++;
+			return;
+		}
+		long start = System.nanoTime();
+		direction = Direction.UNKNOWN;
+		try {
+			motor.backward();
+		} catch (RemoteException e) {
+			invalidate();
+			throw e;
+		}
+		sent(start);
+		direction = Direction.BACKWARD;
+	}
+
+	public void stop(boolean immediateReturn) throws RemoteException {
+		if (direction == Direction.STOPPED) {
+			suppressedCount++;
+			return;
+		}
+		long start = System.nanoTime();
+		direction = Direction.UNKNOWN;
+		try {
+			motor.stop(immediateReturn);
+		} catch (RemoteException e) {
+			invalidate();
+			throw e;
+		}
+		sent(start);
+		direction = Direction.STOPPED;
+	}
+
+	// Always sent, the motor runs on its own until it reaches the angle so its direction is unknown afterwards
+	public void rotateTo(int angle, boolean immediateReturn) throws RemoteException {
+		long start = System.nanoTime();
+		direction = Direction.UNKNOWN;
+		try {
+			motor.rotateTo(angle, immediateReturn);
+		} catch (RemoteException e) {
+			invalidate();
+			throw e;
+		}
+		sent(start);
+	}
+
+	// Never filtered, for polling a rotation started with immediate return
+	public boolean isMoving() throws RemoteException {
+		return motor.isMoving();
+	}
+
+	// The maximum speed only depends on the battery voltage, one reading is close enough for scaling
+	public float getMaxSpeed() throws RemoteException {
+		if (Float.isNaN(maxSpeed)) {
+			maxSpeed = motor.getMaxSpeed();
+		}
+		return maxSpeed;
+	}
+
+	// Forgets the last commanded state, e.g. after the motor was driven directly
+	public void invalidate() {
+		speedKnown = false;
+		direction = Direction.UNKNOWN;
+	}
+
+	public long getSentCount() {
+		return sentCount;
+	}
+
+	public long getSuppressedCount() {
+		return suppressedCount;
+	}
+
+	// Total time spent in the commands that were sent
+	public long getSendNanos() {
+		return sendNanos;
+	}
+
+	private void sent(long start) {
+		sendNanos += System.nanoTime() - start;
+		sentCount++;
+	}
+
+	@Override
+	public String toString() {
+		double meanMillis = sentCount == 0 ? 0 : sendNanos / 1e6 / sentCount;
+		return String.format("%d sent, %d suppressed, %.2f ms per sent command, ~%.0f ms saved", sentCount, suppressedCount, meanMillis, suppressedCount * meanMillis);
+	}
+}
@@ -0,0 +1,37 @@
+package com.thalmic.myo.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One MotorMailbox and sender thread per motor, so a slow RMI round trip to one motor delays neither the
+// control loop nor the commands for the other motors.
+public class MotorDispatcher {
+	private final List<MotorMailbox> mailboxes = new ArrayList<>();
+
+	public MotorMailbox add(String name, MotorCommandFilter motor) {
+		MotorMailbox mailbox = new MotorMailbox(name, motor);
+		mailboxes.add(mailbox);
+		mailbox.start();
+		return mailbox;
+	}
+
+	public List<MotorMailbox> getMailboxes() {
+		return mailboxes;
+	}
+
+	// Sends what is still pending and stops the sender threads, the motors can then be driven directly again
+	public void close() {
+		for (MotorMailbox mailbox : mailboxes) {
+			mailbox.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (MotorMailbox mailbox : mailboxes) {
+			builder.append(mailbox).append(String.format("%n"));
+		}
+		return builder.toString();
+	}
+}
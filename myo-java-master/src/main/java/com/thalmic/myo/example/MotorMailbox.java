@@ -0,0 +1,235 @@
+package com.thalmic.myo.example;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.metrics.Histogram;
+import com.thalmic.myo.metrics.LatencyTracer;
+import com.thalmic.myo.telemetry.TelemetryCollector;
+
+// Holds the latest command for one motor and sends it from a dedicated thread. Submitting never blocks on the
+// network: a command that has not been picked up yet is overwritten by the next one, since only the newest
+// target matters. Queue age is the time from submission until the sender picks the command up, latency the
+// time until the motor call returned.
+// With a tracer set, a command can carry the arrival and delivery stamps of the Myo event it was computed from.
+// When it reaches the motor, the path from arrival to the returned call is recorded in TRACE_STAGES. Commands
+// the filter suppresses are not recorded, and neither is a command carrying the same event as the previous one.
+public class MotorMailbox implements Runnable {
+	public enum Action { FORWARD, BACKWARD, STOP, ROTATE_TO }
+
+	// Event bus to data collector, data collector to submission, waiting in the mailbox, the motor call
+	public static final String[] TRACE_STAGES = { "bus", "tick", "queue", "motor" };
+	private static final int BUS = 0;
+	private static final int TICK = 1;
+	private static final int QUEUE = 2;
+	private static final int MOTOR = 3;
+
+	private final String name;
+	private final MotorCommandFilter motor;
+	private final Object lock = new Object();
+	private final Histogram queueAge = new Histogram();
+	private final Histogram latency = new Histogram();
+	private Thread sender;
+	private boolean pending;
+	private boolean closed;
+	private Action action;
+	private int speed;
+	private int angle;
+	private long submitted;
+	private long arrival;
+	private long delivered;
+	private volatile LatencyTracer tracer;
+	private volatile TelemetryCollector telemetry;
+	private int telemetryMotor;
+	private long lastTracedArrival;
+	private long submittedCount;
+	private long supersededCount;
+	private long failedCount;
+
+	public MotorMailbox(String name, MotorCommandFilter motor) {
+		this.name = name;
+		this.motor = motor;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void start() {
+		sender = new Thread(this, "motor-" + name);
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	public void setTracer(LatencyTracer tracer) {
+		this.tracer = tracer;
+	}
+
+	// Records every submitted speed command under this mailbox's name
+	public void setTelemetry(TelemetryCollector telemetry) {
+		telemetryMotor = telemetry.addMotor(name);
+		this.telemetry = telemetry;
+	}
+
+	// Speed and direction in one command, so the pair is never split by a newer command
+	public void drive(int speed, Action action) {
+		drive(speed, action, 0, 0);
+	}
+
+	// Arrival and delivery are the EventSlot arrival and the time the event reached the data collector, 0 for none
+	public void drive(int speed, Action action, long arrival, long delivered) {
+		if (action == Action.ROTATE_TO) {
+			throw new IllegalArgumentException("Use rotateTo for ROTATE_TO");
+		}
+		submit(action, speed, 0, arrival, delivered);
+	}
+
+	public void rotateTo(int angle) {
+		rotateTo(angle, 0, 0);
+	}
+
+	public void rotateTo(int angle, long arrival, long delivered) {
+		submit(Action.ROTATE_TO, 0, angle, arrival, delivered);
+	}
+
+	private void submit(Action action, int speed, int angle, long arrival, long delivered) {
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			if (pending) {
+				supersededCount++;
+			}
+			this.action = action;
+			this.speed = speed;
+			this.angle = angle;
+			this.submitted = System.nanoTime();
+			this.arrival = arrival;
+			this.delivered = delivered;
+			submittedCount++;
+			pending = true;
+			lock.notify();
+		}
+		TelemetryCollector telemetry = this.telemetry;
+		if (telemetry != null && action != Action.ROTATE_TO) {
+			telemetry.onMotorCommand(telemetryMotor, action == Action.STOP ? 0 : action == Action.FORWARD ? Math.abs(speed) : -Math.abs(speed));
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			Action action;
+			int speed;
+			int angle;
+			long submitted;
+			long arrival;
+			long delivered;
+			synchronized (lock) {
+				while (!pending && !closed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (!pending) {
+					return;
+				}
+				action = this.action;
+				speed = this.speed;
+				angle = this.angle;
+				submitted = this.submitted;
+				arrival = this.arrival;
+				delivered = this.delivered;
+				pending = false;
+			}
+			long picked = System.nanoTime();
+			queueAge.record(picked - submitted);
+			long sentBefore = motor.getSentCount();
+			try {
+				send(action, speed, angle);
+			} catch (RemoteException e) {
+				failedCount++;
+				e.printStackTrace();
+			}
+			long acked = System.nanoTime();
+			latency.record(acked - submitted);
+			LatencyTracer tracer = this.tracer;
+			if (tracer != null && arrival != 0 && arrival != lastTracedArrival) {
+				lastTracedArrival = arrival;
+				if (motor.getSentCount() != sentBefore) {
+					trace(tracer, arrival, delivered, submitted, picked, acked);
+				}
+			}
+		}
+	}
+
+	private static void trace(LatencyTracer tracer, long arrival, long delivered, long submitted, long picked, long acked) {
+		tracer.recordStage(BUS, arrival, delivered);
+		tracer.recordStage(TICK, delivered, submitted);
+		tracer.recordStage(QUEUE, submitted, picked);
+		tracer.recordStage(MOTOR, picked, acked);
+		tracer.recordTotal(arrival, acked);
+	}
+
+	private void send(Action action, int speed, int angle) throws RemoteException {
+		switch (action) {
+		case ROTATE_TO:
+			motor.rotateTo(angle, false);
+			break;
+		case FORWARD:
+			motor.setSpeed(speed);
+			motor.forward();
+			break;
+		case BACKWARD:
+			motor.setSpeed(speed);
+			motor.backward();
+			break;
+		default:
+			motor.setSpeed(speed);
+			motor.stop(true);
+			break;
+		}
+	}
+
+	// Sends the pending command, if any, then stops the sender and waits for it
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+			lock.notify();
+		}
+		if (sender != null) {
+			try {
+				sender.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public Histogram getQueueAge() {
+		return queueAge;
+	}
+
+	public Histogram getLatency() {
+		return latency;
+	}
+
+	public long getSubmittedCount() {
+		synchronized (lock) {
+			return submittedCount;
+		}
+	}
+
+	public long getSupersededCount() {
+		synchronized (lock) {
+			return supersededCount;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d submitted, %d superseded, %d failed%n  queue age %s%n  latency   %s%n  %s", name, getSubmittedCount(), getSupersededCount(), failedCount, queueAge.toString(TimeUnit.MILLISECONDS), latency.toString(TimeUnit.MILLISECONDS), motor);
+	}
+}
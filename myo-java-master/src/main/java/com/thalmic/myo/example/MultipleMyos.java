@@ -2,13 +2,16 @@ package com.thalmic.myo.example;
 
 import com.thalmic.myo.DeviceListener;
 import com.thalmic.myo.Hub;
+import com.thalmic.myo.device.DeviceRegistry;
 
 public class MultipleMyos {
 	public static void main(String... args) {
 		try {
 			Hub hub = new Hub("com.example.multiple-myos");
 
-			DeviceListener printer = new PrintMyoEvents();
+			DeviceRegistry devices = new DeviceRegistry();
+			hub.addListener(devices);
+			DeviceListener printer = new PrintMyoEvents(devices);
 			hub.addListener(printer);
 
 			while (true) {
@@ -0,0 +1,82 @@
+package com.thalmic.myo.example;
+
+import java.util.Random;
+
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.MutableVector3;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+
+// Runs every MutableQuaternion and MutableVector3 operation and its Quaternion or Vector3 counterpart on the same
+// random inputs and compares the results bit for bit. Exits with 1 at the first difference.
+// Usage: MutableMathCheck [inputs] [seed]
+public class MutableMathCheck {
+	private static int failures;
+
+	public static void main(String[] args) {
+		int inputs = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+		Random random = new Random(seed);
+		MutableQuaternion mq = new MutableQuaternion();
+		MutableQuaternion mr = new MutableQuaternion();
+		MutableQuaternion mresult = new MutableQuaternion();
+		MutableVector3 mv = new MutableVector3();
+		MutableVector3 mw = new MutableVector3();
+		MutableVector3 mvResult = new MutableVector3();
+		for (int i = 0; i < inputs; i++) {
+			Quaternion q = new Quaternion(value(random), value(random), value(random), value(random));
+			Quaternion r = new Quaternion(value(random), value(random), value(random), value(random));
+			Vector3 v = new Vector3(value(random), value(random), value(random));
+			Vector3 w = new Vector3(value(random), value(random), value(random));
+			double angle = (random.nextDouble() * 2 - 1) * Math.PI * 2;
+			mq.set(q);
+			mr.set(r);
+			mv.set(v);
+			mw.set(w);
+
+			compare(i, "multiply", q.multiply(r), mq.multiply(mr, mresult));
+			compare(i, "normalized", q.normalized(), mq.normalized(mresult));
+			compare(i, "conjugate", q.conjugate(), mq.conjugate(mresult));
+			compare(i, "fromAxisAngle", Quaternion.fromAxisAngle(v, angle), mresult.setFromAxisAngle(mv, angle));
+			Vector3 from = v.normalized();
+			Vector3 to = w.normalized();
+			compare(i, "rotate(from, to)", Quaternion.rotate(from, to), mresult.setRotation(new MutableVector3(from), new MutableVector3(to)));
+
+			compare(i, "magnitude", v.magnitude(), mv.magnitude());
+			compare(i, "dot", v.dot(w), mv.dot(mw));
+			compare(i, "angleTo", v.angleTo(w), mv.angleTo(mw));
+			compare(i, "Vector3.normalized", v.normalized(), mv.normalized(mvResult));
+			compare(i, "cross", v.cross(w), mv.cross(mw, mvResult));
+			compare(i, "rotate(quat, vec)", Vector3.rotate(q, v), mv.rotate(mq, mvResult));
+			if (failures > 0) {
+				System.exit(1);
+			}
+		}
+		System.out.println(inputs + " inputs, all results bitwise identical");
+	}
+
+	private static double value(Random random) {
+		return (random.nextDouble() * 2 - 1) * 10;
+	}
+
+	private static void compare(int input, String operation, double expected, double actual) {
+		if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(actual)) {
+			System.out.println(String.format("Input %d, %s: %s but mutable gave %s", input, operation, expected, actual));
+			failures++;
+		}
+	}
+
+	private static void compare(int input, String operation, Quaternion expected, MutableQuaternion actual) {
+		compare(input, operation + " x", expected.getX(), actual.getX());
+		compare(input, operation + " y", expected.getY(), actual.getY());
+		compare(input, operation + " z", expected.getZ(), actual.getZ());
+		compare(input, operation + " w", expected.getW(), actual.getW());
+	}
+
+	private static void compare(int input, String operation, Vector3 expected, MutableVector3 actual) {
+		compare(input, operation + " x", expected.getX(), actual.getX());
+		compare(input, operation + " y", expected.getY(), actual.getY());
+		compare(input, operation + " z", expected.getZ(), actual.getZ());
+	}
+}
@@ -0,0 +1,198 @@
+package com.thalmic.myo.example;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import com.thalmic.myo.NativeLibraryCache;
+
+// Builds a stand-in jar holding random libmyo.jnilib and myo.zip resources, laid out like the OS X ones Hub
+// loads, and runs NativeLibraryCache against it: a cold extraction, a warm hit, re-extraction after a library is
+// truncated and after the manifest is lost, then several processes started at once on an empty cache, of which
+// exactly one may extract while the others wait on the lock and reuse its result. Every extraction is compared
+// byte for byte with the resources. Exits with 1 if any check fails.
+// Usage: NativeLibraryCacheCheck [library size in bytes] [processes]
+public class NativeLibraryCacheCheck {
+	private static final String NAME = "check";
+	private static final String LIBRARY = "/osx/libmyo.jnilib";
+	private static final String FRAMEWORK = "/osx/myo.zip";
+	private static final String FRAMEWORK_FILE = "myo.framework/Versions/A/myo";
+
+	private static byte[] library;
+	private static byte[] frameworkFile;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("child")) {
+			child(new File(args[1]), new File(args[2]));
+			return;
+		}
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 8 * 1024 * 1024;
+		int processes = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+		File work = Files.createTempDirectory("myo-native-check").toFile();
+		try {
+			Random random = new Random(1);
+			library = new byte[size];
+			random.nextBytes(library);
+			frameworkFile = new byte[size / 2];
+			random.nextBytes(frameworkFile);
+			File jar = new File(work, "stand-in.jar");
+			writeJar(jar);
+
+			int failures = 0;
+			File root = new File(work, "cache");
+			NativeLibraryCache.Entry entry = extract(root, jar);
+			failures += report(!entry.isHit() && matches(entry), "cold start extracts: " + entry);
+			entry = extract(root, jar);
+			failures += report(entry.isHit() && matches(entry), "warm start reuses: " + entry);
+
+			try (RandomAccessFile file = new RandomAccessFile(entry.getFile("libmyo.jnilib"), "rw")) {
+				file.setLength(size / 2);
+			}
+			entry = extract(root, jar);
+			failures += report(!entry.isHit() && matches(entry), "truncated library is extracted again: " + entry);
+
+			if (!entry.getFile(".manifest").delete()) {
+				throw new IOException("Unable to delete the manifest");
+			}
+			entry = extract(root, jar);
+			failures += report(!entry.isHit() && matches(entry), "directory without a manifest is extracted again: " + entry);
+
+			failures += concurrent(new File(work, "concurrent"), jar, processes);
+
+			System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+			if (failures > 0) {
+				System.exit(1);
+			}
+		} finally {
+			delete(work);
+		}
+	}
+
+	// Starts the processes together, each extracting into the same empty cache, and expects one extraction
+	private static int concurrent(File root, File jar, int processes) throws IOException, InterruptedException {
+		String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+		List<Process> started = new ArrayList<>();
+		for (int i = 0; i < processes; i++) {
+			ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), NativeLibraryCacheCheck.class.getName(), "child", root.getPath(), jar.getPath());
+			builder.redirectErrorStream(true);
+			started.add(builder.start());
+		}
+		int extracted = 0;
+		int failures = 0;
+		for (Process process : started) {
+			String line;
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				line = reader.readLine();
+			}
+			boolean ok = process.waitFor() == 0 && line != null && line.startsWith("ok ");
+			if (ok && line.contains(" extracted to ")) {
+				extracted++;
+			}
+			failures += report(ok, "process " + (line == null ? "printed nothing" : line));
+		}
+		failures += report(extracted == 1, processes + " processes at once, " + extracted + " extracted");
+		return failures;
+	}
+
+	// Runs in a process of its own and prints ok with the entry, or FAIL
+	private static void child(File root, File jar) throws Exception {
+		readResources(jar);
+		NativeLibraryCache.Entry entry = extract(root, jar);
+		System.out.println((matches(entry) ? "ok " : "FAIL ") + entry);
+	}
+
+	private static NativeLibraryCache.Entry extract(File root, File jar) throws Exception {
+		// A loader of its own defines the owner, so resources resolve against the stand-in jar
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, null)) {
+			Class<?> owner = loader.loadClass(Owner.class.getName());
+			return new NativeLibraryCache(root).extract(owner, NAME, LIBRARY, FRAMEWORK);
+		}
+	}
+
+	private static boolean matches(NativeLibraryCache.Entry entry) throws IOException {
+		return Arrays.equals(library, Files.readAllBytes(entry.getFile("libmyo.jnilib").toPath())) && Arrays.equals(frameworkFile, Files.readAllBytes(entry.getFile(FRAMEWORK_FILE).toPath()));
+	}
+
+	private static void writeJar(File jar) throws IOException {
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			String owner = Owner.class.getName().replace('.', '/') + ".class";
+			out.putNextEntry(new ZipEntry(owner));
+			try (InputStream in = NativeLibraryCacheCheck.class.getClassLoader().getResourceAsStream(owner)) {
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					out.write(buffer, 0, read);
+				}
+			}
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry(LIBRARY.substring(1)));
+			out.write(library);
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry(FRAMEWORK.substring(1)));
+			ZipOutputStream framework = new ZipOutputStream(out);
+			framework.putNextEntry(new ZipEntry(FRAMEWORK_FILE));
+			framework.write(frameworkFile);
+			framework.closeEntry();
+			framework.finish();
+			out.closeEntry();
+		}
+	}
+
+	// What the parent wrote into the jar, for a child to compare against
+	private static void readResources(File jar) throws Exception {
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, null)) {
+			library = read(loader.getResourceAsStream(LIBRARY.substring(1)));
+			try (ZipInputStream zip = new ZipInputStream(loader.getResourceAsStream(FRAMEWORK.substring(1)))) {
+				zip.getNextEntry();
+				frameworkFile = read(zip);
+			}
+		}
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static int report(boolean ok, String description) {
+		System.out.println((ok ? "ok   " : "FAIL ") + description);
+		return ok ? 0 : 1;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	// Copied into the stand-in jar to own its resources
+	public static final class Owner {
+	}
+}
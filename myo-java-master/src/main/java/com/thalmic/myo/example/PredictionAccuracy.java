@@ -0,0 +1,177 @@
+package com.thalmic.myo.example;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.imu.OrientationPredictor;
+import com.thalmic.myo.record.SessionRecorder;
+import com.thalmic.myo.record.SessionReplayer;
+
+// Replays a recorded session and scores how well each OrientationPredictor smoothing mode knows the pitch and
+// roll one horizon ahead, against simply holding the latest sample. The error is taken against the recorded
+// orientation a horizon later. The effective latency is the horizon less the shift that best lines the estimate
+// up with the recording: holding the sample lags by the whole horizon, a perfect prediction by nothing. Without a
+// recording one is made from a simulated armband first.
+// Usage: PredictionAccuracy [recording] [horizon in ms]
+public class PredictionAccuracy {
+	private static final OrientationPredictor.Smoothing[] MODES = OrientationPredictor.Smoothing.values();
+
+	public static void main(String[] args) {
+		try {
+			File file;
+			if (args.length > 0 && !args[0].equals("-")) {
+				file = new File(args[0]);
+			} else {
+				file = File.createTempFile("prediction", ".myolog");
+				file.deleteOnExit();
+				record(file, 120);
+			}
+			long horizon = args.length > 1 ? Long.parseLong(args[1]) : 80;
+
+			Collector collector = new Collector(horizon);
+			try (SessionReplayer replayer = new SessionReplayer(file)) {
+				replayer.addListener(collector);
+				replayer.replayAll();
+			}
+			int count = collector.count;
+			System.out.println(String.format("%d orientation samples, horizon %d ms", count, horizon));
+			report("hold latest", collector, collector.actualPitch, collector.actualRoll, horizon);
+			for (int m = 0; m < MODES.length; m++) {
+				report("predict " + MODES[m], collector, collector.pitch[m], collector.roll[m], horizon);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	private static void record(File file, int seconds) throws Exception {
+		SimulatedHub hub = new SimulatedHub(11);
+		SimulatedDevice device = new SimulatedDevice();
+		device.setPoseRate(0);
+		hub.addDevice(device);
+		try (SessionRecorder recorder = new SessionRecorder(file)) {
+			hub.addListener(recorder);
+			hub.run(seconds * 1000);
+		}
+	}
+
+	private static void report(String name, Collector collector, double[] pitch, double[] roll, long horizon) {
+		long horizonMicros = TimeUnit.MILLISECONDS.toMicros(horizon);
+		double error = rms(collector, pitch, roll, horizonMicros);
+		// Shifts in 1 ms steps from the sample itself to twice the horizon ahead
+		long bestShift = 0;
+		double bestError = Double.MAX_VALUE;
+		for (long shift = 0; shift <= 2 * horizonMicros; shift += 1000) {
+			double shifted = rms(collector, pitch, roll, shift);
+			if (shifted < bestError) {
+				bestError = shifted;
+				bestShift = shift;
+			}
+		}
+		System.out.println(String.format("  %-22s error %.2f deg, effective latency %d ms", name, Math.toDegrees(error), (horizonMicros - bestShift) / 1000));
+	}
+
+	// Pitch and roll error against the recording the shift later, over the samples that have one
+	private static double rms(Collector collector, double[] pitch, double[] roll, long shift) {
+		double sum = 0;
+		int n = 0;
+		for (int i = 0; i < collector.count; i++) {
+			long target = collector.timestamps[i] + shift;
+			if (target > collector.timestamps[collector.count - 1]) {
+				break;
+			}
+			double p = pitch[i] - interpolate(collector, collector.actualPitch, target);
+			double r = Math.IEEEremainder(roll[i] - interpolate(collector, collector.actualRoll, target), 2 * Math.PI);
+			sum += p * p + r * r;
+			n++;
+		}
+		return Math.sqrt(sum / Math.max(1, 2 * n));
+	}
+
+	private static double interpolate(Collector collector, double[] values, long timestamp) {
+		int i = Arrays.binarySearch(collector.timestamps, 0, collector.count, timestamp);
+		if (i >= 0) {
+			return values[i];
+		}
+		int after = -i - 1;
+		if (after == 0) {
+			return values[0];
+		}
+		int before = after - 1;
+		double fraction = (double) (timestamp - collector.timestamps[before]) / (collector.timestamps[after] - collector.timestamps[before]);
+		double difference = Math.IEEEremainder(values[after] - values[before], 2 * Math.PI);
+		return values[before] + fraction * difference;
+	}
+
+	// Feeds every predictor and keeps, per orientation sample, the recorded angles and each prediction as it stood
+	// once the gyroscope sample of the same timestamp was in
+	private static class Collector extends AbstractDeviceListener {
+		private final OrientationPredictor[] predictors = new OrientationPredictor[MODES.length];
+		private final MutableQuaternion normalized = new MutableQuaternion();
+		private long[] timestamps = new long[1024];
+		private double[] actualPitch = new double[1024];
+		private double[] actualRoll = new double[1024];
+		private double[][] pitch = new double[MODES.length][1024];
+		private double[][] roll = new double[MODES.length][1024];
+		private int count;
+
+		private Collector(long horizon) {
+			for (int m = 0; m < MODES.length; m++) {
+				predictors[m] = new OrientationPredictor(MODES[m], horizon, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		@Override
+		public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+			if (count == timestamps.length) {
+				grow();
+			}
+			normalized.set(rotation).normalize();
+			timestamps[count] = timestamp;
+			actualPitch[count] = normalized.pitch();
+			actualRoll[count] = normalized.roll();
+			count++;
+			for (OrientationPredictor predictor : predictors) {
+				predictor.onOrientationData(myo, timestamp, rotation);
+			}
+			store();
+		}
+
+		@Override
+		public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+			for (OrientationPredictor predictor : predictors) {
+				predictor.onGyroscopeData(myo, timestamp, gyro);
+			}
+			if (count > 0 && timestamps[count - 1] == timestamp) {
+				store();
+			}
+		}
+
+		private void store() {
+			for (int m = 0; m < predictors.length; m++) {
+				pitch[m][count - 1] = predictors[m].getPitch();
+				roll[m][count - 1] = predictors[m].getRoll();
+			}
+		}
+
+		private void grow() {
+			int capacity = timestamps.length * 2;
+			timestamps = Arrays.copyOf(timestamps, capacity);
+			actualPitch = Arrays.copyOf(actualPitch, capacity);
+			actualRoll = Arrays.copyOf(actualRoll, capacity);
+			for (int m = 0; m < MODES.length; m++) {
+				pitch[m] = Arrays.copyOf(pitch[m], capacity);
+				roll[m] = Arrays.copyOf(roll[m], capacity);
+			}
+		}
+	}
+}
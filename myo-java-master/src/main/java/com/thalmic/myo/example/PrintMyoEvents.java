@@ -1,19 +1,26 @@
 package com.thalmic.myo.example;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.thalmic.myo.AbstractDeviceListener;
 import com.thalmic.myo.FirmwareVersion;
 import com.thalmic.myo.Myo;
 import com.thalmic.myo.Pose;
+import com.thalmic.myo.device.DeviceRegistry;
 
 public class PrintMyoEvents extends AbstractDeviceListener {
-    private final List<Myo> knownMyos = new ArrayList<>();
+    private final DeviceRegistry devices;
+
+    public PrintMyoEvents() {
+	this(new DeviceRegistry());
+    }
+
+    // Shares ids with other listeners using the same registry
+    public PrintMyoEvents(DeviceRegistry devices) {
+	this.devices = devices;
+    }
 
     @Override
     public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
-	knownMyos.add(myo);
+	devices.register(myo);
     }
 
     @Override
@@ -32,6 +39,6 @@ public class PrintMyoEvents extends AbstractDeviceListener {
     }
 
     private int identifyMyo(Myo myo) {
-	return knownMyos.indexOf(myo);
+	return devices.register(myo).getId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.thalmic.myo.example;
+
+import java.io.File;
+
+import com.thalmic.myo.Hub;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.enums.StreamEmgType;
+import com.thalmic.myo.record.SessionRecorder;
+import com.thalmic.myo.record.SessionReplayer;
+
+// Usage: RecordSession record <file> <seconds>
+//        RecordSession replay <file> [paced]
+public class RecordSession {
+	public static void main(String[] args) {
+		try {
+			File file = new File(args[1]);
+			if (args[0].equals("record")) {
+				int seconds = Integer.parseInt(args[2]);
+				Hub hub = new Hub("com.example.record-session");
+				Myo myo = hub.waitForMyo(10000);
+				if (myo == null) {
+					throw new RuntimeException("Unable to find a Myo!");
+				}
+				myo.setStreamEmg(StreamEmgType.STREAM_EMG_ENABLED);
+				try (SessionRecorder recorder = new SessionRecorder(file)) {
+					hub.addListener(recorder);
+					hub.run(seconds * 1000);
+					hub.removeListener(recorder);
+					System.out.println(String.format("Recorded %d events, %d bytes.", recorder.getRecordCount(), recorder.getLength()));
+				}
+			} else {
+				try (SessionReplayer replayer = new SessionReplayer(file)) {
+					replayer.setPaced(args.length > 2 && args[2].equals("paced"));
+					replayer.addListener(new PrintMyoEvents());
+					long start = System.nanoTime();
+					long count = replayer.replayAll();
+					System.out.println(String.format("Replayed %d events in %d ms.", count, (System.nanoTime() - start) / 1000000));
+				}
+			}
+		} catch (Exception e) {
+			System.err.println("Error: ");
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
@@ -7,7 +7,9 @@
 
 package com.thalmic.myo.example;
 
+import java.io.IOException;
 import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
 
 import lejos.hardware.Button;
 import lejos.hardware.Sound;
@@ -16,14 +18,29 @@ import lejos.hardware.lcd.LCD;
 import lejos.hardware.port.SensorPort;
 import lejos.hardware.sensor.EV3ColorSensor;
 import lejos.hardware.sensor.EV3TouchSensor;
-import lejos.hardware.sensor.SensorMode;
 import lejos.remote.ev3.RMIRegulatedMotor;
 import lejos.remote.ev3.RemoteEV3;
 import lejos.utility.Delay;
 
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSource;
 import com.thalmic.myo.Hub;
 import com.thalmic.myo.Myo;
+import com.thalmic.myo.bus.EventHandler;
+import com.thalmic.myo.bus.EventProcessor;
+import com.thalmic.myo.bus.EventRingBuffer;
+import com.thalmic.myo.bus.EventSlot;
+import com.thalmic.myo.bus.WaitStrategy;
+import com.thalmic.myo.control.AdaptiveRate;
+import com.thalmic.myo.control.ControlLoop;
+import com.thalmic.myo.enums.EventType;
 import com.thalmic.myo.enums.UnlockType;
+import com.thalmic.myo.imu.OrientationPredictor;
+import com.thalmic.myo.metrics.InstrumentedEventSource;
+import com.thalmic.myo.metrics.LatencyReporter;
+import com.thalmic.myo.metrics.LatencyTracer;
+import com.thalmic.myo.telemetry.TelemetryCollector;
+import com.thalmic.myo.telemetry.TelemetryServer;
 
 public class RoboticArm {
 
@@ -33,13 +50,37 @@ public class RoboticArm {
 	private RMIRegulatedMotor motorV;
 	// This motor controls the hand
 	private RMIRegulatedMotor motorHand;
+	// Only pass on the commands that change what the arm motors are doing
+	private MotorCommandFilter vertical;
+	private MotorCommandFilter horizontal;
+	// Motor commands are sent from one thread per motor so the control loop never waits on the network
+	private MotorDispatcher dispatcher;
+	private MotorMailbox verticalMailbox;
+	private MotorMailbox horizontalMailbox;
+	private ArmActionExecutor gripper;
+	private float verticalMaxSpeed;
+	// Latency from a Myo event reaching the bus until the motor call it caused returned
+	private LatencyTracer orientationLatency;
+	private LatencyTracer poseLatency;
+	// Bus arrival and data collector delivery of the latest orientation, and of the pose being handled
+	private long orientationArrival;
+	private long orientationDelivered;
+	private long poseArrival;
+	private long poseDelivered;
 	// This is the color sensor
 	EV3ColorSensor colorSensor;
 	// This is the touch sensor
 	EV3TouchSensor touchSensor;
+	// The sensors are read on their own thread, the control loop only looks at the latest values
+	private SensorSampler sensorSampler;
+	private SensorSampler.Sensor ambientLight;
+	private SensorSampler.Sensor touchButton;
 	private RemoteEV3 ev3;
 	private GraphicsLCD lcd;
-	private boolean running = true;
+	// Runs the control ticks at CONTROL_RATE and pumps the hub in between
+	private ControlLoop controlLoop;
+	// Drops the control loop to IDLE_RATE while the armband is still and the motors are not driven
+	private AdaptiveRate adaptiveRate;
 	private boolean sleeping = true;
 	// We don't want to allow the horizontal motor to exceed maximum values
 	private static int HORIZONTAL_MAX = 20;
@@ -48,6 +89,30 @@ public class RoboticArm {
 	// The higher number, the more sensitive(faster), 1 is the lowest
 	private static int VERTICAL_SENSITIVITY = 2;
 	private int horizontalScale;  
+	// Control ticks per second
+	private static final int CONTROL_RATE = 20;
+	// Control ticks per second while the armband is still
+	private static final int IDLE_RATE = 2;
+	// Myo events that can be buffered between two control loop iterations
+	private static final int EVENT_BUFFER_SIZE = 1024;
+	// Speed changes smaller than this are not sent to the motors
+	private static final int SPEED_DEADBAND = 5;
+	
+	private static final int GRIPPER_POLL_MS = 20;
+	// How often the sensors are read, and how old a reading may get before the limit checks stop the motors
+	private static final int SENSOR_PERIOD_MS = 20;
+	private static final int SENSOR_MAX_AGE_MS = 200;
+	// How often the latency percentiles are printed while running
+	private static final int LATENCY_REPORT_SECONDS = 30;
+	// Most redraws of the status line per second
+	private static final int TELEMETRY_RATE = 10;
+	// Local port and batches per second of the WebSocket telemetry stream, and the bytes one batch may hold
+	private static final int TELEMETRY_PORT = 8025;
+	private static final int TELEMETRY_STREAM_RATE = 20;
+	private static final int TELEMETRY_BATCH_SIZE = 16384;
+	
+	// Until the orientation latency has been measured the prediction covers one control period
+	private static final int PREDICTION_HORIZON_MS = 1000 / CONTROL_RATE;
 	
 	public RoboticArm() throws RemoteException 
 	{
@@ -68,6 +133,10 @@ public class RoboticArm {
 			motorH = ev3.createRegulatedMotor("C", 'L');
 			colorSensor = new EV3ColorSensor(SensorPort.S3);
 			touchSensor = new EV3TouchSensor(SensorPort.S1);
+			sensorSampler = new SensorSampler();
+			ambientLight = sensorSampler.add("ambient light", colorSensor.getAmbientMode(), SENSOR_PERIOD_MS, SENSOR_MAX_AGE_MS, TimeUnit.MILLISECONDS);
+			touchButton = sensorSampler.add("touch", touchSensor.getTouchMode(), SENSOR_PERIOD_MS, SENSOR_MAX_AGE_MS, TimeUnit.MILLISECONDS);
+			sensorSampler.start();
 			
 			// Initialize the maximum movement of the horizontal motor
 			horizontalScale = 0;
@@ -81,6 +150,21 @@ public class RoboticArm {
 			motorV.setAcceleration(200);
 			motorV.setSpeed(0);
 			motorV.stop(true);
+			
+			vertical = new MotorCommandFilter(motorV, SPEED_DEADBAND);
+			horizontal = new MotorCommandFilter(motorH, SPEED_DEADBAND);
+			verticalMaxSpeed = vertical.getMaxSpeed();
+			dispatcher = new MotorDispatcher();
+			verticalMailbox = dispatcher.add("vertical", vertical);
+			horizontalMailbox = dispatcher.add("horizontal", horizontal);
+			// Gripper actions run on their own thread and a newer one takes over from the one in progress
+			gripper = new ArmActionExecutor("gripper", new MotorCommandFilter(motorHand, 0), GRIPPER_POLL_MS, TimeUnit.MILLISECONDS);
+			gripper.start();
+			orientationLatency = new LatencyTracer("orientation to arm", MotorMailbox.TRACE_STAGES);
+			poseLatency = new LatencyTracer("pose to gripper", MotorMailbox.TRACE_STAGES);
+			verticalMailbox.setTracer(orientationLatency);
+			horizontalMailbox.setTracer(orientationLatency);
+			gripper.setTracer(poseLatency);
 		} 
 		catch (Exception e) 
 		{
@@ -95,6 +179,7 @@ public class RoboticArm {
 		Button.LEDPattern(5);
 		try 
 		{
+			if (sensorSampler != null) sensorSampler.close();
 			if (motorH != null) motorH.close();
 			if (motorV != null) motorV.close();
 			if (motorHand != null) motorHand.close();
@@ -115,125 +200,184 @@ public class RoboticArm {
 	}
 	
 	// This methods gets the data from the myo armband and sends instructions to the EV3
-	private void run(Hub hub, DataCollector dataCollector) throws RemoteException 
+	private void run(EventSource hub, final DataCollector dataCollector) throws RemoteException 
 	{
-		while (running) 
+		// The control loop pumps the hub into the event bus between ticks and each tick hands the buffered events
+		// to the data collector, so every tick works from all the events that arrived before it
+		// Only the event types the data collector uses take slots, EMG and IMU samples are not buffered
+		EventRingBuffer events = new EventRingBuffer(EVENT_BUFFER_SIZE, EventMask.forListener(dataCollector));
+		// Orientation and pose events are stamped on delivery, so the motor commands they produce can be traced
+		final EventProcessor collectorEvents = events.addConsumer(new EventHandler() 
 		{
-			hub.run(1000/20);
-			System.out.print(dataCollector);
-			if (sleeping == true)
+			@Override
+			public void onEvent(EventSlot event, long sequence) 
 			{
-				try 
+				if (event.getType() == EventType.ORIENTATION) 
 				{
-	    			Thread.sleep(200);
-	    			continue;
-	    		} 
-				catch (InterruptedException e) 
+					orientationArrival = event.getArrival();
+					orientationDelivered = System.nanoTime();
+				}
+				else if (event.getType() == EventType.POSE) 
 				{
-	    			e.printStackTrace();
-	    		}
+					poseArrival = event.getArrival();
+					poseDelivered = System.nanoTime();
+				}
+				event.dispatchTo(dataCollector);
+				poseArrival = 0;
 			}
-	    	System.out.print(dataCollector);
-	    	// Pitch is the data from rising and lowering your hand
-	    	this.setVerticalSpeed(dataCollector.getPitch());
-	    	// Roll is the data from twisting your wrist
-	    	this.setHorizontalSpeed(dataCollector.getRoll(), dataCollector.isLeftArm());
+		}, WaitStrategy.PARK);
+		hub.addListener(events);
+		LatencyReporter latencyReporter = new LatencyReporter(LATENCY_REPORT_SECONDS, TimeUnit.SECONDS, System.out, orientationLatency, poseLatency);
+		latencyReporter.start();
+		// The status line is drawn from its own thread, the ticks only update what it shows
+		TelemetryConsole telemetry = new TelemetryConsole(dataCollector, System.out, TELEMETRY_RATE);
+		telemetry.start();
+		// Straight on the hub too, it only copies each sample into the current batch
+		TelemetryCollector telemetryCollector = new TelemetryCollector(TELEMETRY_BATCH_SIZE);
+		verticalMailbox.setTelemetry(telemetryCollector);
+		horizontalMailbox.setTelemetry(telemetryCollector);
+		hub.addListener(telemetryCollector);
+		TelemetryServer telemetryServer = new TelemetryServer(telemetryCollector, TELEMETRY_PORT, TELEMETRY_STREAM_RATE);
+		try 
+		{
+			telemetryServer.start();
+			System.out.println("Telemetry on http://localhost:" + telemetryServer.getPort() + "/");
+		} 
+		catch (IOException e) 
+		{
+			System.err.println("No telemetry stream: " + e);
+			telemetryServer = null;
+		}
+		controlLoop = new ControlLoop(hub, new Runnable() 
+		{
+			@Override
+			public void run() 
+			{
+				tick(dataCollector, collectorEvents);
+			}
+		}, 1000 / CONTROL_RATE, TimeUnit.MILLISECONDS);
+		// Straight on the hub rather than behind the event bus, so the first sample that moves wakes the loop
+		// while it waits instead of at the next idle tick
+		adaptiveRate = new AdaptiveRate(controlLoop, 1000 / IDLE_RATE, TimeUnit.MILLISECONDS);
+		hub.addListener(adaptiveRate);
+		controlLoop.run();
+		
+		telemetry.close();
+		if (telemetryServer != null) telemetryServer.close();
+		latencyReporter.close();
+		dispatcher.close();
+		gripper.close();
+		vertical.stop(true);
+		System.out.println();
+		System.out.print(dispatcher);
+		System.out.println(gripper);
+		System.out.print(sensorSampler);
+		System.out.println("Control loop: " + controlLoop);
+		System.out.println("Control rate: " + adaptiveRate);
+		System.out.println("Telemetry: " + telemetry);
+		if (telemetryServer != null) System.out.println("Telemetry stream: " + telemetryCollector + ", " + telemetryServer);
+		System.out.print(orientationLatency.summary(TimeUnit.MILLISECONDS));
+		System.out.print(poseLatency.summary(TimeUnit.MILLISECONDS));
+		if (events.getDroppedCount() > 0)
+		{
+			System.err.println("\nDropped " + events.getDroppedCount() + " Myo events because the control loop fell behind");
 		}
-		motorV.stop(true);
 	}
 	
-	// Moves the vertical motor
-	private void setVerticalSpeed(double pitch) 
+	// One control period: applies the new Myo events and maps pitch and roll to the motors
+	private void tick(DataCollector dataCollector, EventProcessor collectorEvents) 
 	{
-		try 
+		collectorEvents.poll();
+		// Once a second the prediction horizon follows the measured event to motor latency
+		OrientationPredictor predictor = dataCollector.getPredictor();
+		if (predictor != null && controlLoop.getTickCount() % CONTROL_RATE == 0) 
 		{
-			// Calculations of the height of the vertical movement of the arm
-			int speed = 0;
-			int scalePitch = DataCollector.SCALE / 2 / VERTICAL_SENSITIVITY;
-			int scaleMotor = (int) (motorV.getMaxSpeed() / 5);
-			if (pitch >= 0) speed = (int)((-scalePitch * VERTICAL_SENSITIVITY + pitch) * (scaleMotor / scalePitch));
-			// Sets new speed to the motor according to the speed of the arm
-			motorV.setSpeed(speed);
-			
-			// Gets the value of the ambient light from the colour sensor
-			SensorMode ambient = colorSensor.getAmbientMode();
-			float[] sample = new float[ambient.sampleSize()];
-			ambient.fetchSample(sample, 0);
-			
-			if (speed >= 0) 
-			{
-				/* If the ambient value is less than or equal to 0.05 then the motor will stop because
-				 * it has reached its desired highest point */
-				if (sample[0] > 0.05)
-				{
-					motorV.backward();
-				}
-				else
-				{
-					motorV.stop(true);
-				}
-			} 
-			else 
+			long latency = orientationLatency.getTotal().getValueAtPercentile(50);
+			if (latency > 0) 
 			{
-				motorV.forward();
+				predictor.setHorizon(latency, TimeUnit.NANOSECONDS);
 			}
-		} 
-		catch (RemoteException e) 
+		}
+		if (sleeping == true)
 		{
-			e.printStackTrace();
+			adaptiveRate.setBusy(false);
+			return;
 		}
+		// Pitch is the data from rising and lowering your hand
+		boolean driven = this.setVerticalSpeed(dataCollector.getPitch());
+		// Roll is the data from twisting your wrist
+		driven |= this.setHorizontalSpeed(dataCollector.getRoll(), dataCollector.isLeftArm());
+		// A held arm keeps a motor running, which needs the full rate for the limit checks
+		adaptiveRate.setBusy(driven);
 	}
 	
-	// Moves the horizontal motor
-	private void setHorizontalSpeed(double roll, boolean isLeftArm) 
+	// Moves the vertical motor, returns whether it is driven
+	private boolean setVerticalSpeed(double pitch) 
 	{
-		try 
+		// Calculations of the height of the vertical movement of the arm
+		int speed = 0;
+		int scalePitch = DataCollector.SCALE / 2 / VERTICAL_SENSITIVITY;
+		int scaleMotor = (int) (verticalMaxSpeed / 5);
+		if (pitch >= 0) speed = (int)((-scalePitch * VERTICAL_SENSITIVITY + pitch) * (scaleMotor / scalePitch));
+		
+		// Gets the latest value of the ambient light from the colour sensor, a stale one reads as the highest point
+		float ambient = ambientLight.get(0f);
+		
+		// Sets new speed and direction to the motor according to the speed of the arm
+		if (speed >= 0) 
 		{
-			// Calculations of the strength of the wrist twist
-			int steering = 0;
-			int scale = DataCollector.SCALE / 2 / HORIZONTAL_SENSITIVITY;
-			if (roll >= 0)
+			/* If the ambient value is less than or equal to 0.05 then the motor will stop because
+			 * it has reached its desired highest point */
+			if (ambient > 0.05)
 			{
-				steering = (int)((-scale * HORIZONTAL_SENSITIVITY + roll) * (horizontalScale / scale));
-			}
-			// If the myo is on the left arm then directions of the horizontal movement will be different to when its on the right arm
-			if (isLeftArm) steering = steering * -1;
-			// Sets new speed to the motor according to the strength of the wrist twist
-			motorH.setSpeed(steering);
-			
-			// Gets the value of the button on the touch sensor
-			SensorMode touch = touchSensor.getTouchMode();
-			float[] sample = new float[touch.sampleSize()];
-			touch.fetchSample(sample, 0);
-			if (steering >= 0) 
-			{
-				motorH.backward();
-			} 
-			else
-			{
-				/* If the button value is 1 then the button is pressed which means that 
-				 * the horizontal motor is at its desired maximum point and that will stop the motor
-				 * from rotating more */
-				if (sample[0] != 1)
-				{
-					motorH.forward();
-				}
-				else
-				{
-					motorH.stop(true);
-				}
+				verticalMailbox.drive(speed, MotorMailbox.Action.BACKWARD, orientationArrival, orientationDelivered);
+				return speed > SPEED_DEADBAND;
 			}
+			verticalMailbox.drive(speed, MotorMailbox.Action.STOP, orientationArrival, orientationDelivered);
+			return false;
 		} 
-		catch (RemoteException e) 
+		verticalMailbox.drive(speed, MotorMailbox.Action.FORWARD, orientationArrival, orientationDelivered);
+		return -speed > SPEED_DEADBAND;
+	}
+	
+	// Moves the horizontal motor, returns whether it is driven
+	private boolean setHorizontalSpeed(double roll, boolean isLeftArm) 
+	{
+		// Calculations of the strength of the wrist twist
+		int steering = 0;
+		int scale = DataCollector.SCALE / 2 / HORIZONTAL_SENSITIVITY;
+		if (roll >= 0)
 		{
-			e.printStackTrace();
+			steering = (int)((-scale * HORIZONTAL_SENSITIVITY + roll) * (horizontalScale / scale));
 		}
+		// If the myo is on the left arm then directions of the horizontal movement will be different to when its on the right arm
+		if (isLeftArm) steering = steering * -1;
+		
+		// Gets the latest value of the button on the touch sensor, a stale one reads as pressed
+		float touch = touchButton.get(1f);
+		
+		// Sets new speed and direction to the motor according to the strength of the wrist twist
+		if (steering >= 0) 
+		{
+			horizontalMailbox.drive(steering, MotorMailbox.Action.BACKWARD, orientationArrival, orientationDelivered);
+			return steering > SPEED_DEADBAND;
+		} 
+		/* If the button value is 1 then the button is pressed which means that 
+		 * the horizontal motor is at its desired maximum point and that will stop the motor
+		 * from rotating more */
+		if (touch != 1)
+		{
+			horizontalMailbox.drive(steering, MotorMailbox.Action.FORWARD, orientationArrival, orientationDelivered);
+			return -steering > SPEED_DEADBAND;
+		}
+		horizontalMailbox.drive(steering, MotorMailbox.Action.STOP, orientationArrival, orientationDelivered);
+		return false;
 	}
 	
-	// This method simply changes running to false to close the program
+	// This method simply stops the control loop to close the program
 	public void stop() 
 	{
-		this.running = false;
+		if (controlLoop != null) controlLoop.stop();
 	}
 	
 	
@@ -259,34 +403,19 @@ public class RoboticArm {
 	public void start() 
 	{
 		Button.LEDPattern(4);
-		this.running = true;
 		this.sleeping = false;
 	}
 	
-	// Open the gripper
-	public void openGripper() 
+	// Opens the gripper, returning at once
+	public ActionFuture openGripper() 
 	{
-		try 
-		{
-			motorHand.rotateTo(90);
-		} 
-		catch (RemoteException e) 
-		{
-			e.printStackTrace();
-		}
+		return gripper.submit(ArmActionExecutor.Action.OPEN_GRIPPER, poseArrival, poseDelivered);
 	}
 	
-	// Closes the gripper
-	public void closeGripper() 
+	// Closes the gripper, returning at once
+	public ActionFuture closeGripper() 
 	{
-		try 
-		{
-			motorHand.rotateTo(-90);
-		} 
-		catch (RemoteException e) 
-		{
-			e.printStackTrace();
-		}
+		return gripper.submit(ArmActionExecutor.Action.CLOSE_GRIPPER, poseArrival, poseDelivered);
 	}
 	
 	protected void finalize() throws Throwable 
@@ -306,7 +435,9 @@ public class RoboticArm {
 		try 
 		{
 			RoboticArm myoArm = new RoboticArm();
-			Hub hub = new Hub("net.havlena.myo");
+			// Event counts and listener timings are browsable under com.thalmic.myo in jconsole
+			InstrumentedEventSource hub = new InstrumentedEventSource(new Hub("net.havlena.myo"), "net.havlena.myo");
+			hub.registerMBeans();
 		    Myo myo = hub.waitForMyo(10000);
 		    if (myo == null) 
 		    {
@@ -316,9 +447,11 @@ public class RoboticArm {
 		    // Keeps the myo armband unlocked for the duration of the program's runtime
 		    myo.unlock(UnlockType.UNLOCK_HOLD);
 		    DataCollector dataCollector = new DataCollector(myoArm);
-		    hub.addListener(dataCollector);
+		    // The motors act on where the arm will be when their commands land, not where it was
+		    dataCollector.setPredictor(new OrientationPredictor(OrientationPredictor.Smoothing.COMPLEMENTARY, PREDICTION_HORIZON_MS, TimeUnit.MILLISECONDS));
 		    myoArm.run(hub, dataCollector);
 		    myoArm.close();
+		    hub.unregisterMBeans();
 		} 
 		catch (Exception e) 
 		{
@@ -0,0 +1,173 @@
+package com.thalmic.myo.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lejos.robotics.SampleProvider;
+
+// Polls sensors on its own thread, each on its own period, and caches the first channel of the latest sample
+// with its time. Reading a cached value is a handful of volatile reads. A value older than the sensor's maximum
+// age is stale and reads as the caller's fail-safe value instead, so a stuck or failing sensor stops the arm
+// rather than letting it run past a limit.
+public class SensorSampler implements Runnable {
+	private final List<Sensor> sensors = new ArrayList<>();
+	private volatile boolean running;
+	private Thread thread;
+
+	// Sensors must be added before start
+	public Sensor add(String name, SampleProvider provider, long period, long maxAge, TimeUnit unit) {
+		if (running) {
+			throw new IllegalStateException("Sampler is already running");
+		}
+		Sensor sensor = new Sensor(name, provider, unit.toNanos(period), unit.toNanos(maxAge));
+		sensors.add(sensor);
+		return sensor;
+	}
+
+	public void start() {
+		running = true;
+		thread = new Thread(this, "ev3-sensors");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void close() {
+		running = false;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		long now = System.nanoTime();
+		for (Sensor sensor : sensors) {
+			sensor.nextDue = now;
+		}
+		while (running) {
+			long next = Long.MAX_VALUE;
+			now = System.nanoTime();
+			for (Sensor sensor : sensors) {
+				if (now - sensor.nextDue >= 0) {
+					sensor.sample();
+					// Skip missed periods instead of sampling in a burst to catch up
+					sensor.nextDue += ((System.nanoTime() - sensor.nextDue) / sensor.period + 1) * sensor.period;
+				}
+				next = Math.min(next, sensor.nextDue);
+			}
+			long delay = next - System.nanoTime();
+			if (delay > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(delay);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	public List<Sensor> getSensors() {
+		return sensors;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Sensor sensor : sensors) {
+			builder.append(sensor).append(String.format("%n"));
+		}
+		return builder.toString();
+	}
+
+	public static final class Sensor {
+		private final String name;
+		private final SampleProvider provider;
+		private final long period;
+		private final long maxAge;
+		private final float[] sample;
+		private long nextDue;
+		// Sequence lock, odd while the sampler thread is writing the value and its time
+		private volatile long sequence;
+		private volatile float value;
+		private volatile long timestamp;
+		private volatile long sampleCount;
+		private volatile long errorCount;
+		private volatile long staleReads;
+
+		private Sensor(String name, SampleProvider provider, long period, long maxAge) {
+			this.name = name;
+			this.provider = provider;
+			this.period = period;
+			this.maxAge = maxAge;
+			this.sample = new float[provider.sampleSize()];
+		}
+
+		private void sample() {
+			try {
+				provider.fetchSample(sample, 0);
+			} catch (RuntimeException e) {
+				errorCount++;
+				return;
+			}
+			long now = System.nanoTime();
+			sequence++;
+			value = sample[0];
+			timestamp = now;
+			sequence++;
+			sampleCount++;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		// The latest value, or failSafe when there is none younger than the maximum age
+		public float get(float failSafe) {
+			while (true) {
+				long before = sequence;
+				float value = this.value;
+				long timestamp = this.timestamp;
+				if ((before & 1) == 0 && before == sequence) {
+					if (before == 0 || System.nanoTime() - timestamp > maxAge) {
+						staleReads++;
+						return failSafe;
+					}
+					return value;
+				}
+			}
+		}
+
+		// Nanoseconds since the latest value was sampled, Long.MAX_VALUE before the first one
+		public long getAge() {
+			return sequence == 0 ? Long.MAX_VALUE : System.nanoTime() - timestamp;
+		}
+
+		public boolean isFresh() {
+			return getAge() <= maxAge;
+		}
+
+		public long getSampleCount() {
+			return sampleCount;
+		}
+
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+		// Reads answered with the fail-safe value, only counted from the one reading thread
+		public long getStaleReads() {
+			return staleReads;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d samples, %d errors, %d stale reads", name, sampleCount, errorCount, staleReads);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.thalmic.myo.example;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.record.SessionRecorder;
+import com.thalmic.myo.record.SessionReplayer;
+
+// Records simulated armbands with small regions, so the recorder and the replayer both cross many region
+// boundaries, replays the log into a second recorder and compares the two files byte for byte. Then checks that
+// a log left open after a flush replays only up to the flush, and that one never flushed replays every record.
+// Exits with 1 if any check fails.
+// Usage: SessionRoundTripCheck [minutes] [devices] [region size in bytes]
+public class SessionRoundTripCheck {
+	public static void main(String[] args) throws IOException {
+		int minutes = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int deviceCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int regionSize = args.length > 2 ? Integer.parseInt(args[2]) : 1024 * 1024;
+
+		int failures = 0;
+		File original = temporaryFile();
+		File copy = temporaryFile();
+		SimulatedHub hub = new SimulatedHub(1);
+		for (int i = 0; i < deviceCount; i++) {
+			hub.addDevice(new SimulatedDevice());
+		}
+		long recorded;
+		try (SessionRecorder recorder = new SessionRecorder(original, regionSize)) {
+			hub.addListener(recorder);
+			hub.run(minutes * 60 * 1000);
+			recorded = recorder.getRecordCount();
+		}
+		long replayed;
+		try (SessionReplayer replayer = new SessionReplayer(original, regionSize); SessionRecorder recorder = new SessionRecorder(copy, regionSize)) {
+			replayer.addListener(recorder);
+			replayed = replayer.replayAll();
+		}
+		boolean identical = Arrays.equals(Files.readAllBytes(original.toPath()), Files.readAllBytes(copy.toPath()));
+		failures += report(identical && replayed == recorded, String.format("%d events recorded, %d replayed, %d bytes, copy %s", recorded, replayed, original.length(), identical ? "byte-identical" : "differs"));
+
+		failures += report(replayOpenLog(true, regionSize) == 1000, "open log flushed after 1000 of 1500 records replays 1000");
+		failures += report(replayOpenLog(false, regionSize) == 1500, "open log never flushed replays all 1500 records");
+
+		System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	// Writes 1500 records and leaves the recorder open, as after a crash
+	private static long replayOpenLog(boolean flush, int regionSize) throws IOException {
+		File file = temporaryFile();
+		Myo myo = Myo.createSimulated();
+		SessionRecorder recorder = new SessionRecorder(file, regionSize);
+		for (int i = 0; i < 1500; i++) {
+			if (flush && i == 1000) {
+				recorder.flush();
+			}
+			recorder.onRssi(myo, i, -50);
+		}
+		try (SessionReplayer replayer = new SessionReplayer(file, regionSize)) {
+			return replayer.replayAll();
+		}
+	}
+
+	private static int report(boolean ok, String description) {
+		System.out.println((ok ? "ok   " : "FAIL ") + description);
+		return ok ? 0 : 1;
+	}
+
+	private static File temporaryFile() throws IOException {
+		File file = File.createTempFile("myo-session", ".log");
+		file.deleteOnExit();
+		return file;
+	}
+}
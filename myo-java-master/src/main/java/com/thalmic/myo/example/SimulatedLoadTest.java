@@ -0,0 +1,39 @@
+package com.thalmic.myo.example;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+
+// Drives a listener from simulated armbands as fast as possible and reports dispatch throughput.
+// Usage: SimulatedLoadTest [devices] [rate multiplier] [simulated seconds]
+public class SimulatedLoadTest {
+	public static void main(String[] args) {
+		int deviceCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		double rateMultiplier = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+		SimulatedHub hub = new SimulatedHub(42);
+		for (int i = 0; i < deviceCount; i++) {
+			SimulatedDevice device = new SimulatedDevice();
+			device.scaleRates(rateMultiplier);
+			hub.addDevice(device);
+		}
+		final double[] pitch = new double[1];
+		hub.addListener(new AbstractDeviceListener() {
+			@Override
+			public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+				Quaternion normalized = rotation.normalized();
+				pitch[0] = Math.asin(2.0f * (normalized.getW() * normalized.getY() - normalized.getZ() * normalized.getX()));
+			}
+		});
+
+		long start = System.nanoTime();
+		for (int i = 0; i < seconds * 20; i++) {
+			hub.run(1000 / 20);
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("%d devices at %.0fx: %d events in %.3f s, %.0f events/s, last pitch %.3f", deviceCount, rateMultiplier, hub.getEventCount(), elapsed, hub.getEventCount() / elapsed, pitch[0]));
+	}
+}
@@ -0,0 +1,146 @@
+package com.thalmic.myo.example;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.enums.PoseType;
+
+// Redraws the DataCollector status line, the speed bars, the arm and the pose, from a daemon thread of its own
+// at no more than the given rate, so the control loop never formats or writes console output. Every frame reads
+// the collector's packed display state once, which is always consistent, and is skipped when that has not
+// changed. Each possible bar, arm and pose is encoded once up front; a frame copies the pieces into one buffer
+// and hands it to the stream in a single write.
+public class TelemetryConsole implements Runnable {
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	private final DataCollector dataCollector;
+	private final PrintStream out;
+	private final long period;
+	private final byte[][] horizontal = new byte[DataCollector.SCALE + 1][];
+	private final byte[][] vertical = new byte[DataCollector.SCALE + 1][];
+	private final byte[][] arms = new byte[3][];
+	private final byte[][] poses = new byte[PoseType.values().length + 1][];
+	private final byte[] frame;
+	private Thread thread;
+	private volatile long frameCount;
+	private volatile long unchangedCount;
+
+	public TelemetryConsole(DataCollector dataCollector, PrintStream out, int maxRate) {
+		if (maxRate <= 0) {
+			throw new IllegalArgumentException("Refresh rate must be positive, was " + maxRate);
+		}
+		this.dataCollector = dataCollector;
+		this.out = out;
+		this.period = TimeUnit.SECONDS.toNanos(1) / maxRate;
+		for (int i = 0; i <= DataCollector.SCALE; i++) {
+			horizontal[i] = encode("\rHorizontal Speed: " + bar(i));
+			vertical[i] = encode(" Vertical Speed: " + bar(i));
+		}
+		arms[0] = encode(" ARM: [?]");
+		arms[1] = encode(" ARM: [L]");
+		arms[2] = encode(" ARM: [R]");
+		poses[0] = encode(" POSE: [" + pad("") + "]");
+		for (PoseType type : PoseType.values()) {
+			poses[type.ordinal() + 1] = encode(" POSE: [" + pad(type.toString()) + "]");
+		}
+		frame = new byte[longest(horizontal) + longest(vertical) + longest(arms) + longest(poses)];
+	}
+
+	public void start() {
+		thread = new Thread(this, "telemetry-console");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// Stops the thread and waits for it, the last frame drawn stays on the line
+	public void close() {
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		int drawn = -1;
+		long next = System.nanoTime();
+		while (true) {
+			int display = dataCollector.getDisplay();
+			if (display != drawn) {
+				int length = render(display);
+				out.write(frame, 0, length);
+				out.flush();
+				drawn = display;
+				frameCount++;
+			} else {
+				unchangedCount++;
+			}
+			next += period;
+			try {
+				TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private int render(int display) {
+		int length = append(horizontal[DataCollector.displayRoll(display)], 0);
+		length = append(vertical[DataCollector.displayPitch(display)], length);
+		length = append(arms[DataCollector.displayArm(display)], length);
+		return append(poses[Math.min(DataCollector.displayPose(display), poses.length - 1)], length);
+	}
+
+	private int append(byte[] piece, int offset) {
+		System.arraycopy(piece, 0, frame, offset, piece.length);
+		return offset + piece.length;
+	}
+
+	// Frames written
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	// Refreshes skipped because nothing changed
+	public long getUnchangedCount() {
+		return unchangedCount;
+	}
+
+	private static String bar(int width) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < DataCollector.SCALE; i++) {
+			builder.append(i < width ? '*' : ' ');
+		}
+		return builder.append(']').toString();
+	}
+
+	private static String pad(String text) {
+		StringBuilder builder = new StringBuilder(text);
+		while (builder.length() < DataCollector.SCALE) {
+			builder.append(' ');
+		}
+		return builder.toString();
+	}
+
+	private static byte[] encode(String text) {
+		return text.getBytes(ASCII);
+	}
+
+	private static int longest(byte[][] pieces) {
+		int longest = 0;
+		for (byte[] piece : pieces) {
+			longest = Math.max(longest, piece.length);
+		}
+		return longest;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d frames drawn, %d refreshes unchanged", frameCount, unchangedCount);
+	}
+}
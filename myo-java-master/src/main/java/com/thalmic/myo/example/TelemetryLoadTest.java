@@ -0,0 +1,337 @@
+package com.thalmic.myo.example;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.SimulatedDevice;
+import com.thalmic.myo.SimulatedHub;
+import com.thalmic.myo.metrics.Histogram;
+import com.thalmic.myo.telemetry.TelemetryCollector;
+import com.thalmic.myo.telemetry.TelemetryServer;
+
+// Streams paced simulated armbands through a TelemetryServer on the loopback interface to a growing number of
+// simulated WebSocket clients, all driven from one thread. Per step it reports the share of batches the fast
+// clients received, going by the sequence numbers they saw, the batches per second a slow client got, the batches
+// the server skipped and the clients it dropped as stalled, its fan-out time and lateness, and the time the hub
+// thread spent in the collector. Slow clients have a small receive buffer and take SLOW_READ bytes a second, less
+// than the stream, so once the socket buffers are full the server has to skip them. The fan-out limit is where
+// fast clients start to miss batches or the fan-out time approaches the period.
+// Usage: TelemetryLoadTest [max clients] [seconds per step] [slow clients in percent] [devices] [batches per second]
+public class TelemetryLoadTest {
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final int[] STEPS = { 1, 10, 50, 100, 250, 500, 1000, 2000, 5000 };
+	private static final int SLOW_READ = 1024;
+
+	public static void main(String[] args) throws Exception {
+		int maxClients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int slowPercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int deviceCount = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+		int rate = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+		final SimulatedHub hub = new SimulatedHub(5);
+		hub.setPaced(true);
+		for (int i = 0; i < deviceCount; i++) {
+			SimulatedDevice device = new SimulatedDevice();
+			hub.addDevice(device);
+		}
+		TelemetryCollector collector = new TelemetryCollector(64 * 1024);
+		final Histogram callbacks = new Histogram();
+		hub.addListener(new TimedCollector(collector, callbacks));
+		TelemetryServer server = new TelemetryServer(collector, 0, rate);
+		server.start();
+		final boolean[] running = { true };
+		Thread hubThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (running[0]) {
+					hub.run(100);
+				}
+			}
+		}, "hub");
+		hubThread.start();
+
+		Clients clients = new Clients(new InetSocketAddress("127.0.0.1", server.getPort()));
+		System.out.println(String.format("%d devices, %d batches/s, %d%% slow clients, %d s per step", deviceCount, rate, slowPercent, seconds));
+		for (int step : STEPS) {
+			if (step > maxClients) {
+				break;
+			}
+			while (clients.size() < step) {
+				// Spread evenly, so the first client is a fast one
+				int index = clients.size();
+				clients.add((index + 1) * slowPercent / 100 > index * slowPercent / 100);
+			}
+			if (!clients.awaitOpen(TimeUnit.SECONDS.toNanos(10))) {
+				System.out.println(String.format("%5d clients: only %d opened", step, clients.countOpen()));
+				break;
+			}
+			clients.reset();
+			server.getFanOut().reset();
+			server.getLateness().reset();
+			callbacks.reset();
+			long skipped = server.getSkippedCount();
+			long stalled = server.getStalledCount();
+			clients.run(TimeUnit.SECONDS.toNanos(seconds));
+			System.out.println(String.format("%5d clients: fast got %5.1f%%, slow %4.1f/s, %5d skipped, %3d stalled, %5.1f MB/s, fan-out p50 %5.2f p99 %5.2f ms, lateness p99 %5.2f ms, collector p99 %.1f max %.1f us", step, clients.share(), clients.slowRate(seconds), server.getSkippedCount() - skipped, server.getStalledCount() - stalled, clients.bytes / 1e6 / seconds, server.getFanOut().getValueAtPercentile(50) / 1e6, server.getFanOut().getValueAtPercentile(99) / 1e6, server.getLateness().getValueAtPercentile(99) / 1e6, callbacks.getValueAtPercentile(99) / 1e3, callbacks.getMax() / 1e3));
+		}
+		running[0] = false;
+		hubThread.join();
+		clients.close();
+		server.close();
+		System.out.println("Collector: " + collector);
+		System.out.println("Server: " + server);
+	}
+
+	// Times each callback the hub makes into the collector
+	private static class TimedCollector extends AbstractDeviceListener implements EventSubscriber {
+		private final TelemetryCollector collector;
+		private final Histogram callbacks;
+
+		private TimedCollector(TelemetryCollector collector, Histogram callbacks) {
+			this.collector = collector;
+			this.callbacks = callbacks;
+		}
+
+		@Override
+		public int getEventMask() {
+			return collector.getEventMask();
+		}
+
+		@Override
+		public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+			long start = System.nanoTime();
+			collector.onOrientationData(myo, timestamp, rotation);
+			callbacks.record(System.nanoTime() - start);
+		}
+
+		@Override
+		public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+			long start = System.nanoTime();
+			collector.onEmgData(myo, timestamp, emg);
+			callbacks.record(System.nanoTime() - start);
+		}
+
+		@Override
+		public void onPose(Myo myo, long timestamp, Pose pose) {
+			long start = System.nanoTime();
+			collector.onPose(myo, timestamp, pose);
+			callbacks.record(System.nanoTime() - start);
+		}
+	}
+
+	// WebSocket clients on one selector: they send the upgrade request, skip the response and count the binary
+	// messages and the sequence numbers they missed
+	private static class Clients {
+		private final InetSocketAddress address;
+		private final Selector selector;
+		private final List<Client> clients = new ArrayList<>();
+		private long bytes;
+
+		private Clients(InetSocketAddress address) throws IOException {
+			this.address = address;
+			this.selector = Selector.open();
+		}
+
+		private int size() {
+			return clients.size();
+		}
+
+		private void add(boolean slow) throws IOException {
+			SocketChannel channel = SocketChannel.open();
+			if (slow) {
+				channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+			}
+			channel.connect(address);
+			channel.configureBlocking(false);
+			Client client = new Client(channel, slow);
+			String request = "GET /stream HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\nSec-WebSocket-Version: 13\r\n\r\n";
+			channel.write(ByteBuffer.wrap(request.getBytes(ASCII)));
+			client.key = channel.register(selector, SelectionKey.OP_READ, client);
+			clients.add(client);
+		}
+
+		private int countOpen() {
+			int open = 0;
+			for (Client client : clients) {
+				if (client.open) {
+					open++;
+				}
+			}
+			return open;
+		}
+
+		private boolean awaitOpen(long timeout) throws IOException {
+			long deadline = System.nanoTime() + timeout;
+			while (countOpen() < clients.size()) {
+				if (System.nanoTime() - deadline > 0) {
+					return false;
+				}
+				poll(10);
+			}
+			return true;
+		}
+
+		private void reset() {
+			for (Client client : clients) {
+				client.received = 0;
+				client.missed = 0;
+			}
+			bytes = 0;
+		}
+
+		// Reads for the duration, slow clients once a second
+		private void run(long duration) throws IOException {
+			long end = System.nanoTime() + duration;
+			while (System.nanoTime() - end < 0) {
+				long now = System.nanoTime();
+				for (Client client : clients) {
+					if (client.slow && client.key.interestOps() == 0 && now - client.nextRead >= 0) {
+						client.key.interestOps(SelectionKey.OP_READ);
+					}
+				}
+				poll(10);
+			}
+		}
+
+		private void poll(long millis) throws IOException {
+			selector.select(millis);
+			long now = System.nanoTime();
+			for (SelectionKey key : selector.selectedKeys()) {
+				Client client = (Client) key.attachment();
+				if (client.slow && client.open) {
+					client.in.limit(Math.min(client.in.capacity(), client.in.position() + SLOW_READ));
+				}
+				int count = client.channel.read(client.in);
+				client.in.limit(client.in.capacity());
+				if (count < 0) {
+					key.cancel();
+					client.channel.close();
+					continue;
+				}
+				bytes += count;
+				client.parse();
+				if (client.slow && client.open) {
+					key.interestOps(0);
+					client.nextRead = now + TimeUnit.SECONDS.toNanos(1);
+				}
+			}
+			selector.selectedKeys().clear();
+		}
+
+		// Batches received as a share of those received and missed, over the fast clients
+		private double share() {
+			long received = 0;
+			long missed = 0;
+			for (Client client : clients) {
+				if (!client.slow) {
+					received += client.received;
+					missed += client.missed;
+				}
+			}
+			return received + missed == 0 ? 0 : 100.0 * received / (received + missed);
+		}
+
+		// Batches a second per slow client, over those still connected
+		private double slowRate(int seconds) {
+			long received = 0;
+			int count = 0;
+			for (Client client : clients) {
+				if (client.slow && client.channel.isOpen()) {
+					received += client.received;
+					count++;
+				}
+			}
+			return count == 0 ? 0 : (double) received / count / seconds;
+		}
+
+		private void close() throws IOException {
+			for (Client client : clients) {
+				client.channel.close();
+			}
+			selector.close();
+		}
+	}
+
+	private static class Client {
+		private final SocketChannel channel;
+		private final boolean slow;
+		private final ByteBuffer in = ByteBuffer.allocate(128 * 1024);
+		private SelectionKey key;
+		private boolean open;
+		private long nextRead;
+		private int lastSequence = -1;
+		private long received;
+		private long missed;
+
+		private Client(SocketChannel channel, boolean slow) {
+			this.channel = channel;
+			this.slow = slow;
+		}
+
+		private void parse() {
+			in.flip();
+			if (!open) {
+				int end = -1;
+				for (int i = in.position() + 3; i < in.limit(); i++) {
+					if (in.get(i - 3) == '\r' && in.get(i - 2) == '\n' && in.get(i - 1) == '\r' && in.get(i) == '\n') {
+						end = i + 1;
+						break;
+					}
+				}
+				if (end < 0) {
+					in.compact();
+					return;
+				}
+				in.position(end);
+				open = true;
+			}
+			while (in.remaining() >= 2) {
+				int start = in.position();
+				int opcode = in.get(start) & 0x0f;
+				int length = in.get(start + 1) & 0x7f;
+				int header = 2;
+				if (length == 126) {
+					if (in.remaining() < 4) {
+						break;
+					}
+					length = in.getShort(start + 2) & 0xffff;
+					header = 4;
+				} else if (length == 127) {
+					if (in.remaining() < 10) {
+						break;
+					}
+					length = (int) in.getLong(start + 2);
+					header = 10;
+				}
+				if (in.remaining() < header + length) {
+					break;
+				}
+				if (opcode == 0x2) {
+					int sequence = in.getInt(start + header);
+					if (lastSequence >= 0) {
+						missed += sequence - lastSequence - 1;
+					}
+					lastSequence = sequence;
+					received++;
+				}
+				in.position(start + header + length);
+			}
+			in.compact();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.thalmic.myo.gesture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// A trained model mapping a feature vector to a class index. Features are standardised with the training mean
+// and deviation before the backend sees them. All parameters are floats, so a model is compact on disk and
+// survives a save and load unchanged. Instances reuse scratch arrays and must be used from one thread.
+public abstract class Classifier {
+	static final int LDA = 1;
+	static final int KNN = 2;
+
+	final int featureCount;
+	final int classCount;
+	final float[] mean;
+	final float[] scale;
+	private final double[] standardized;
+
+	Classifier(int featureCount, int classCount, float[] mean, float[] scale) {
+		this.featureCount = featureCount;
+		this.classCount = classCount;
+		this.mean = mean;
+		this.scale = scale;
+		this.standardized = new double[featureCount];
+	}
+
+	public int getFeatureCount() {
+		return featureCount;
+	}
+
+	public int getClassCount() {
+		return classCount;
+	}
+
+	public int classify(double[] features) {
+		for (int i = 0; i < featureCount; i++) {
+			standardized[i] = (features[i] - mean[i]) * scale[i];
+		}
+		return classifyStandardized(standardized);
+	}
+
+	abstract int classifyStandardized(double[] features);
+
+	abstract int getType();
+
+	// Size of the backend parameters written by writeParameters, in bytes
+	abstract int getParametersSize();
+
+	abstract void writeParameters(ByteBuffer out);
+
+	int getSize() {
+		return 5 + 8 * featureCount + getParametersSize();
+	}
+
+	void write(ByteBuffer out) {
+		out.put((byte) getType());
+		out.putShort((short) featureCount);
+		out.putShort((short) classCount);
+		writeFloats(out, mean);
+		writeFloats(out, scale);
+		writeParameters(out);
+	}
+
+	static Classifier read(ByteBuffer in) throws IOException {
+		int type = in.get();
+		int featureCount = in.getShort();
+		int classCount = in.getShort();
+		float[] mean = readFloats(in, featureCount);
+		float[] scale = readFloats(in, featureCount);
+		switch (type) {
+		case LDA:
+			return LdaClassifier.read(in, featureCount, classCount, mean, scale);
+		case KNN:
+			return KnnClassifier.read(in, featureCount, classCount, mean, scale);
+		default:
+			throw new IOException("Unknown classifier type " + type);
+		}
+	}
+
+	static float[] readFloats(ByteBuffer in, int count) {
+		float[] values = new float[count];
+		in.asFloatBuffer().get(values);
+		in.position(in.position() + 4 * count);
+		return values;
+	}
+
+	static void writeFloats(ByteBuffer out, float[] values) {
+		out.asFloatBuffer().put(values);
+		out.position(out.position() + 4 * values.length);
+	}
+
+	static float[] mean(TrainingSet set) {
+		int n = set.size();
+		float[] mean = new float[set.getFeatureCount()];
+		for (int f = 0; f < mean.length; f++) {
+			double sum = 0;
+			for (int i = 0; i < n; i++) {
+				sum += set.get(i, f);
+			}
+			mean[f] = (float) (sum / n);
+		}
+		return mean;
+	}
+
+	// Inverse standard deviations; constant features get 0 and drop out
+	static float[] scale(TrainingSet set, float[] mean) {
+		int n = set.size();
+		float[] scale = new float[mean.length];
+		for (int f = 0; f < scale.length; f++) {
+			double sum = 0;
+			for (int i = 0; i < n; i++) {
+				double d = set.get(i, f) - mean[f];
+				sum += d * d;
+			}
+			double deviation = Math.sqrt(sum / n);
+			scale[f] = deviation > 1e-9 ? (float) (1 / deviation) : 0f;
+		}
+		return scale;
+	}
+
+	static double[] standardize(TrainingSet set, float[] mean, float[] scale) {
+		int n = set.size();
+		int features = mean.length;
+		double[] standardized = new double[n * features];
+		for (int i = 0; i < n; i++) {
+			for (int f = 0; f < features; f++) {
+				standardized[i * features + f] = (set.get(i, f) - mean[f]) * scale[f];
+			}
+		}
+		return standardized;
+	}
+
+	static void checkTrainable(TrainingSet set) {
+		int classCount = set.getLabels().size();
+		if (classCount < 2) {
+			throw new IllegalArgumentException("At least two labels are needed, found " + classCount);
+		}
+		for (int c = 0; c < classCount; c++) {
+			if (set.count(c) == 0) {
+				throw new IllegalArgumentException("No samples for label " + set.getLabels().get(c));
+			}
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.thalmic.myo.gesture;
+
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.enums.PoseType;
+
+// A class a GestureModel can recognise. Gestures named after a PoseType (case insensitive) are also delivered
+// to pose listeners as that pose; every other gesture has the UNKNOWN pose type and no Pose.
+public final class Gesture {
+	private final int index;
+	private final String name;
+	private final PoseType poseType;
+	private final Pose pose;
+
+	Gesture(int index, String name) {
+		this.index = index;
+		this.name = name;
+		this.poseType = poseTypeOf(name);
+		this.pose = poseType == PoseType.UNKNOWN ? null : new Pose(poseType);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public PoseType getPoseType() {
+		return poseType;
+	}
+
+	public Pose getPose() {
+		return pose;
+	}
+
+	private static PoseType poseTypeOf(String name) {
+		for (PoseType type : PoseType.values()) {
+			if (type.name().equalsIgnoreCase(name)) {
+				return type;
+			}
+		}
+		return PoseType.UNKNOWN;
+	}
+
+	@Override
+	public String toString() {
+		return "Gesture [name=" + name + ", poseType=" + poseType + "]";
+	}
+}
@@ -0,0 +1,7 @@
+package com.thalmic.myo.gesture;
+
+import com.thalmic.myo.Myo;
+
+public interface GestureListener {
+	public void onGesture(Myo myo, long timestamp, Gesture gesture);
+}
@@ -0,0 +1,123 @@
+package com.thalmic.myo.gesture;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A trained classifier together with the gesture names and the feature layout it was trained on. Saved as one
+// flat big endian file: header, gesture names, then the classifier parameters as floats, which loads with a
+// single read and bulk copies.
+public final class GestureModel {
+	private static final int MAGIC = 0x4D594F47;
+	private static final int VERSION = 1;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final List<Gesture> gestures;
+	private final int windowSize;
+	private final int hop;
+	private final int threshold;
+	private final boolean imu;
+	private final Classifier classifier;
+
+	public GestureModel(List<String> names, int windowSize, int hop, int threshold, boolean imu, Classifier classifier) {
+		if (names.size() != classifier.getClassCount()) {
+			throw new IllegalArgumentException(names.size() + " gesture names for " + classifier.getClassCount() + " classes");
+		}
+		List<Gesture> gestures = new ArrayList<>(names.size());
+		for (String name : names) {
+			gestures.add(new Gesture(gestures.size(), name));
+		}
+		this.gestures = Collections.unmodifiableList(gestures);
+		this.windowSize = windowSize;
+		this.hop = hop;
+		this.threshold = threshold;
+		this.imu = imu;
+		this.classifier = classifier;
+	}
+
+	public List<Gesture> getGestures() {
+		return gestures;
+	}
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	public int getHop() {
+		return hop;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public boolean usesImu() {
+		return imu;
+	}
+
+	public Classifier getClassifier() {
+		return classifier;
+	}
+
+	public void write(File file) throws IOException {
+		List<byte[]> names = new ArrayList<>(gestures.size());
+		int size = 26;
+		for (Gesture gesture : gestures) {
+			byte[] name = gesture.getName().getBytes(UTF_8);
+			names.add(name);
+			size += 2 + name.length;
+		}
+		ByteBuffer out = ByteBuffer.allocate(size + classifier.getSize());
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putInt(windowSize);
+		out.putInt(hop);
+		out.putInt(threshold);
+		out.put((byte) (imu ? 1 : 0));
+		out.put((byte) 0);
+		out.putInt(names.size());
+		for (byte[] name : names) {
+			out.putShort((short) name.length);
+			out.put(name);
+		}
+		classifier.write(out);
+		try (FileOutputStream stream = new FileOutputStream(file)) {
+			stream.write(out.array(), 0, out.position());
+		}
+	}
+
+	public static GestureModel read(File file) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException(file + " is not a gesture model");
+			}
+			int version = in.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported gesture model version " + version);
+			}
+			int windowSize = in.getInt();
+			int hop = in.getInt();
+			int threshold = in.getInt();
+			boolean imu = in.get() != 0;
+			in.get();
+			int count = in.getInt();
+			List<String> names = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				byte[] name = new byte[in.getShort()];
+				in.get(name);
+				names.add(new String(name, UTF_8));
+			}
+			return new GestureModel(names, windowSize, hop, threshold, imu, Classifier.read(in));
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file + " is truncated");
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.thalmic.myo.gesture;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.emg.EmgFeatureExtractor;
+import com.thalmic.myo.emg.EmgFeatureListener;
+
+// Turns EMG (and optionally IMU) data into gestures. Each feature window is the EmgFeatureExtractor vector,
+// followed by the latest accelerometer and gyroscope readings when the IMU is used.
+// While training, windows are added to the training set under the current label. Otherwise, with a model set,
+// each window is classified and a gesture is emitted once it wins setStability windows in a row. Gestures named
+// after a PoseType also reach pose listeners through onPose, so existing pose handling picks them up.
+public class GestureRecognizer extends AbstractDeviceListener implements EmgFeatureListener {
+	public static final int EMG_FEATURES = EmgFeatureExtractor.FEATURES * EmgFeatureExtractor.CHANNELS;
+	public static final int IMU_FEATURES = 6;
+
+	private final EmgFeatureExtractor extractor;
+	private final boolean imu;
+	private final double[] features;
+	private final Map<Myo, DeviceState> devices = new HashMap<>();
+	private final List<GestureListener> listeners = new CopyOnWriteArrayList<>();
+	private final List<DeviceListener> poseListeners = new CopyOnWriteArrayList<>();
+	private volatile GestureModel model;
+	private volatile TrainingSet trainingSet;
+	private volatile int trainingLabel = -1;
+	private int stability = 2;
+	private long inferenceCount;
+	private long inferenceNanos;
+	private long maxInferenceNanos;
+
+	public GestureRecognizer(int windowSize, int hop, int threshold, boolean imu) {
+		this.extractor = new EmgFeatureExtractor(windowSize, hop);
+		this.extractor.setThreshold(threshold);
+		this.extractor.addListener(this);
+		this.imu = imu;
+		this.features = new double[EMG_FEATURES + (imu ? IMU_FEATURES : 0)];
+		this.trainingSet = new TrainingSet(features.length);
+	}
+
+	// A recognizer with the feature layout the model was trained on, ready for inference
+	public GestureRecognizer(GestureModel model) {
+		this(model.getWindowSize(), model.getHop(), model.getThreshold(), model.usesImu());
+		setModel(model);
+	}
+
+	public int getFeatureCount() {
+		return features.length;
+	}
+
+	public void addListener(GestureListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(GestureListener listener) {
+		listeners.remove(listener);
+	}
+
+	public void addPoseListener(DeviceListener listener) {
+		poseListeners.add(listener);
+	}
+
+	public void removePoseListener(DeviceListener listener) {
+		poseListeners.remove(listener);
+	}
+
+	public int getStability() {
+		return stability;
+	}
+
+	// Consecutive windows a class has to win before it is emitted
+	public void setStability(int stability) {
+		this.stability = Math.max(1, stability);
+	}
+
+	public GestureModel getModel() {
+		return model;
+	}
+
+	// Null stops inference
+	public void setModel(GestureModel model) {
+		if (model != null) {
+			if (model.getClassifier().getFeatureCount() != features.length || model.getWindowSize() != extractor.getWindowSize() || model.getHop() != extractor.getHop() || model.getThreshold() != extractor.getThreshold() || model.usesImu() != imu) {
+				throw new IllegalArgumentException("Model was trained on a different feature layout");
+			}
+		}
+		this.model = model;
+	}
+
+	// Windows arriving from now on are training samples for the label, inference pauses until stopTraining
+	public void startTraining(String label) {
+		trainingLabel = trainingSet.label(label);
+	}
+
+	public void stopTraining() {
+		trainingLabel = -1;
+	}
+
+	public boolean isTraining() {
+		return trainingLabel >= 0;
+	}
+
+	// Only read it while not training, the set is filled from the Hub thread
+	public TrainingSet getTrainingSet() {
+		return trainingSet;
+	}
+
+	// Also stops training, labels belong to the set they were started on
+	public void clearTrainingSet() {
+		trainingLabel = -1;
+		trainingSet = new TrainingSet(features.length);
+	}
+
+	public GestureModel train(Classifier classifier) {
+		return new GestureModel(trainingSet.getLabels(), extractor.getWindowSize(), extractor.getHop(), extractor.getThreshold(), imu, classifier);
+	}
+
+	public long getInferenceCount() {
+		return inferenceCount;
+	}
+
+	public double getMeanInferenceNanos() {
+		return inferenceCount == 0 ? 0 : (double) inferenceNanos / inferenceCount;
+	}
+
+	public long getMaxInferenceNanos() {
+		return maxInferenceNanos;
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		extractor.onEmgData(myo, timestamp, emg);
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		if (imu) {
+			double[] values = device(myo).imu;
+			values[0] = accel.getX();
+			values[1] = accel.getY();
+			values[2] = accel.getZ();
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		if (imu) {
+			double[] values = device(myo).imu;
+			values[3] = gyro.getX();
+			values[4] = gyro.getY();
+			values[5] = gyro.getZ();
+		}
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		extractor.onPair(myo, timestamp, firmwareVersion);
+		device(myo).reset();
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		extractor.onDisconnect(myo, timestamp);
+		device(myo).reset();
+	}
+
+	@Override
+	public void onEmgFeatures(Myo myo, long timestamp, double[] emgFeatures) {
+		DeviceState device = device(myo);
+		System.arraycopy(emgFeatures, 0, features, 0, EMG_FEATURES);
+		if (imu) {
+			System.arraycopy(device.imu, 0, features, EMG_FEATURES, IMU_FEATURES);
+		}
+
+		int label = trainingLabel;
+		if (label >= 0) {
+			trainingSet.add(features, label);
+			return;
+		}
+		GestureModel model = this.model;
+		if (model == null) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		int index = model.getClassifier().classify(features);
+		long elapsed = System.nanoTime() - start;
+		inferenceCount++;
+		inferenceNanos += elapsed;
+		if (elapsed > maxInferenceNanos) {
+			maxInferenceNanos = elapsed;
+		}
+
+		if (index == device.candidate) {
+			device.streak++;
+		} else {
+			device.candidate = index;
+			device.streak = 1;
+		}
+		if (device.streak < stability || index == device.current) {
+			return;
+		}
+		device.current = index;
+		Gesture gesture = model.getGestures().get(index);
+		for (GestureListener listener : listeners) {
+			listener.onGesture(myo, timestamp, gesture);
+		}
+		if (gesture.getPose() != null) {
+			for (DeviceListener listener : poseListeners) {
+				listener.onPose(myo, timestamp, gesture.getPose());
+			}
+		}
+	}
+
+	private DeviceState device(Myo myo) {
+		DeviceState device = devices.get(myo);
+		if (device == null) {
+			device = new DeviceState();
+			devices.put(myo, device);
+		}
+		return device;
+	}
+
+	private static final class DeviceState {
+		private final double[] imu = new double[IMU_FEATURES];
+		private int candidate = -1;
+		private int streak;
+		private int current = -1;
+
+		private void reset() {
+			candidate = -1;
+			streak = 0;
+			current = -1;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.thalmic.myo.gesture;
+
+import java.nio.ByteBuffer;
+
+// k nearest neighbours by euclidean distance over the standardised training samples. Classification is a scan of
+// every kept sample, so training keeps at most maxSamplesPerClass evenly spaced samples per class to bound it.
+// A distance stops accumulating as soon as it can no longer beat the current k-th nearest.
+public final class KnnClassifier extends Classifier {
+	public static final int DEFAULT_K = 5;
+	public static final int DEFAULT_MAX_SAMPLES_PER_CLASS = 200;
+
+	private final int k;
+	// samples[i * featureCount + f]
+	private final float[] samples;
+	private final int[] labels;
+	private final int sampleCount;
+	private final double[] nearestDistances;
+	private final int[] nearestLabels;
+	private final int[] votes;
+
+	private KnnClassifier(int featureCount, int classCount, float[] mean, float[] scale, int k, float[] samples, int[] labels) {
+		super(featureCount, classCount, mean, scale);
+		this.k = k;
+		this.samples = samples;
+		this.labels = labels;
+		this.sampleCount = labels.length;
+		this.nearestDistances = new double[k];
+		this.nearestLabels = new int[k];
+		this.votes = new int[classCount];
+	}
+
+	public static KnnClassifier train(TrainingSet set) {
+		return train(set, DEFAULT_K, DEFAULT_MAX_SAMPLES_PER_CLASS);
+	}
+
+	public static KnnClassifier train(TrainingSet set, int k, int maxSamplesPerClass) {
+		if (k < 1 || maxSamplesPerClass < 1) {
+			throw new IllegalArgumentException("k and the samples per class must be at least 1, were " + k + " and " + maxSamplesPerClass);
+		}
+		checkTrainable(set);
+		int n = set.size();
+		int features = set.getFeatureCount();
+		int classes = set.getLabels().size();
+		float[] mean = mean(set);
+		float[] scale = scale(set, mean);
+		double[] standardized = standardize(set, mean, scale);
+
+		int[] counts = new int[classes];
+		int kept = 0;
+		for (int c = 0; c < classes; c++) {
+			counts[c] = set.count(c);
+			kept += Math.min(counts[c], maxSamplesPerClass);
+		}
+		float[] samples = new float[kept * features];
+		int[] labels = new int[kept];
+		int[] seen = new int[classes];
+		int[] taken = new int[classes];
+		int next = 0;
+		for (int i = 0; i < n; i++) {
+			int label = set.getLabel(i);
+			int limit = Math.min(counts[label], maxSamplesPerClass);
+			// Take the sample when it crosses the next evenly spaced position of its class
+			long position = (long) taken[label] * counts[label] / limit;
+			if (taken[label] < limit && seen[label] == position) {
+				for (int f = 0; f < features; f++) {
+					samples[next * features + f] = (float) standardized[i * features + f];
+				}
+				labels[next++] = label;
+				taken[label]++;
+			}
+			seen[label]++;
+		}
+		return new KnnClassifier(features, classes, mean, scale, Math.min(k, kept), samples, labels);
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	@Override
+	int classifyStandardized(double[] features) {
+		int found = 0;
+		for (int i = 0; i < sampleCount; i++) {
+			double worst = found < k ? Double.POSITIVE_INFINITY : nearestDistances[k - 1];
+			int row = i * featureCount;
+			double distance = 0;
+			for (int f = 0; f < featureCount && distance < worst; f++) {
+				double d = features[f] - samples[row + f];
+				distance += d * d;
+			}
+			if (distance >= worst) {
+				continue;
+			}
+			// Insertion into the sorted nearest list
+			int slot = found < k ? found++ : k - 1;
+			while (slot > 0 && nearestDistances[slot - 1] > distance) {
+				nearestDistances[slot] = nearestDistances[slot - 1];
+				nearestLabels[slot] = nearestLabels[slot - 1];
+				slot--;
+			}
+			nearestDistances[slot] = distance;
+			nearestLabels[slot] = labels[i];
+		}
+
+		// Majority vote, ties go to the class that reached the count with nearer neighbours
+		int best = nearestLabels[0];
+		int bestVotes = 0;
+		for (int i = 0; i < found; i++) {
+			int count = ++votes[nearestLabels[i]];
+			if (count > bestVotes) {
+				bestVotes = count;
+				best = nearestLabels[i];
+			}
+		}
+		for (int i = 0; i < found; i++) {
+			votes[nearestLabels[i]] = 0;
+		}
+		return best;
+	}
+
+	@Override
+	int getType() {
+		return KNN;
+	}
+
+	@Override
+	int getParametersSize() {
+		return 8 + 4 * samples.length + 2 * labels.length;
+	}
+
+	@Override
+	void writeParameters(ByteBuffer out) {
+		out.putInt(k);
+		out.putInt(sampleCount);
+		writeFloats(out, samples);
+		for (int label : labels) {
+			out.putShort((short) label);
+		}
+	}
+
+	static KnnClassifier read(ByteBuffer in, int featureCount, int classCount, float[] mean, float[] scale) {
+		int k = in.getInt();
+		int sampleCount = in.getInt();
+		float[] samples = readFloats(in, sampleCount * featureCount);
+		int[] labels = new int[sampleCount];
+		for (int i = 0; i < sampleCount; i++) {
+			labels[i] = in.getShort();
+		}
+		return new KnnClassifier(featureCount, classCount, mean, scale, k, samples, labels);
+	}
+}
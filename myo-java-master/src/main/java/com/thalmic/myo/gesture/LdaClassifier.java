@@ -0,0 +1,171 @@
+package com.thalmic.myo.gesture;
+
+import java.nio.ByteBuffer;
+
+// Linear discriminant analysis with a pooled, shrunk covariance. Classification is one dot product per class,
+// so its cost only depends on the feature and class counts, not on the amount of training data.
+public final class LdaClassifier extends Classifier {
+	public static final double DEFAULT_SHRINKAGE = 0.05;
+
+	// weights[c * featureCount + f]
+	private final float[] weights;
+	private final float[] biases;
+
+	private LdaClassifier(int featureCount, int classCount, float[] mean, float[] scale, float[] weights, float[] biases) {
+		super(featureCount, classCount, mean, scale);
+		this.weights = weights;
+		this.biases = biases;
+	}
+
+	public static LdaClassifier train(TrainingSet set) {
+		return train(set, DEFAULT_SHRINKAGE);
+	}
+
+	// Shrinkage in [0, 1] blends the covariance towards the identity, which keeps it invertible when features
+	// are correlated or constant
+	public static LdaClassifier train(TrainingSet set, double shrinkage) {
+		checkTrainable(set);
+		int n = set.size();
+		int features = set.getFeatureCount();
+		int classes = set.getLabels().size();
+		float[] mean = mean(set);
+		float[] scale = scale(set, mean);
+		double[] samples = standardize(set, mean, scale);
+
+		double[] classMeans = new double[classes * features];
+		int[] counts = new int[classes];
+		for (int i = 0; i < n; i++) {
+			int label = set.getLabel(i);
+			counts[label]++;
+			for (int f = 0; f < features; f++) {
+				classMeans[label * features + f] += samples[i * features + f];
+			}
+		}
+		for (int c = 0; c < classes; c++) {
+			for (int f = 0; f < features; f++) {
+				classMeans[c * features + f] /= counts[c];
+			}
+		}
+
+		double[] covariance = new double[features * features];
+		double[] centered = new double[features];
+		for (int i = 0; i < n; i++) {
+			int label = set.getLabel(i);
+			for (int f = 0; f < features; f++) {
+				centered[f] = samples[i * features + f] - classMeans[label * features + f];
+			}
+			for (int r = 0; r < features; r++) {
+				for (int c = 0; c <= r; c++) {
+					covariance[r * features + c] += centered[r] * centered[c];
+				}
+			}
+		}
+		int degrees = Math.max(1, n - classes);
+		for (int r = 0; r < features; r++) {
+			for (int c = 0; c <= r; c++) {
+				double value = (1 - shrinkage) * covariance[r * features + c] / degrees;
+				if (r == c) {
+					value += shrinkage;
+				}
+				covariance[r * features + c] = value;
+				covariance[c * features + r] = value;
+			}
+		}
+		cholesky(covariance, features);
+
+		float[] weights = new float[classes * features];
+		float[] biases = new float[classes];
+		double[] w = new double[features];
+		for (int c = 0; c < classes; c++) {
+			System.arraycopy(classMeans, c * features, w, 0, features);
+			solve(covariance, features, w);
+			double bias = Math.log((double) counts[c] / n);
+			for (int f = 0; f < features; f++) {
+				weights[c * features + f] = (float) w[f];
+				bias -= 0.5 * w[f] * classMeans[c * features + f];
+			}
+			biases[c] = (float) bias;
+		}
+		return new LdaClassifier(features, classes, mean, scale, weights, biases);
+	}
+
+	@Override
+	int classifyStandardized(double[] features) {
+		int best = 0;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int c = 0; c < classCount; c++) {
+			double score = biases[c];
+			int row = c * featureCount;
+			for (int f = 0; f < featureCount; f++) {
+				score += weights[row + f] * features[f];
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				best = c;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	int getType() {
+		return LDA;
+	}
+
+	@Override
+	int getParametersSize() {
+		return 4 * (weights.length + biases.length);
+	}
+
+	@Override
+	void writeParameters(ByteBuffer out) {
+		writeFloats(out, weights);
+		writeFloats(out, biases);
+	}
+
+	static LdaClassifier read(ByteBuffer in, int featureCount, int classCount, float[] mean, float[] scale) {
+		float[] weights = readFloats(in, classCount * featureCount);
+		float[] biases = readFloats(in, classCount);
+		return new LdaClassifier(featureCount, classCount, mean, scale, weights, biases);
+	}
+
+	// In place lower triangular factor of a symmetric positive definite matrix
+	private static void cholesky(double[] a, int size) {
+		for (int j = 0; j < size; j++) {
+			double diagonal = a[j * size + j];
+			for (int k = 0; k < j; k++) {
+				diagonal -= a[j * size + k] * a[j * size + k];
+			}
+			if (diagonal <= 0) {
+				throw new IllegalArgumentException("Covariance is not positive definite, increase the shrinkage");
+			}
+			diagonal = Math.sqrt(diagonal);
+			a[j * size + j] = diagonal;
+			for (int i = j + 1; i < size; i++) {
+				double value = a[i * size + j];
+				for (int k = 0; k < j; k++) {
+					value -= a[i * size + k] * a[j * size + k];
+				}
+				a[i * size + j] = value / diagonal;
+			}
+		}
+	}
+
+	// Solves L L^T x = b in place, given the factor from cholesky
+	private static void solve(double[] l, int size, double[] b) {
+		for (int i = 0; i < size; i++) {
+			double value = b[i];
+			for (int k = 0; k < i; k++) {
+				value -= l[i * size + k] * b[k];
+			}
+			b[i] = value / l[i * size + i];
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			double value = b[i];
+			for (int k = i + 1; k < size; k++) {
+				value -= l[k * size + i] * b[k];
+			}
+			b[i] = value / l[i * size + i];
+		}
+	}
+}
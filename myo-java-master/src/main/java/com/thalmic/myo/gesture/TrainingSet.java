@@ -0,0 +1,82 @@
+package com.thalmic.myo.gesture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Labelled feature vectors, stored row-major in one growable array.
+public final class TrainingSet {
+	private final int featureCount;
+	private final List<String> labels = new ArrayList<>();
+	private double[] samples;
+	private int[] sampleLabels;
+	private int size;
+
+	public TrainingSet(int featureCount) {
+		this.featureCount = featureCount;
+		this.samples = new double[featureCount * 256];
+		this.sampleLabels = new int[256];
+	}
+
+	public int getFeatureCount() {
+		return featureCount;
+	}
+
+	public List<String> getLabels() {
+		return Collections.unmodifiableList(labels);
+	}
+
+	// Index of a label, adding it if it is new
+	public int label(String name) {
+		int index = labels.indexOf(name);
+		if (index < 0) {
+			index = labels.size();
+			labels.add(name);
+		}
+		return index;
+	}
+
+	public void add(double[] features, String label) {
+		add(features, label(label));
+	}
+
+	public void add(double[] features, int label) {
+		if (label < 0 || label >= labels.size()) {
+			throw new IllegalArgumentException("Unknown label " + label);
+		}
+		if (size == sampleLabels.length) {
+			samples = Arrays.copyOf(samples, samples.length * 2);
+			sampleLabels = Arrays.copyOf(sampleLabels, sampleLabels.length * 2);
+		}
+		System.arraycopy(features, 0, samples, size * featureCount, featureCount);
+		sampleLabels[size++] = label;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getLabel(int sample) {
+		return sampleLabels[sample];
+	}
+
+	public double[] getFeatures(int sample, double[] dest) {
+		System.arraycopy(samples, sample * featureCount, dest, 0, featureCount);
+		return dest;
+	}
+
+	public int count(int label) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (sampleLabels[i] == label) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	double get(int sample, int feature) {
+		return samples[sample * featureCount + feature];
+	}
+}
@@ -0,0 +1,128 @@
+package com.thalmic.myo.imu;
+
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.enums.EventType;
+
+// IMU samples of one armband, one row per timestamp, stored column by column. Row i holds the orientation,
+// accelerometer and gyroscope samples that arrived with timestamps[i]; parts[i] is the EventMask of those that
+// did, the columns of missing ones are left at zero. The frame is reused for the next one, so copy anything that
+// has to outlive the callback.
+public final class ImuFrame {
+	public static final int ORIENTATION = EventMask.bit(EventType.ORIENTATION);
+	public static final int ACCELEROMETER = EventMask.bit(EventType.ACCELEROMETER);
+	public static final int GYROSCOPE = EventMask.bit(EventType.GYROSCOPE);
+	public static final int ALL = ORIENTATION | ACCELEROMETER | GYROSCOPE;
+
+	private final Myo myo;
+	private final long[] timestamps;
+	private final int[] parts;
+	// x, y, z, w
+	private final double[][] orientation;
+	// x, y, z
+	private final double[][] accelerometer;
+	private final double[][] gyroscope;
+	private int size;
+
+	public ImuFrame(Myo myo, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Frame capacity must be at least 1, was " + capacity);
+		}
+		this.myo = myo;
+		this.timestamps = new long[capacity];
+		this.parts = new int[capacity];
+		this.orientation = new double[4][capacity];
+		this.accelerometer = new double[3][capacity];
+		this.gyroscope = new double[3][capacity];
+	}
+
+	public Myo getMyo() {
+		return myo;
+	}
+
+	public int getCapacity() {
+		return timestamps.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isFull() {
+		return size == timestamps.length;
+	}
+
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	public int[] getParts() {
+		return parts;
+	}
+
+	public double[][] getOrientation() {
+		return orientation;
+	}
+
+	public double[][] getAccelerometer() {
+		return accelerometer;
+	}
+
+	public double[][] getGyroscope() {
+		return gyroscope;
+	}
+
+	public boolean has(int row, int part) {
+		return (parts[row] & part) != 0;
+	}
+
+	// The row a sample of the part belongs in: the last one if it has the same timestamp and lacks the part,
+	// otherwise a new row, which the caller makes room for
+	int rowFor(long timestamp, int part) {
+		if (!startsRow(timestamp, part)) {
+			return size - 1;
+		}
+		timestamps[size] = timestamp;
+		parts[size] = 0;
+		for (double[] column : orientation) {
+			column[size] = 0;
+		}
+		for (int c = 0; c < 3; c++) {
+			accelerometer[c][size] = 0;
+			gyroscope[c][size] = 0;
+		}
+		return size++;
+	}
+
+	// True if the sample at the timestamp would open a new row rather than fill in the last one
+	boolean startsRow(long timestamp, int part) {
+		int last = size - 1;
+		return last < 0 || timestamps[last] != timestamp || (parts[last] & part) != 0;
+	}
+
+	void setOrientation(int row, double x, double y, double z, double w) {
+		orientation[0][row] = x;
+		orientation[1][row] = y;
+		orientation[2][row] = z;
+		orientation[3][row] = w;
+		parts[row] |= ORIENTATION;
+	}
+
+	void setAccelerometer(int row, double x, double y, double z) {
+		accelerometer[0][row] = x;
+		accelerometer[1][row] = y;
+		accelerometer[2][row] = z;
+		parts[row] |= ACCELEROMETER;
+	}
+
+	void setGyroscope(int row, double x, double y, double z) {
+		gyroscope[0][row] = x;
+		gyroscope[1][row] = y;
+		gyroscope[2][row] = z;
+		parts[row] |= GYROSCOPE;
+	}
+
+	void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,138 @@
+package com.thalmic.myo.imu;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.EventType;
+
+// Merges orientation, accelerometer and gyroscope samples that share a timestamp into one row of a per-device
+// ImuFrame, and hands the frame to ImuFrameListeners once frameSize rows are in, or once the oldest row is
+// maxLatency microseconds old. A row stays open for the other parts of its sample, so a frame is delivered when
+// the next sample would start a row past either limit; flush() delivers what is left when the stream stops.
+// Nothing is allocated per sample on the raw path.
+public class ImuFrameAssembler extends AbstractDeviceListener implements RawImuListener, EventSubscriber {
+	private final int frameSize;
+	private final long maxLatency;
+	private final Map<Myo, ImuFrame> frames = new HashMap<>();
+	private final List<ImuFrameListener> listeners = new CopyOnWriteArrayList<>();
+
+	public ImuFrameAssembler(int frameSize, long maxLatency) {
+		if (frameSize < 1) {
+			throw new IllegalArgumentException("Frame size must be at least 1, was " + frameSize);
+		}
+		this.frameSize = frameSize;
+		this.maxLatency = maxLatency;
+	}
+
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	public void addListener(ImuFrameListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(ImuFrameListener listener) {
+		listeners.remove(listener);
+	}
+
+	// The IMU, plus disconnect and unpair to flush on
+	@Override
+	public int getEventMask() {
+		return EventMask.ORIENTATION | EventMask.IMU | EventMask.of(EventType.DISCONNECT, EventType.UNPAIR);
+	}
+
+	// The device's frame, delivered and cleared first if the sample would start a row past the limits
+	private ImuFrame frame(Myo myo, long timestamp, int part) {
+		ImuFrame frame = frames.get(myo);
+		if (frame == null) {
+			frame = new ImuFrame(myo, frameSize);
+			frames.put(myo, frame);
+		}
+		if (frame.size() > 0 && frame.startsRow(timestamp, part) && (frame.isFull() || timestamp - frame.getTimestamps()[0] >= maxLatency)) {
+			flush(frame);
+		}
+		return frame;
+	}
+
+	@Override
+	public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+		ImuFrame frame = frame(myo, timestamp, ImuFrame.ORIENTATION);
+		frame.setOrientation(frame.rowFor(timestamp, ImuFrame.ORIENTATION), x, y, z, w);
+	}
+
+	@Override
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+		ImuFrame frame = frame(myo, timestamp, ImuFrame.ACCELEROMETER);
+		frame.setAccelerometer(frame.rowFor(timestamp, ImuFrame.ACCELEROMETER), x, y, z);
+	}
+
+	@Override
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+		ImuFrame frame = frame(myo, timestamp, ImuFrame.GYROSCOPE);
+		frame.setGyroscope(frame.rowFor(timestamp, ImuFrame.GYROSCOPE), x, y, z);
+	}
+
+	// The native Hub only makes the object callbacks
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		onAccelerometer(myo, timestamp, accel.getX(), accel.getY(), accel.getZ());
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		onGyroscope(myo, timestamp, gyro.getX(), gyro.getY(), gyro.getZ());
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		flush(myo);
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		flush(myo);
+	}
+
+	// Delivers whatever is buffered for the device, e.g. when its stream stops
+	public void flush(Myo myo) {
+		ImuFrame frame = frames.get(myo);
+		if (frame != null) {
+			flush(frame);
+		}
+	}
+
+	public void flush() {
+		for (ImuFrame frame : frames.values()) {
+			flush(frame);
+		}
+	}
+
+	private void flush(ImuFrame frame) {
+		if (frame.size() == 0) {
+			return;
+		}
+		for (ImuFrameListener listener : listeners) {
+			listener.onImuFrame(frame);
+		}
+		frame.clear();
+	}
+}
@@ -0,0 +1,7 @@
+package com.thalmic.myo.imu;
+
+// Receives IMU samples in frames of rows merged by timestamp. The frame is reused for the next one, so copy
+// anything that has to outlive the call.
+public interface ImuFrameListener {
+	public void onImuFrame(ImuFrame frame);
+}
@@ -0,0 +1,228 @@
+package com.thalmic.myo.imu;
+
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.MutableQuaternion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.EventType;
+
+// Extrapolates the orientation of one armband a horizon ahead, so a controller acting on it makes up for the age
+// of the sample and the time its command takes to reach the motor. The latest orientation is rotated by the
+// angular velocity over the horizon plus the time since that sample, taking the gyroscope rates, which are body
+// rates in the sensor frame, as the angular velocity. Rates are also derived from consecutive orientations, and
+// are used on their own when no gyroscope samples arrive. Smoothing combines the two:
+// COMPLEMENTARY takes the gyroscope for fast changes and the orientation history for slow ones, which removes
+// gyroscope bias; KALMAN fuses both per axis as measurements of a constant rate. Nothing is allocated per sample.
+// Not thread safe, feed and read it from one thread.
+public class OrientationPredictor extends AbstractDeviceListener implements RawImuListener, EventSubscriber {
+	public enum Smoothing { NONE, COMPLEMENTARY, KALMAN }
+
+	private static final double MICROS_PER_SECOND = 1e6;
+
+	private final Smoothing smoothing;
+	private long horizon;
+	private double biasTimeConstant = 2.0;
+	private double processNoise = 50.0;
+	private double gyroscopeNoise = 0.01;
+	private double historyNoise = 0.5;
+
+	private final MutableQuaternion orientation = new MutableQuaternion();
+	private final MutableQuaternion previous = new MutableQuaternion();
+	private final MutableQuaternion step = new MutableQuaternion();
+	private final MutableQuaternion predicted = new MutableQuaternion();
+	private long orientationTimestamp = -1;
+	private long gyroscopeTimestamp = -1;
+	private long kalmanTimestamp = -1;
+	// Latest gyroscope sample and the estimated angular velocity, in radians per second
+	private final double[] gyroscope = new double[3];
+	private final double[] rate = new double[3];
+	// Complementary: gyroscope bias; Kalman: variance of the rate estimate
+	private final double[] bias = new double[3];
+	private final double[] variance = { 1, 1, 1 };
+	private final double[] history = new double[3];
+
+	public OrientationPredictor(Smoothing smoothing, long horizon, TimeUnit unit) {
+		this.smoothing = smoothing;
+		setHorizon(horizon, unit);
+	}
+
+	public Smoothing getSmoothing() {
+		return smoothing;
+	}
+
+	public long getHorizon(TimeUnit unit) {
+		return unit.convert(horizon, TimeUnit.MICROSECONDS);
+	}
+
+	// How far past the newest sample to predict, e.g. a measured sample-to-motor latency
+	public void setHorizon(long horizon, TimeUnit unit) {
+		if (horizon < 0) {
+			throw new IllegalArgumentException("Horizon must not be negative, was " + horizon);
+		}
+		this.horizon = unit.toMicros(horizon);
+	}
+
+	// Seconds over which the orientation history corrects the gyroscope, for COMPLEMENTARY
+	public void setBiasTimeConstant(double seconds) {
+		if (seconds <= 0) {
+			throw new IllegalArgumentException("Time constant must be positive, was " + seconds);
+		}
+		this.biasTimeConstant = seconds;
+	}
+
+	// For KALMAN: how fast the rate wanders, in (rad/s)^2 per second, and the variances of the gyroscope and the
+	// history rates in (rad/s)^2
+	public void setKalmanNoise(double processNoise, double gyroscopeNoise, double historyNoise) {
+		if (processNoise <= 0 || gyroscopeNoise <= 0 || historyNoise <= 0) {
+			throw new IllegalArgumentException("Noise variances must be positive, were " + processNoise + ", " + gyroscopeNoise + ", " + historyNoise);
+		}
+		this.processNoise = processNoise;
+		this.gyroscopeNoise = gyroscopeNoise;
+		this.historyNoise = historyNoise;
+	}
+
+	@Override
+	public int getEventMask() {
+		return EventMask.ORIENTATION | EventMask.of(EventType.GYROSCOPE);
+	}
+
+	public boolean hasPrediction() {
+		return orientationTimestamp >= 0;
+	}
+
+	// The predicted orientation, normalised. Owned by the predictor and overwritten by the next sample.
+	public MutableQuaternion getPredicted() {
+		return predicted;
+	}
+
+	public double getRoll() {
+		return predicted.roll();
+	}
+
+	public double getPitch() {
+		return predicted.pitch();
+	}
+
+	public double getYaw() {
+		return predicted.yaw();
+	}
+
+	// Estimated angular velocity in the sensor frame, in radians per second
+	public double getRate(int axis) {
+		return rate[axis];
+	}
+
+	@Override
+	public void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+		long interval = timestamp - orientationTimestamp;
+		boolean hasHistory = orientationTimestamp >= 0 && interval > 0;
+		previous.set(orientation);
+		orientation.set(x, y, z, w).normalize();
+		orientationTimestamp = timestamp;
+		if (hasHistory) {
+			historyRate(interval / MICROS_PER_SECOND);
+			if (gyroscopeTimestamp < 0) {
+				System.arraycopy(history, 0, rate, 0, 3);
+			} else if (smoothing == Smoothing.COMPLEMENTARY) {
+				double gain = interval / MICROS_PER_SECOND / (biasTimeConstant + interval / MICROS_PER_SECOND);
+				for (int i = 0; i < 3; i++) {
+					bias[i] += gain * (gyroscope[i] - history[i] - bias[i]);
+					rate[i] = gyroscope[i] - bias[i];
+				}
+			} else if (smoothing == Smoothing.KALMAN) {
+				kalman(timestamp, history, historyNoise);
+			}
+		}
+		predict();
+	}
+
+	@Override
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+		gyroscope[0] = Math.toRadians(x);
+		gyroscope[1] = Math.toRadians(y);
+		gyroscope[2] = Math.toRadians(z);
+		gyroscopeTimestamp = timestamp;
+		switch (smoothing) {
+		case KALMAN:
+			kalman(timestamp, gyroscope, gyroscopeNoise);
+			break;
+		case COMPLEMENTARY:
+			for (int i = 0; i < 3; i++) {
+				rate[i] = gyroscope[i] - bias[i];
+			}
+			break;
+		default:
+			System.arraycopy(gyroscope, 0, rate, 0, 3);
+			break;
+		}
+		if (orientationTimestamp >= 0) {
+			predict();
+		}
+	}
+
+	@Override
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+	}
+
+	// The native Hub only makes the object callbacks
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		onGyroscope(myo, timestamp, gyro.getX(), gyro.getY(), gyro.getZ());
+	}
+
+	// Body rates that take the previous orientation to the current one over the interval
+	private void historyRate(double seconds) {
+		previous.conjugate(step).multiply(orientation, step);
+		// The shorter way round
+		double sign = step.getW() < 0 ? -1 : 1;
+		double sinHalf = Math.sqrt(step.getX() * step.getX() + step.getY() * step.getY() + step.getZ() * step.getZ());
+		double angle = 2 * Math.atan2(sinHalf, sign * step.getW());
+		double scale = sinHalf < 1e-12 ? 2 / seconds : angle / sinHalf / seconds;
+		history[0] = sign * step.getX() * scale;
+		history[1] = sign * step.getY() * scale;
+		history[2] = sign * step.getZ() * scale;
+	}
+
+	// One measurement update per axis of a constant rate model, after growing the variance for the elapsed time
+	private void kalman(long timestamp, double[] measurement, double measurementNoise) {
+		double elapsed = kalmanTimestamp < 0 ? 0 : Math.max(0, timestamp - kalmanTimestamp) / MICROS_PER_SECOND;
+		kalmanTimestamp = timestamp;
+		for (int i = 0; i < 3; i++) {
+			variance[i] += processNoise * elapsed;
+			double gain = variance[i] / (variance[i] + measurementNoise);
+			rate[i] += gain * (measurement[i] - rate[i]);
+			variance[i] *= 1 - gain;
+		}
+	}
+
+	// Rotates the latest orientation by the rates over the lead time, in the sensor frame
+	private void predict() {
+		long newest = Math.max(orientationTimestamp, gyroscopeTimestamp);
+		double lead = (newest - orientationTimestamp + horizon) / MICROS_PER_SECOND;
+		double speed = Math.sqrt(rate[0] * rate[0] + rate[1] * rate[1] + rate[2] * rate[2]);
+		double angle = speed * lead;
+		if (angle < 1e-12) {
+			predicted.set(orientation);
+			return;
+		}
+		double sinHalf = Math.sin(angle / 2) / speed;
+		step.set(rate[0] * sinHalf, rate[1] * sinHalf, rate[2] * sinHalf, Math.cos(angle / 2));
+		orientation.multiply(step, predicted).normalize();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s, horizon %.1f ms, rates %.3f %.3f %.3f rad/s", smoothing, horizon / 1000.0, rate[0], rate[1], rate[2]);
+	}
+}
@@ -0,0 +1,158 @@
+package com.thalmic.myo.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+// Log-linear histogram of non-negative long values, typically latencies in nanoseconds. Every power of two is
+// split into 2^precisionBits linear buckets, so a reported value is within 1 / 2^precisionBits of the recorded
+// one across the whole long range, with no configured maximum. Recording is allocation free. Methods are
+// synchronized so one thread can record while another reports.
+public class Histogram {
+	public static final int DEFAULT_PRECISION_BITS = 7;
+
+	private final int precisionBits;
+	private final int subBuckets;
+	private final long[] counts;
+	private long count;
+	private long sum;
+	private long min = Long.MAX_VALUE;
+	private long max;
+
+	public Histogram() {
+		this(DEFAULT_PRECISION_BITS);
+	}
+
+	public Histogram(int precisionBits) {
+		if (precisionBits < 1 || precisionBits > 16) {
+			throw new IllegalArgumentException("Precision must be between 1 and 16 bits, was " + precisionBits);
+		}
+		this.precisionBits = precisionBits;
+		this.subBuckets = 1 << precisionBits;
+		this.counts = new long[(64 - precisionBits) * subBuckets];
+	}
+
+	// Negative values are recorded as 0
+	public synchronized void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts[index(value)]++;
+		count++;
+		sum += value;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public synchronized long getMax() {
+		return max;
+	}
+
+	public synchronized double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	// Highest value equivalent to the bucket holding the percentile, 0 when empty
+	public synchronized long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(highestEquivalent(i), max);
+			}
+		}
+		return max;
+	}
+
+	public synchronized void reset() {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
+		}
+		count = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	// Adds the other histogram's values to this one, both must have the same precision
+	public void add(Histogram other) {
+		if (other.precisionBits != precisionBits) {
+			throw new IllegalArgumentException("Precision differs, " + other.precisionBits + " and " + precisionBits + " bits");
+		}
+		synchronized (other) {
+			synchronized (this) {
+				for (int i = 0; i < counts.length; i++) {
+					counts[i] += other.counts[i];
+				}
+				count += other.count;
+				sum += other.sum;
+				min = Math.min(min, other.min);
+				max = Math.max(max, other.max);
+			}
+		}
+	}
+
+	// Copies this histogram into dest, which must have the same precision
+	public void copyInto(Histogram dest) {
+		dest.reset();
+		dest.add(this);
+	}
+
+	private int index(long value) {
+		if (value < subBuckets) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+		return (shift << precisionBits) + (int) (value >>> shift);
+	}
+
+	private long highestEquivalent(int index) {
+		if (index < subBuckets) {
+			return index;
+		}
+		int shift = (index >>> precisionBits) - 1;
+		long subBucket = (index & (subBuckets - 1)) + subBuckets;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	// Summary of nanosecond values in the given unit
+	public synchronized String toString(TimeUnit unit) {
+		double scale = unit.toNanos(1);
+		String suffix = unitSuffix(unit);
+		return String.format("count=%d p50=%.2f%s p99=%.2f%s p99.9=%.2f%s max=%.2f%s", count, getValueAtPercentile(50) / scale, suffix, getValueAtPercentile(99) / scale, suffix, getValueAtPercentile(99.9) / scale, suffix, getMax() / scale, suffix);
+	}
+
+	private static String unitSuffix(TimeUnit unit) {
+		switch (unit) {
+		case NANOSECONDS:
+			return "ns";
+		case MICROSECONDS:
+			return "us";
+		case MILLISECONDS:
+			return "ms";
+		case SECONDS:
+			return "s";
+		default:
+			return " " + unit.name().toLowerCase();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("count=%d p50=%d p99=%d p99.9=%d max=%d", count, getValueAtPercentile(50), getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+	}
+}
@@ -0,0 +1,36 @@
+package com.thalmic.myo.metrics;
+
+import java.util.Map;
+
+// Event flow through an InstrumentedEventSource. Counts are keyed by EventType name or by Myo label, myo-0 being
+// the first armband seen. Times are in nanoseconds.
+public interface HubMetricsMXBean {
+	public long getEventCount();
+
+	public Map<String, Long> getEventCounts();
+
+	// Events per second by type since the previous call, recomputed at most once a second
+	public Map<String, Double> getEventRates();
+
+	public Map<String, Long> getEventCountsByMyo();
+
+	public long getEmgSamplesReceived();
+
+	// Samples the armbands should have sent at their 200 Hz EMG rate while streaming
+	public long getEmgSamplesExpected();
+
+	public long getPumpCount();
+
+	public double getPumpMeanNanos();
+
+	public long getPumpP99Nanos();
+
+	public long getPumpMaxNanos();
+
+	// Longest single listener callback and the listener that made it
+	public long getLongestStallNanos();
+
+	public String getLongestStallListener();
+
+	public void reset();
+}
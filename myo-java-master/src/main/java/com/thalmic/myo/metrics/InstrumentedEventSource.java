@@ -0,0 +1,427 @@
+package com.thalmic.myo.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventSource;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Wraps an EventSource such as the Hub and measures the events flowing through it: counts per event type and per
+// Myo, EMG samples received against expected, run and runOnce durations, and the time each listener added
+// through it spends in its callbacks. registerMBeans publishes all of it over JMX under com.thalmic.myo.
+// Counting happens in a listener registered ahead of the others and recording uses striped counters.
+public class InstrumentedEventSource implements EventSource, HubMetricsMXBean {
+	private static final EventType[] EVENT_TYPES = EventType.values();
+	private static final long EMG_RATE = 200;
+	private static final long MICROS_PER_SECOND = 1000000L;
+	private static final long RATE_INTERVAL = 1000000000L;
+
+	private final EventSource source;
+	private final String name;
+	private final StripedCounter[] eventCounts = new StripedCounter[EVENT_TYPES.length];
+	private final ConcurrentMap<Myo, DeviceCounters> devices = new ConcurrentHashMap<>();
+	private final AtomicInteger deviceLabels = new AtomicInteger();
+	// Never reused, so a listener added after another was removed does not take its MBean name
+	private final AtomicInteger listenerLabels = new AtomicInteger();
+	private final Map<DeviceListener, TimedListener> listeners = new IdentityHashMap<>();
+	private final List<ObjectName> registered = new ArrayList<>();
+	private final Histogram pumpDurations = new Histogram();
+	private final AtomicLong longestStall = new AtomicLong();
+	private volatile String longestStallListener = "";
+	private final long[] rateCounts = new long[EVENT_TYPES.length];
+	private final Map<String, Double> rates = new LinkedHashMap<>();
+	private long rateTime;
+	private MBeanServer server;
+
+	public InstrumentedEventSource(EventSource source, String name) {
+		this.source = source;
+		this.name = name;
+		for (int i = 0; i < eventCounts.length; i++) {
+			eventCounts[i] = new StripedCounter();
+		}
+		source.addListener(new EventCounter());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	// Registers the hub bean and one bean per listener, including listeners added later
+	public synchronized void registerMBeans() throws JMException {
+		server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName hubName = new ObjectName("com.thalmic.myo:type=Hub,name=" + ObjectName.quote(name));
+		server.registerMBean(this, hubName);
+		registered.add(hubName);
+		for (TimedListener listener : listeners.values()) {
+			register(listener);
+		}
+	}
+
+	public synchronized void unregisterMBeans() throws JMException {
+		if (server == null) {
+			return;
+		}
+		for (ObjectName objectName : registered) {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		}
+		registered.clear();
+		server = null;
+	}
+
+	private void register(TimedListener listener) throws JMException {
+		ObjectName objectName = listenerName(listener);
+		server.registerMBean(listener, objectName);
+		registered.add(objectName);
+	}
+
+	private ObjectName listenerName(TimedListener listener) throws JMException {
+		return new ObjectName("com.thalmic.myo:type=Listener,hub=" + ObjectName.quote(name) + ",name=" + ObjectName.quote(listener.getListener()));
+	}
+
+	@Override
+	public Myo waitForMyo(int timeout) {
+		return source.waitForMyo(timeout);
+	}
+
+	@Override
+	public synchronized void addListener(DeviceListener listener) {
+		if (listeners.containsKey(listener)) {
+			return;
+		}
+		TimedListener timed = new TimedListener(listener, listener.getClass().getName() + "#" + listenerLabels.getAndIncrement(), this);
+		listeners.put(listener, timed);
+		source.addListener(timed);
+		if (server != null) {
+			try {
+				register(timed);
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Override
+	public synchronized void removeListener(DeviceListener listener) {
+		TimedListener timed = listeners.remove(listener);
+		if (timed == null) {
+			return;
+		}
+		source.removeListener(timed);
+		if (server != null) {
+			try {
+				ObjectName objectName = listenerName(timed);
+				registered.remove(objectName);
+				server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Override
+	public void run(int duration) {
+		long start = System.nanoTime();
+		try {
+			source.run(duration);
+		} finally {
+			pumpDurations.record(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public void runOnce(int duration) {
+		long start = System.nanoTime();
+		try {
+			source.runOnce(duration);
+		} finally {
+			pumpDurations.record(System.nanoTime() - start);
+		}
+	}
+
+	void stalled(long nanos, String listener) {
+		long current = longestStall.get();
+		while (nanos > current) {
+			if (longestStall.compareAndSet(current, nanos)) {
+				longestStallListener = listener;
+				return;
+			}
+			current = longestStall.get();
+		}
+	}
+
+	@Override
+	public long getEventCount() {
+		long total = 0;
+		for (StripedCounter counter : eventCounts) {
+			total += counter.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public Map<String, Long> getEventCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (EventType type : EVENT_TYPES) {
+			counts.put(type.name(), eventCounts[type.ordinal()].sum());
+		}
+		return counts;
+	}
+
+	@Override
+	public synchronized Map<String, Double> getEventRates() {
+		long now = System.nanoTime();
+		if (rateTime == 0 || now - rateTime >= RATE_INTERVAL) {
+			double seconds = (now - rateTime) / 1e9;
+			for (EventType type : EVENT_TYPES) {
+				long count = eventCounts[type.ordinal()].sum();
+				rates.put(type.name(), rateTime == 0 ? 0.0 : (count - rateCounts[type.ordinal()]) / seconds);
+				rateCounts[type.ordinal()] = count;
+			}
+			rateTime = now;
+		}
+		return new LinkedHashMap<>(rates);
+	}
+
+	@Override
+	public Map<String, Long> getEventCountsByMyo() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (DeviceCounters device : devices.values()) {
+			counts.put(device.label, device.events.sum());
+		}
+		return counts;
+	}
+
+	@Override
+	public long getEmgSamplesReceived() {
+		return eventCounts[EventType.EMG.ordinal()].sum();
+	}
+
+	@Override
+	public long getEmgSamplesExpected() {
+		long expected = 0;
+		for (DeviceCounters device : devices.values()) {
+			expected += device.expectedEmg();
+		}
+		return expected;
+	}
+
+	@Override
+	public long getPumpCount() {
+		return pumpDurations.getCount();
+	}
+
+	@Override
+	public double getPumpMeanNanos() {
+		return pumpDurations.getMean();
+	}
+
+	@Override
+	public long getPumpP99Nanos() {
+		return pumpDurations.getValueAtPercentile(99);
+	}
+
+	@Override
+	public long getPumpMaxNanos() {
+		return pumpDurations.getMax();
+	}
+
+	public Histogram getPumpDurations() {
+		return pumpDurations;
+	}
+
+	@Override
+	public long getLongestStallNanos() {
+		return longestStall.get();
+	}
+
+	@Override
+	public String getLongestStallListener() {
+		return longestStallListener;
+	}
+
+	public synchronized List<TimedListener> getListeners() {
+		return new ArrayList<>(listeners.values());
+	}
+
+	@Override
+	public synchronized void reset() {
+		for (StripedCounter counter : eventCounts) {
+			counter.reset();
+		}
+		for (DeviceCounters device : devices.values()) {
+			device.reset();
+		}
+		for (TimedListener listener : listeners.values()) {
+			listener.reset();
+		}
+		pumpDurations.reset();
+		longestStall.set(0);
+		longestStallListener = "";
+		rateTime = 0;
+	}
+
+	private DeviceCounters device(Myo myo) {
+		DeviceCounters device = devices.get(myo);
+		if (device == null) {
+			// Events for one Myo arrive on one thread, so labels are not wasted in practice
+			device = new DeviceCounters("myo-" + deviceLabels.getAndIncrement());
+			DeviceCounters existing = devices.putIfAbsent(myo, device);
+			if (existing != null) {
+				device = existing;
+			}
+		}
+		return device;
+	}
+
+	private static final class DeviceCounters {
+		private final String label;
+		private final StripedCounter events = new StripedCounter();
+		// EMG streaming span in device microseconds, closed on disconnect
+		private volatile long firstEmg = -1;
+		private volatile long lastEmg;
+		private volatile long closedExpected;
+
+		private DeviceCounters(String label) {
+			this.label = label;
+		}
+
+		private void emg(long timestamp) {
+			if (firstEmg < 0) {
+				firstEmg = timestamp;
+			}
+			lastEmg = timestamp;
+		}
+
+		private void disconnect() {
+			closedExpected = expectedEmg();
+			firstEmg = -1;
+		}
+
+		private long expectedEmg() {
+			long first = firstEmg;
+			long span = first < 0 ? 0 : (lastEmg - first) * EMG_RATE / MICROS_PER_SECOND + 1;
+			return closedExpected + span;
+		}
+
+		private void reset() {
+			events.reset();
+			firstEmg = -1;
+			closedExpected = 0;
+		}
+	}
+
+	// Registered on the wrapped source ahead of every other listener
+	private final class EventCounter extends AbstractDeviceListener {
+		private void count(EventType type, Myo myo) {
+			eventCounts[type.ordinal()].increment();
+			device(myo).events.increment();
+		}
+
+		@Override
+		public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+			count(EventType.PAIR, myo);
+		}
+
+		@Override
+		public void onUnpair(Myo myo, long timestamp) {
+			count(EventType.UNPAIR, myo);
+		}
+
+		@Override
+		public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+			count(EventType.CONNECT, myo);
+		}
+
+		@Override
+		public void onDisconnect(Myo myo, long timestamp) {
+			count(EventType.DISCONNECT, myo);
+			device(myo).disconnect();
+		}
+
+		@Override
+		public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+			count(EventType.ARM_SYNC, myo);
+		}
+
+		@Override
+		public void onArmUnsync(Myo myo, long timestamp) {
+			count(EventType.ARM_UNSYNC, myo);
+		}
+
+		@Override
+		public void onUnlock(Myo myo, long timestamp) {
+			count(EventType.UNLOCK, myo);
+		}
+
+		@Override
+		public void onLock(Myo myo, long timestamp) {
+			count(EventType.LOCK, myo);
+		}
+
+		@Override
+		public void onPose(Myo myo, long timestamp, Pose pose) {
+			count(EventType.POSE, myo);
+		}
+
+		@Override
+		public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+			count(EventType.ORIENTATION, myo);
+		}
+
+		@Override
+		public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+			count(EventType.ACCELEROMETER, myo);
+		}
+
+		@Override
+		public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+			count(EventType.GYROSCOPE, myo);
+		}
+
+		@Override
+		public void onRssi(Myo myo, long timestamp, int rssi) {
+			count(EventType.RSSI, myo);
+		}
+
+		@Override
+		public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+			count(EventType.BATTERY_LEVEL, myo);
+		}
+
+		@Override
+		public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+			count(EventType.EMG, myo);
+			device(myo).emg(timestamp);
+		}
+
+		@Override
+		public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+			count(EventType.WARMUP_COMPLETED, myo);
+		}
+	}
+}
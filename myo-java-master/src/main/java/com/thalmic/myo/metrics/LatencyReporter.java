@@ -0,0 +1,54 @@
+package com.thalmic.myo.metrics;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+// Prints the interval summaries of a set of tracers, in milliseconds, at a fixed period from a daemon thread.
+public class LatencyReporter implements Runnable {
+	private final LatencyTracer[] tracers;
+	private final long period;
+	private final PrintStream out;
+	private Thread thread;
+
+	public LatencyReporter(long period, TimeUnit unit, PrintStream out, LatencyTracer... tracers) {
+		this.tracers = tracers.clone();
+		this.period = unit.toNanos(period);
+		this.out = out;
+	}
+
+	public void start() {
+		thread = new Thread(this, "latency-reporter");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void close() {
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		long next = System.nanoTime() + period;
+		while (true) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+			} catch (InterruptedException e) {
+				return;
+			}
+			next += period;
+			StringBuilder builder = new StringBuilder(String.format("%n"));
+			for (LatencyTracer tracer : tracers) {
+				builder.append(tracer.intervalSummary(TimeUnit.MILLISECONDS));
+			}
+			// One write, so the summary is not interleaved with other output
+			out.print(builder);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.thalmic.myo.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency of one path through the system, split into named stages. Each trace is recorded as the time spent in
+// every stage plus the total, all in nanoseconds. Histograms are kept twice: cumulative since creation, and for
+// the current interval, which intervalSummary reports and starts afresh. The interval histograms are swapped with
+// an empty spare set under the tracer's lock, so a trace is never recorded into a set while it is reported.
+public class LatencyTracer {
+	private final String name;
+	private final String[] stages;
+	private final Histogram[] stageHistograms;
+	private final Histogram total = new Histogram();
+	private final Object summaryLock = new Object();
+	private Histogram[] stageIntervals;
+	private Histogram totalInterval = new Histogram();
+	private Histogram[] spareStageIntervals;
+	private Histogram spareTotalInterval = new Histogram();
+
+	public LatencyTracer(String name, String... stages) {
+		this.name = name;
+		this.stages = stages.clone();
+		this.stageHistograms = new Histogram[stages.length];
+		this.stageIntervals = new Histogram[stages.length];
+		this.spareStageIntervals = new Histogram[stages.length];
+		for (int i = 0; i < stages.length; i++) {
+			stageHistograms[i] = new Histogram();
+			stageIntervals[i] = new Histogram();
+			spareStageIntervals[i] = new Histogram();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getStageCount() {
+		return stages.length;
+	}
+
+	public String getStageName(int stage) {
+		return stages[stage];
+	}
+
+	public synchronized void recordStage(int stage, long start, long end) {
+		stageHistograms[stage].record(end - start);
+		stageIntervals[stage].record(end - start);
+	}
+
+	public synchronized void recordTotal(long start, long end) {
+		total.record(end - start);
+		totalInterval.record(end - start);
+	}
+
+	public Histogram getStage(int stage) {
+		return stageHistograms[stage];
+	}
+
+	public Histogram getTotal() {
+		return total;
+	}
+
+	// Cumulative percentiles of every stage and the total
+	public String summary(TimeUnit unit) {
+		return format(stageHistograms, total, unit);
+	}
+
+	// Percentiles since the previous interval summary. Formatting happens after the swap, so it does not hold up
+	// the recording threads.
+	public String intervalSummary(TimeUnit unit) {
+		synchronized (summaryLock) {
+			Histogram[] stageInterval;
+			Histogram interval;
+			synchronized (this) {
+				stageInterval = stageIntervals;
+				interval = totalInterval;
+				stageIntervals = spareStageIntervals;
+				totalInterval = spareTotalInterval;
+				spareStageIntervals = stageInterval;
+				spareTotalInterval = interval;
+			}
+			String summary = format(stageInterval, interval, unit);
+			for (Histogram histogram : stageInterval) {
+				histogram.reset();
+			}
+			interval.reset();
+			return summary;
+		}
+	}
+
+	private String format(Histogram[] stageHistograms, Histogram total, TimeUnit unit) {
+		StringBuilder builder = new StringBuilder(name).append(String.format(" latency%n"));
+		for (int i = 0; i < stages.length; i++) {
+			builder.append(String.format("  %-8s %s%n", stages[i], stageHistograms[i].toString(unit)));
+		}
+		builder.append(String.format("  %-8s %s%n", "total", total.toString(unit)));
+		return builder.toString();
+	}
+}
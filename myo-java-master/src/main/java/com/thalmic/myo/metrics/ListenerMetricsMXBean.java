@@ -0,0 +1,16 @@
+package com.thalmic.myo.metrics;
+
+// Time one registered DeviceListener spends in its callbacks, in nanoseconds.
+public interface ListenerMetricsMXBean {
+	public String getListener();
+
+	public long getCallCount();
+
+	public long getTotalNanos();
+
+	public double getMeanNanos();
+
+	public long getLongestCallNanos();
+
+	public void reset();
+}
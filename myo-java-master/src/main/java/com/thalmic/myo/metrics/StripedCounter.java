@@ -0,0 +1,61 @@
+package com.thalmic.myo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A counter for hot paths. Threads add to cells picked by their id, each cell on its own cache line, so
+// concurrent writers do not contend and a lone writer pays one uncontended atomic add. Reading sums the cells.
+public final class StripedCounter {
+	// Longs per 64 byte cache line
+	private static final int PADDING = 8;
+	private static final int DEFAULT_STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+	private final AtomicLongArray cells;
+	private final int mask;
+
+	public StripedCounter() {
+		this(DEFAULT_STRIPES);
+	}
+
+	// Rounded up to a power of two
+	public StripedCounter(int stripes) {
+		int count = stripes(stripes);
+		this.cells = new AtomicLongArray(count * PADDING);
+		this.mask = count - 1;
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long value) {
+		cells.getAndAdd(((int) Thread.currentThread().getId() & mask) * PADDING, value);
+	}
+
+	public long sum() {
+		long sum = 0;
+		for (int i = 0; i < cells.length(); i += PADDING) {
+			sum += cells.get(i);
+		}
+		return sum;
+	}
+
+	// Not atomic with respect to concurrent adds
+	public void reset() {
+		for (int i = 0; i < cells.length(); i += PADDING) {
+			cells.set(i, 0);
+		}
+	}
+
+	private static int stripes(int requested) {
+		int stripes = 1;
+		while (stripes < requested && stripes < 64) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(sum());
+	}
+}
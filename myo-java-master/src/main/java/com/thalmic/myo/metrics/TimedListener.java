@@ -0,0 +1,248 @@
+package com.thalmic.myo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Wraps a listener registered through an InstrumentedEventSource and times each of its callbacks.
+public final class TimedListener implements DeviceListener, EventSubscriber, ListenerMetricsMXBean {
+	private final DeviceListener listener;
+	private final String name;
+	private final InstrumentedEventSource source;
+	private final StripedCounter calls = new StripedCounter();
+	private final StripedCounter nanos = new StripedCounter();
+	private final AtomicLong longest = new AtomicLong();
+
+	TimedListener(DeviceListener listener, String name, InstrumentedEventSource source) {
+		this.listener = listener;
+		this.name = name;
+		this.source = source;
+	}
+
+	DeviceListener getDelegate() {
+		return listener;
+	}
+
+	// The wrapped listener's, so wrapping does not widen what it is sent
+	@Override
+	public int getEventMask() {
+		return EventMask.forListener(listener);
+	}
+
+	private void record(long start) {
+		long elapsed = System.nanoTime() - start;
+		calls.increment();
+		nanos.add(elapsed);
+		long current = longest.get();
+		if (elapsed > current) {
+			while (elapsed > current && !longest.compareAndSet(current, elapsed)) {
+				current = longest.get();
+			}
+			source.stalled(elapsed, name);
+		}
+	}
+
+	@Override
+	public String getListener() {
+		return name;
+	}
+
+	@Override
+	public long getCallCount() {
+		return calls.sum();
+	}
+
+	@Override
+	public long getTotalNanos() {
+		return nanos.sum();
+	}
+
+	@Override
+	public double getMeanNanos() {
+		long count = calls.sum();
+		return count == 0 ? 0 : (double) nanos.sum() / count;
+	}
+
+	@Override
+	public long getLongestCallNanos() {
+		return longest.get();
+	}
+
+	@Override
+	public void reset() {
+		calls.reset();
+		nanos.reset();
+		longest.set(0);
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		long start = System.nanoTime();
+		try {
+			listener.onPair(myo, timestamp, firmwareVersion);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		long start = System.nanoTime();
+		try {
+			listener.onUnpair(myo, timestamp);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		long start = System.nanoTime();
+		try {
+			listener.onConnect(myo, timestamp, firmwareVersion);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		long start = System.nanoTime();
+		try {
+			listener.onDisconnect(myo, timestamp);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		long start = System.nanoTime();
+		try {
+			listener.onArmSync(myo, timestamp, arm, xDirection, rotation, warmupState);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		long start = System.nanoTime();
+		try {
+			listener.onArmUnsync(myo, timestamp);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		long start = System.nanoTime();
+		try {
+			listener.onUnlock(myo, timestamp);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		long start = System.nanoTime();
+		try {
+			listener.onLock(myo, timestamp);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		long start = System.nanoTime();
+		try {
+			listener.onPose(myo, timestamp, pose);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		long start = System.nanoTime();
+		try {
+			listener.onOrientationData(myo, timestamp, rotation);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		long start = System.nanoTime();
+		try {
+			listener.onAccelerometerData(myo, timestamp, accel);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		long start = System.nanoTime();
+		try {
+			listener.onGyroscopeData(myo, timestamp, gyro);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		long start = System.nanoTime();
+		try {
+			listener.onRssi(myo, timestamp, rssi);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		long start = System.nanoTime();
+		try {
+			listener.onBatteryLevelReceived(myo, timestamp, level);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		long start = System.nanoTime();
+		try {
+			listener.onEmgData(myo, timestamp, emg);
+		} finally {
+			record(start);
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		long start = System.nanoTime();
+		try {
+			listener.onWarmupCompleted(myo, timestamp, warmupResult);
+		} finally {
+			record(start);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.thalmic.myo.record;
+
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.PoseType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Layout of a session log. A 16 byte header (magic, version, end offset) is followed by records of
+// type (EventType ordinal + 1, so zeroed space reads as the end), device index and timestamp, then a payload
+// whose size depends only on the type. The end offset is 0 until the log is first flushed, after that the
+// records before it are on disk. All values are big-endian.
+final class RecordFormat {
+	static final int MAGIC = 0x4D594F52;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int END_OFFSET_POSITION = 8;
+	static final int RECORD_HEADER_SIZE = 10;
+	static final int EMG_CHANNELS = 8;
+	static final byte NULL_ENUM = -1;
+
+	static final EventType[] EVENT_TYPES = EventType.values();
+	static final Arm[] ARMS = Arm.values();
+	static final XDirection[] X_DIRECTIONS = XDirection.values();
+	static final WarmupState[] WARMUP_STATES = WarmupState.values();
+	static final WarmupResult[] WARMUP_RESULTS = WarmupResult.values();
+	static final PoseType[] POSE_TYPES = PoseType.values();
+
+	private static final int[] PAYLOAD_SIZES = new int[EVENT_TYPES.length];
+	static {
+		PAYLOAD_SIZES[EventType.PAIR.ordinal()] = 16;
+		PAYLOAD_SIZES[EventType.CONNECT.ordinal()] = 16;
+		PAYLOAD_SIZES[EventType.ARM_SYNC.ordinal()] = 7;
+		PAYLOAD_SIZES[EventType.POSE.ordinal()] = 1;
+		PAYLOAD_SIZES[EventType.ORIENTATION.ordinal()] = 32;
+		PAYLOAD_SIZES[EventType.ACCELEROMETER.ordinal()] = 24;
+		PAYLOAD_SIZES[EventType.GYROSCOPE.ordinal()] = 24;
+		PAYLOAD_SIZES[EventType.RSSI.ordinal()] = 4;
+		PAYLOAD_SIZES[EventType.BATTERY_LEVEL.ordinal()] = 4;
+		PAYLOAD_SIZES[EventType.EMG.ordinal()] = EMG_CHANNELS;
+		PAYLOAD_SIZES[EventType.WARMUP_COMPLETED.ordinal()] = 1;
+	}
+
+	static final int MAX_RECORD_SIZE = RECORD_HEADER_SIZE + 32;
+
+	private RecordFormat() {
+	}
+
+	static int recordSize(EventType type) {
+		return RECORD_HEADER_SIZE + PAYLOAD_SIZES[type.ordinal()];
+	}
+
+	static byte encode(Enum<?> value) {
+		return value == null ? NULL_ENUM : (byte) value.ordinal();
+	}
+
+	static <T> T decode(T[] values, byte ordinal) {
+		return ordinal < 0 || ordinal >= values.length ? null : values[ordinal];
+	}
+}
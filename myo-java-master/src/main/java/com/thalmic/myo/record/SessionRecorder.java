@@ -0,0 +1,259 @@
+package com.thalmic.myo.record;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.Arm;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.WarmupResult;
+import com.thalmic.myo.enums.WarmupState;
+import com.thalmic.myo.enums.XDirection;
+
+// Appends every callback to a session log through a memory mapped file, see RecordFormat. The file is mapped
+// a region at a time, so recording allocates nothing per event. Call it from one thread, as the Hub does.
+public class SessionRecorder implements DeviceListener, Closeable {
+	public static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int regionSize;
+	private final Map<Myo, Integer> devices = new HashMap<>();
+	private final MappedByteBuffer header;
+	private MappedByteBuffer region;
+	private long regionStart;
+	private long recordCount;
+	private boolean failed;
+
+	public SessionRecorder(File file) throws IOException {
+		this(file, DEFAULT_REGION_SIZE);
+	}
+
+	public SessionRecorder(File file, int regionSize) throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.channel = this.file.getChannel();
+		this.regionSize = Math.max(regionSize, RecordFormat.MAX_RECORD_SIZE);
+		this.channel.truncate(0);
+		header = channel.map(FileChannel.MapMode.READ_WRITE, 0, RecordFormat.HEADER_SIZE);
+		header.putInt(RecordFormat.MAGIC);
+		header.putInt(RecordFormat.VERSION);
+		header.putLong(0);
+		map(RecordFormat.HEADER_SIZE);
+	}
+
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	// Bytes of the log written so far, header included
+	public long getLength() {
+		return regionStart + region.position();
+	}
+
+	// Writes the end offset into the header and forces the mapped pages to disk
+	public void flush() {
+		if (failed) {
+			return;
+		}
+		header.putLong(RecordFormat.END_OFFSET_POSITION, getLength());
+		region.force();
+		header.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		long end = getLength();
+		// Callbacks arriving after close are ignored
+		failed = true;
+		try {
+			channel.truncate(end);
+		} catch (IOException e) {
+			// Some platforms refuse to truncate a file that is still mapped; readers stop at the end offset anyway
+		}
+		file.close();
+	}
+
+	// The region being replaced is forced first, as flush only forces the current one
+	private void map(long position) throws IOException {
+		if (region != null) {
+			region.force();
+		}
+		region = channel.map(FileChannel.MapMode.READ_WRITE, position, regionSize);
+		regionStart = position;
+	}
+
+	private void fail(IOException e) {
+		e.printStackTrace();
+		failed = true;
+	}
+
+	// Starts a record and returns false if recording has failed
+	private boolean begin(EventType type, Myo myo, long timestamp) {
+		if (failed) {
+			return false;
+		}
+		int size = RecordFormat.recordSize(type);
+		if (region.remaining() < size) {
+			try {
+				map(regionStart + region.position());
+			} catch (IOException e) {
+				fail(e);
+				return false;
+			}
+		}
+		region.put((byte) (type.ordinal() + 1));
+		region.put((byte) deviceIndex(myo));
+		region.putLong(timestamp);
+		recordCount++;
+		return true;
+	}
+
+	private int deviceIndex(Myo myo) {
+		Integer index = devices.get(myo);
+		if (index == null) {
+			index = devices.size();
+			devices.put(myo, index);
+		}
+		return index;
+	}
+
+	private void putFirmwareVersion(FirmwareVersion firmwareVersion) {
+		if (firmwareVersion == null) {
+			region.putLong(0);
+			region.putLong(0);
+			return;
+		}
+		region.putInt(firmwareVersion.getFirmwareVersionMajor());
+		region.putInt(firmwareVersion.getFirmwareVersionMinor());
+		region.putInt(firmwareVersion.getFirmwareVersionPath());
+		region.putInt(firmwareVersion.getFirmwareVersionHardwareRev());
+	}
+
+	@Override
+	public void onPair(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		if (begin(EventType.PAIR, myo, timestamp)) {
+			putFirmwareVersion(firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onUnpair(Myo myo, long timestamp) {
+		begin(EventType.UNPAIR, myo, timestamp);
+	}
+
+	@Override
+	public void onConnect(Myo myo, long timestamp, FirmwareVersion firmwareVersion) {
+		if (begin(EventType.CONNECT, myo, timestamp)) {
+			putFirmwareVersion(firmwareVersion);
+		}
+	}
+
+	@Override
+	public void onDisconnect(Myo myo, long timestamp) {
+		begin(EventType.DISCONNECT, myo, timestamp);
+	}
+
+	@Override
+	public void onArmSync(Myo myo, long timestamp, Arm arm, XDirection xDirection, float rotation, WarmupState warmupState) {
+		if (begin(EventType.ARM_SYNC, myo, timestamp)) {
+			region.put(RecordFormat.encode(arm));
+			region.put(RecordFormat.encode(xDirection));
+			region.putFloat(rotation);
+			region.put(RecordFormat.encode(warmupState));
+		}
+	}
+
+	@Override
+	public void onArmUnsync(Myo myo, long timestamp) {
+		begin(EventType.ARM_UNSYNC, myo, timestamp);
+	}
+
+	@Override
+	public void onUnlock(Myo myo, long timestamp) {
+		begin(EventType.UNLOCK, myo, timestamp);
+	}
+
+	@Override
+	public void onLock(Myo myo, long timestamp) {
+		begin(EventType.LOCK, myo, timestamp);
+	}
+
+	@Override
+	public void onPose(Myo myo, long timestamp, Pose pose) {
+		if (begin(EventType.POSE, myo, timestamp)) {
+			region.put(RecordFormat.encode(pose == null ? null : pose.getType()));
+		}
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		if (begin(EventType.ORIENTATION, myo, timestamp)) {
+			region.putDouble(rotation.getX());
+			region.putDouble(rotation.getY());
+			region.putDouble(rotation.getZ());
+			region.putDouble(rotation.getW());
+		}
+	}
+
+	@Override
+	public void onAccelerometerData(Myo myo, long timestamp, Vector3 accel) {
+		if (begin(EventType.ACCELEROMETER, myo, timestamp)) {
+			region.putDouble(accel.getX());
+			region.putDouble(accel.getY());
+			region.putDouble(accel.getZ());
+		}
+	}
+
+	@Override
+	public void onGyroscopeData(Myo myo, long timestamp, Vector3 gyro) {
+		if (begin(EventType.GYROSCOPE, myo, timestamp)) {
+			region.putDouble(gyro.getX());
+			region.putDouble(gyro.getY());
+			region.putDouble(gyro.getZ());
+		}
+	}
+
+	@Override
+	public void onRssi(Myo myo, long timestamp, int rssi) {
+		if (begin(EventType.RSSI, myo, timestamp)) {
+			region.putInt(rssi);
+		}
+	}
+
+	@Override
+	public void onBatteryLevelReceived(Myo myo, long timestamp, int level) {
+		if (begin(EventType.BATTERY_LEVEL, myo, timestamp)) {
+			region.putInt(level);
+		}
+	}
+
+	@Override
+	public void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		if (begin(EventType.EMG, myo, timestamp)) {
+			int length = Math.min(emg.length, RecordFormat.EMG_CHANNELS);
+			region.put(emg, 0, length);
+			for (int i = length; i < RecordFormat.EMG_CHANNELS; i++) {
+				region.put((byte) 0);
+			}
+		}
+	}
+
+	@Override
+	public void onWarmupCompleted(Myo myo, long timestamp, WarmupResult warmupResult) {
+		if (begin(EventType.WARMUP_COMPLETED, myo, timestamp)) {
+			region.put(RecordFormat.encode(warmupResult));
+		}
+	}
+}
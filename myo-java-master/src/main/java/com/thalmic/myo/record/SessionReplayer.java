@@ -0,0 +1,374 @@
+package com.thalmic.myo.record;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.DeviceListener;
+import com.thalmic.myo.EventSource;
+import com.thalmic.myo.FirmwareVersion;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+import com.thalmic.myo.Vector3;
+import com.thalmic.myo.enums.EventType;
+import com.thalmic.myo.enums.PoseType;
+
+// Plays a session log written by SessionRecorder into DeviceListeners. Like the SimulatedHub it is an
+// EventSource: run(duration) replays the next duration milliseconds of recorded time. Paced, it keeps the
+// original timing; unpaced (the default) it replays as fast as the listeners allow. Each recorded device is
+// replayed as its own simulated Myo. Orientation, IMU and EMG callbacks get fresh objects, as from the SDK.
+public class SessionReplayer implements EventSource, Closeable {
+	private static final Pose[] POSES = new Pose[RecordFormat.POSE_TYPES.length];
+	static {
+		for (PoseType type : RecordFormat.POSE_TYPES) {
+			POSES[type.ordinal()] = new Pose(type);
+		}
+	}
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long end;
+	private final int regionSize;
+	private final List<Myo> devices = new ArrayList<>();
+	private final List<DeviceListener> listeners = new CopyOnWriteArrayList<>();
+	private MappedByteBuffer region;
+	private long regionStart;
+	private boolean paced;
+	private long timestamp = Long.MIN_VALUE;
+	private long replayedCount;
+
+	public SessionReplayer(File file) throws IOException {
+		this(file, SessionRecorder.DEFAULT_REGION_SIZE);
+	}
+
+	public SessionReplayer(File file, int regionSize) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+		this.regionSize = Math.max(regionSize, RecordFormat.MAX_RECORD_SIZE);
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, RecordFormat.HEADER_SIZE);
+		if (header.getInt() != RecordFormat.MAGIC) {
+			this.file.close();
+			throw new IOException(file + " is not a Myo session log");
+		}
+		int version = header.getInt();
+		if (version != RecordFormat.VERSION) {
+			this.file.close();
+			throw new IOException("Unsupported session log version " + version);
+		}
+		// A flushed log ends at the offset in its header, records written after the last flush may be torn. One
+		// that was never flushed ends at its first zeroed record.
+		long endOffset = header.getLong();
+		if (endOffset != 0 && endOffset < RecordFormat.HEADER_SIZE) {
+			this.file.close();
+			throw new IOException("Invalid end offset " + endOffset + " in " + file);
+		}
+		end = endOffset == 0 ? channel.size() : Math.min(endOffset, channel.size());
+		map(RecordFormat.HEADER_SIZE);
+	}
+
+	public boolean isPaced() {
+		return paced;
+	}
+
+	public void setPaced(boolean paced) {
+		this.paced = paced;
+	}
+
+	// Timestamp of the last replayed record
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getReplayedCount() {
+		return replayedCount;
+	}
+
+	public boolean isFinished() {
+		return peekType() == null;
+	}
+
+	@Override
+	public Myo waitForMyo(int timeout) {
+		while (devices.isEmpty() && !isFinished()) {
+			replayNext();
+		}
+		return devices.isEmpty() ? null : devices.get(0);
+	}
+
+	@Override
+	public void addListener(DeviceListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void removeListener(DeviceListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void run(int duration) {
+		replay(duration * 1000L, Long.MAX_VALUE);
+	}
+
+	@Override
+	public void runOnce(int duration) {
+		replay(duration * 1000L, 1);
+	}
+
+	// Replays the rest of the log and returns the number of records replayed
+	public long replayAll() {
+		long before = replayedCount;
+		replay(Long.MAX_VALUE, Long.MAX_VALUE);
+		return replayedCount - before;
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	private void replay(long duration, long maxRecords) {
+		if (isFinished()) {
+			return;
+		}
+		if (timestamp == Long.MIN_VALUE) {
+			timestamp = peekTimestamp();
+		}
+		long start = timestamp;
+		long limit = duration == Long.MAX_VALUE ? Long.MAX_VALUE : start + duration;
+		long wallStart = System.nanoTime();
+		long records = 0;
+		while (records < maxRecords && !isFinished()) {
+			long next = peekTimestamp();
+			if (next > limit) {
+				break;
+			}
+			if (paced && !sleepUntil(wallStart + TimeUnit.MICROSECONDS.toNanos(next - start))) {
+				return;
+			}
+			replayNext();
+			records++;
+		}
+		if (records < maxRecords && limit != Long.MAX_VALUE) {
+			if (paced) {
+				sleepUntil(wallStart + TimeUnit.MICROSECONDS.toNanos(duration));
+			}
+			timestamp = limit;
+		}
+	}
+
+	private static boolean sleepUntil(long deadline) {
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+			return true;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(remaining);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void map(long position) throws IOException {
+		region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, end - position));
+		regionStart = position;
+	}
+
+	// Type of the next record, or null at the end of the log. Moves to the next region when needed.
+	private EventType peekType() {
+		if (region.remaining() < RecordFormat.RECORD_HEADER_SIZE || region.remaining() < RecordFormat.MAX_RECORD_SIZE && regionStart + region.limit() < end) {
+			long position = regionStart + region.position();
+			if (end - position < RecordFormat.RECORD_HEADER_SIZE) {
+				return null;
+			}
+			try {
+				map(position);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+		byte code = region.get(region.position());
+		if (code <= 0 || code > RecordFormat.EVENT_TYPES.length) {
+			return null;
+		}
+		EventType type = RecordFormat.EVENT_TYPES[code - 1];
+		return region.remaining() < RecordFormat.recordSize(type) ? null : type;
+	}
+
+	private long peekTimestamp() {
+		return region.getLong(region.position() + 2);
+	}
+
+	private Myo device(int index) {
+		while (devices.size() <= index) {
+			devices.add(Myo.createSimulated());
+		}
+		return devices.get(index);
+	}
+
+	private FirmwareVersion getFirmwareVersion() {
+		return new FirmwareVersion(region.getInt(), region.getInt(), region.getInt(), region.getInt());
+	}
+
+	private void replayNext() {
+		EventType type = peekType();
+		region.get();
+		Myo myo = device(region.get() & 0xFF);
+		long eventTimestamp = region.getLong();
+		timestamp = eventTimestamp;
+		replayedCount++;
+		switch (type) {
+		case PAIR: {
+			FirmwareVersion firmwareVersion = getFirmwareVersion();
+			for (DeviceListener listener : listeners) {
+				listener.onPair(myo, eventTimestamp, firmwareVersion);
+			}
+			break;
+		}
+		case UNPAIR:
+			for (DeviceListener listener : listeners) {
+				listener.onUnpair(myo, eventTimestamp);
+			}
+			break;
+		case CONNECT: {
+			FirmwareVersion firmwareVersion = getFirmwareVersion();
+			for (DeviceListener listener : listeners) {
+				listener.onConnect(myo, eventTimestamp, firmwareVersion);
+			}
+			break;
+		}
+		case DISCONNECT:
+			for (DeviceListener listener : listeners) {
+				listener.onDisconnect(myo, eventTimestamp);
+			}
+			break;
+		case ARM_SYNC: {
+			byte arm = region.get();
+			byte xDirection = region.get();
+			float rotation = region.getFloat();
+			byte warmupState = region.get();
+			for (DeviceListener listener : listeners) {
+				listener.onArmSync(myo, eventTimestamp, RecordFormat.decode(RecordFormat.ARMS, arm), RecordFormat.decode(RecordFormat.X_DIRECTIONS, xDirection), rotation, RecordFormat.decode(RecordFormat.WARMUP_STATES, warmupState));
+			}
+			break;
+		}
+		case ARM_UNSYNC:
+			for (DeviceListener listener : listeners) {
+				listener.onArmUnsync(myo, eventTimestamp);
+			}
+			break;
+		case UNLOCK:
+			for (DeviceListener listener : listeners) {
+				listener.onUnlock(myo, eventTimestamp);
+			}
+			break;
+		case LOCK:
+			for (DeviceListener listener : listeners) {
+				listener.onLock(myo, eventTimestamp);
+			}
+			break;
+		case POSE: {
+			PoseType poseType = RecordFormat.decode(RecordFormat.POSE_TYPES, region.get());
+			Pose pose = poseType == null ? null : POSES[poseType.ordinal()];
+			for (DeviceListener listener : listeners) {
+				listener.onPose(myo, eventTimestamp, pose);
+			}
+			break;
+		}
+		case ORIENTATION: {
+			double x = region.getDouble();
+			double y = region.getDouble();
+			double z = region.getDouble();
+			double w = region.getDouble();
+			// Only built if a listener needs the object
+			Quaternion rotation = null;
+			for (DeviceListener listener : listeners) {
+				if (listener instanceof RawImuListener) {
+					((RawImuListener) listener).onOrientation(myo, eventTimestamp, x, y, z, w);
+				} else {
+					if (rotation == null) {
+						rotation = new Quaternion(x, y, z, w);
+					}
+					listener.onOrientationData(myo, eventTimestamp, rotation);
+				}
+			}
+			break;
+		}
+		case ACCELEROMETER: {
+			double x = region.getDouble();
+			double y = region.getDouble();
+			double z = region.getDouble();
+			Vector3 accel = null;
+			for (DeviceListener listener : listeners) {
+				if (listener instanceof RawImuListener) {
+					((RawImuListener) listener).onAccelerometer(myo, eventTimestamp, x, y, z);
+				} else {
+					if (accel == null) {
+						accel = new Vector3(x, y, z);
+					}
+					listener.onAccelerometerData(myo, eventTimestamp, accel);
+				}
+			}
+			break;
+		}
+		case GYROSCOPE: {
+			double x = region.getDouble();
+			double y = region.getDouble();
+			double z = region.getDouble();
+			Vector3 gyro = null;
+			for (DeviceListener listener : listeners) {
+				if (listener instanceof RawImuListener) {
+					((RawImuListener) listener).onGyroscope(myo, eventTimestamp, x, y, z);
+				} else {
+					if (gyro == null) {
+						gyro = new Vector3(x, y, z);
+					}
+					listener.onGyroscopeData(myo, eventTimestamp, gyro);
+				}
+			}
+			break;
+		}
+		case RSSI: {
+			int rssi = region.getInt();
+			for (DeviceListener listener : listeners) {
+				listener.onRssi(myo, eventTimestamp, rssi);
+			}
+			break;
+		}
+		case BATTERY_LEVEL: {
+			int level = region.getInt();
+			for (DeviceListener listener : listeners) {
+				listener.onBatteryLevelReceived(myo, eventTimestamp, level);
+			}
+			break;
+		}
+		case EMG: {
+			byte[] emg = new byte[RecordFormat.EMG_CHANNELS];
+			region.get(emg);
+			for (DeviceListener listener : listeners) {
+				listener.onEmgData(myo, eventTimestamp, emg);
+			}
+			break;
+		}
+		case WARMUP_COMPLETED: {
+			byte warmupResult = region.get();
+			for (DeviceListener listener : listeners) {
+				listener.onWarmupCompleted(myo, eventTimestamp, RecordFormat.decode(RecordFormat.WARMUP_RESULTS, warmupResult));
+			}
+			break;
+		}
+		}
+	}
+}
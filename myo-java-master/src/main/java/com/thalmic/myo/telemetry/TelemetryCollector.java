@@ -0,0 +1,166 @@
+package com.thalmic.myo.telemetry;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.thalmic.myo.AbstractDeviceListener;
+import com.thalmic.myo.EventMask;
+import com.thalmic.myo.EventSubscriber;
+import com.thalmic.myo.Myo;
+import com.thalmic.myo.Pose;
+import com.thalmic.myo.Quaternion;
+import com.thalmic.myo.RawImuListener;
+
+// Encodes orientation, EMG, pose and motor command samples into the TelemetryFormat records of the current
+// batch, which a TelemetryServer takes over at its frame rate. Two fixed buffers are swapped, so recording a
+// sample never allocates, never waits on a client and holds the lock only for the copy. A sample that does not
+// fit in the batch is dropped and counted, the count goes out with the batch. Devices are numbered in the order
+// they are first seen, motors in the order they are added.
+public class TelemetryCollector extends AbstractDeviceListener implements RawImuListener, EventSubscriber {
+	private final Map<Myo, Integer> devices = new HashMap<>();
+	private final List<String> motors = new CopyOnWriteArrayList<>();
+	private Batch current;
+	private Batch taken;
+	private long lastTimestamp;
+	private long recordCount;
+	private long droppedCount;
+
+	// Capacity of one batch in bytes, an orientation sample takes 22 and an EMG sample 14
+	public TelemetryCollector(int capacity) {
+		if (capacity < TelemetryFormat.ORIENTATION_SIZE) {
+			throw new IllegalArgumentException("Capacity must be at least " + TelemetryFormat.ORIENTATION_SIZE + " bytes, was " + capacity);
+		}
+		current = new Batch(capacity);
+		taken = new Batch(capacity);
+	}
+
+	@Override
+	public int getEventMask() {
+		return EventMask.ORIENTATION | EventMask.EMG | EventMask.POSE;
+	}
+
+	// Returns the index motor commands are recorded under
+	public int addMotor(String name) {
+		synchronized (motors) {
+			motors.add(name);
+			return motors.size() - 1;
+		}
+	}
+
+	public List<String> getMotors() {
+		return motors;
+	}
+
+	@Override
+	public synchronized void onOrientation(Myo myo, long timestamp, double x, double y, double z, double w) {
+		ByteBuffer records = start(TelemetryFormat.ORIENTATION, device(myo), timestamp, TelemetryFormat.ORIENTATION_SIZE);
+		if (records != null) {
+			records.putFloat((float) x).putFloat((float) y).putFloat((float) z).putFloat((float) w);
+		}
+	}
+
+	@Override
+	public void onAccelerometer(Myo myo, long timestamp, double x, double y, double z) {
+	}
+
+	@Override
+	public void onGyroscope(Myo myo, long timestamp, double x, double y, double z) {
+	}
+
+	@Override
+	public void onOrientationData(Myo myo, long timestamp, Quaternion rotation) {
+		onOrientation(myo, timestamp, rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW());
+	}
+
+	@Override
+	public synchronized void onEmgData(Myo myo, long timestamp, byte[] emg) {
+		ByteBuffer records = start(TelemetryFormat.EMG, device(myo), timestamp, TelemetryFormat.EMG_SIZE);
+		if (records != null) {
+			for (int i = 0; i < 8; i++) {
+				records.put(i < emg.length ? emg[i] : 0);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void onPose(Myo myo, long timestamp, Pose pose) {
+		ByteBuffer records = start(TelemetryFormat.POSE, device(myo), timestamp, TelemetryFormat.POSE_SIZE);
+		if (records != null) {
+			records.put((byte) pose.getType().ordinal());
+		}
+	}
+
+	// Speed as commanded, positive forward and 0 for stopped, stamped with the newest Myo timestamp seen
+	public synchronized void onMotorCommand(int motor, int speed) {
+		ByteBuffer records = start(TelemetryFormat.MOTOR, motor, lastTimestamp, TelemetryFormat.MOTOR_SIZE);
+		if (records != null) {
+			records.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, speed)));
+		}
+	}
+
+	private int device(Myo myo) {
+		Integer index = devices.get(myo);
+		if (index == null) {
+			index = devices.size();
+			devices.put(myo, index);
+		}
+		return index;
+	}
+
+	// Writes the record header and returns the buffer for the payload, or null if the batch is full
+	private ByteBuffer start(byte type, int index, long timestamp, int size) {
+		if (timestamp > lastTimestamp) {
+			lastTimestamp = timestamp;
+		}
+		Batch batch = current;
+		if (batch.records.remaining() < size) {
+			batch.dropped++;
+			droppedCount++;
+			return null;
+		}
+		if (batch.records.position() == 0) {
+			batch.base = timestamp;
+		}
+		recordCount++;
+		return batch.records.put(type).put((byte) index).putInt((int) (timestamp - batch.base));
+	}
+
+	// Hands the batch recorded so far to the caller, flipped for reading, and starts a new one. The batch stays
+	// valid until the next call.
+	synchronized Batch swap() {
+		Batch batch = current;
+		current = taken;
+		current.records.clear();
+		current.dropped = 0;
+		taken = batch;
+		batch.records.flip();
+		return batch;
+	}
+
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	// Samples that did not fit in their batch
+	public synchronized long getDroppedCount() {
+		return droppedCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d devices, %d motors, %d records, %d dropped", devices.size(), motors.size(), recordCount, droppedCount);
+	}
+
+	static final class Batch {
+		final ByteBuffer records;
+		long base;
+		int dropped;
+
+		private Batch(int capacity) {
+			records = ByteBuffer.allocate(capacity);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.thalmic.myo.telemetry;
+
+// Layout of the binary WebSocket messages. Each message is one batch: a 24 byte header of sequence number,
+// server time and base timestamp in microseconds, and the records dropped since the previous batch because it
+// was full, followed by records. A record is type, device or motor index and the timestamp as a microsecond
+// offset from the base, then a payload whose size depends only on the type. Orientation is four floats x, y,
+// z, w; EMG the eight channels; a pose the PoseType ordinal; a motor command the commanded speed as a short,
+// positive forward, 0 for stopped. All values are big-endian. A client whose sequence numbers skip missed
+// those batches because it did not keep up.
+final class TelemetryFormat {
+	static final int HEADER_SIZE = 24;
+	static final int RECORD_HEADER_SIZE = 6;
+
+	static final byte ORIENTATION = 1;
+	static final byte EMG = 2;
+	static final byte POSE = 3;
+	static final byte MOTOR = 4;
+
+	static final int ORIENTATION_SIZE = RECORD_HEADER_SIZE + 16;
+	static final int EMG_SIZE = RECORD_HEADER_SIZE + 8;
+	static final int POSE_SIZE = RECORD_HEADER_SIZE + 1;
+	static final int MOTOR_SIZE = RECORD_HEADER_SIZE + 2;
+
+	// The opening handshake, the upgrade response and the frame opcodes of RFC 6455
+	static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+	static final int TEXT = 0x1;
+	static final int BINARY = 0x2;
+	static final int CLOSE = 0x8;
+	static final int PING = 0x9;
+	static final int PONG = 0xA;
+	static final int FIN = 0x80;
+
+	private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	private TelemetryFormat() {
+	}
+
+	// Java 7 has no java.util.Base64
+	static String base64(byte[] data) {
+		StringBuilder builder = new StringBuilder((data.length + 2) / 3 * 4);
+		for (int i = 0; i < data.length; i += 3) {
+			int remaining = data.length - i;
+			int bits = (data[i] & 0xff) << 16 | (remaining > 1 ? (data[i + 1] & 0xff) << 8 : 0) | (remaining > 2 ? data[i + 2] & 0xff : 0);
+			builder.append(BASE64[bits >>> 18 & 0x3f]).append(BASE64[bits >>> 12 & 0x3f]);
+			builder.append(remaining > 1 ? BASE64[bits >>> 6 & 0x3f] : '=').append(remaining > 2 ? BASE64[bits & 0x3f] : '=');
+		}
+		return builder.toString();
+	}
+
+	// Size of the header of an unmasked server frame with the given payload length
+	static int frameHeaderSize(int length) {
+		return length < 126 ? 2 : length < 65536 ? 4 : 10;
+	}
+}
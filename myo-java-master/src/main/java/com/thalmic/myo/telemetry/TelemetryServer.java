@@ -0,0 +1,501 @@
+package com.thalmic.myo.telemetry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.thalmic.myo.enums.PoseType;
+import com.thalmic.myo.metrics.Histogram;
+
+// Streams a TelemetryCollector to WebSocket clients, by default on the loopback interface only. A single thread
+// accepts, reads and writes with non-blocking channels and, at the frame rate, takes the collected batch,
+// encodes it into one binary message and queues that same buffer to every client. A client holds at most
+// maxQueuedFrames messages not yet written; while it is that far behind, new batches skip it, so a slow client
+// gets fewer batches rather than slowing the others or the collector. One that has not taken a byte for the
+// stall timeout is disconnected. On opening, a client is sent a text message naming the motors and poses the
+// records refer to. A plain GET of / serves telemetry.html, a page that shows the stream; it is packaged from
+// src/main/resources next to this class, and start fails if it is missing.
+public class TelemetryServer implements Runnable {
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int MAX_REQUEST_SIZE = 8192;
+	// Keeps what the kernel buffers per client small, so a slow client shows up in its queue quickly
+	private static final int SEND_BUFFER_SIZE = 64 * 1024;
+	private static final String PAGE = "telemetry.html";
+
+	private final TelemetryCollector collector;
+	private final InetSocketAddress address;
+	private final long period;
+	private int maxQueuedFrames = 4;
+	private long stallTimeout = TimeUnit.SECONDS.toNanos(5);
+	private final List<Client> clients = new ArrayList<>();
+	private final Histogram fanOut = new Histogram();
+	private final Histogram lateness = new Histogram();
+	private Selector selector;
+	private ServerSocketChannel server;
+	private Thread thread;
+	private byte[] page;
+	private volatile boolean open;
+	private int sequence;
+	private volatile int clientCount;
+	private volatile long batchCount;
+	private volatile long byteCount;
+	private volatile long skippedCount;
+	private volatile long stalledCount;
+	private volatile long acceptedCount;
+
+	// Port 0 picks a free one, see getPort
+	public TelemetryServer(TelemetryCollector collector, int port, int rate) {
+		this(collector, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), rate);
+	}
+
+	public TelemetryServer(TelemetryCollector collector, InetSocketAddress address, int rate) {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("Frame rate must be positive, was " + rate);
+		}
+		this.collector = collector;
+		this.address = address;
+		this.period = TimeUnit.SECONDS.toNanos(1) / rate;
+	}
+
+	// Messages a client may have waiting before batches skip it, and how long it may take nothing before it is
+	// dropped. Set before start.
+	public void setBackPressure(int maxQueuedFrames, long stallTimeout, TimeUnit unit) {
+		if (maxQueuedFrames < 1) {
+			throw new IllegalArgumentException("Queued frames must be at least 1, was " + maxQueuedFrames);
+		}
+		this.maxQueuedFrames = maxQueuedFrames;
+		this.stallTimeout = unit.toNanos(stallTimeout);
+	}
+
+	public void start() throws IOException {
+		page = readPage();
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.configureBlocking(false);
+		server.socket().setReuseAddress(true);
+		server.socket().bind(address);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		open = true;
+		thread = new Thread(this, "telemetry-server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	// Disconnects the clients, stops the thread and waits for it
+	public void close() {
+		open = false;
+		if (selector != null) {
+			selector.wakeup();
+		}
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		long next = System.nanoTime() + period;
+		try {
+			while (open) {
+				long wait = next - System.nanoTime();
+				if (wait > 0) {
+					// Rounded up, select(0) would wait for ever
+					selector.select((wait + 999999) / 1000000);
+				} else {
+					selector.selectNow();
+				}
+				for (SelectionKey key : selector.selectedKeys()) {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					Client client = (Client) key.attachment();
+					if (key.isReadable()) {
+						read(client);
+					}
+					if (key.isValid() && key.isWritable()) {
+						flush(client, System.nanoTime());
+					}
+				}
+				selector.selectedKeys().clear();
+				long now = System.nanoTime();
+				if (now - next >= 0) {
+					lateness.record(now - next);
+					broadcast(now);
+					next += period;
+					// Batches missed while busy are merged into the next one
+					if (now - next >= 0) {
+						next = now + period;
+					}
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			for (Client client : new ArrayList<>(clients)) {
+				drop(client);
+			}
+			try {
+				server.close();
+				selector.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		channel.socket().setSendBufferSize(SEND_BUFFER_SIZE);
+		Client client = new Client(channel);
+		client.key = channel.register(selector, SelectionKey.OP_READ, client);
+		acceptedCount++;
+	}
+
+	private void read(Client client) {
+		int count;
+		try {
+			count = client.channel.read(client.in);
+		} catch (IOException e) {
+			count = -1;
+		}
+		if (count < 0) {
+			drop(client);
+			return;
+		}
+		if (!client.upgraded) {
+			handshake(client);
+		}
+		if (client.upgraded && client.key.isValid()) {
+			receive(client);
+		}
+	}
+
+	// Answers the HTTP request once its head is in, with the upgrade, the page or a 404
+	private void handshake(Client client) {
+		ByteBuffer in = client.in;
+		int end = -1;
+		for (int i = 3; i < in.position(); i++) {
+			if (in.get(i - 3) == '\r' && in.get(i - 2) == '\n' && in.get(i - 1) == '\r' && in.get(i) == '\n') {
+				end = i + 1;
+				break;
+			}
+		}
+		if (end < 0) {
+			if (!in.hasRemaining()) {
+				respond(client, "431 Request Header Fields Too Large", "text/plain", new byte[0]);
+			}
+			return;
+		}
+		String[] lines = new String(in.array(), 0, end, ASCII).split("\r\n");
+		Map<String, String> headers = new HashMap<>();
+		for (int i = 1; i < lines.length; i++) {
+			int colon = lines[i].indexOf(':');
+			if (colon > 0) {
+				headers.put(lines[i].substring(0, colon).trim().toLowerCase(), lines[i].substring(colon + 1).trim());
+			}
+		}
+		// The rest may already be the first frames
+		in.flip();
+		in.position(end);
+		in.compact();
+		String[] request = lines[0].split(" ");
+		String path = request.length > 1 ? request[1] : "";
+		String key = headers.get("sec-websocket-key");
+		if (request[0].equals("GET") && key != null && "websocket".equalsIgnoreCase(headers.get("upgrade"))) {
+			String response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + accept(key) + "\r\n\r\n";
+			client.upgraded = true;
+			clients.add(client);
+			clientCount = clients.size();
+			client.queue(ByteBuffer.wrap(response.getBytes(ASCII)), System.nanoTime());
+			client.queue(frame(TelemetryFormat.TEXT, describe().getBytes(UTF8)), System.nanoTime());
+			flush(client, System.nanoTime());
+		} else if (request[0].equals("GET") && (path.equals("/") || path.equals("/" + PAGE))) {
+			respond(client, "200 OK", "text/html; charset=utf-8", page);
+		} else {
+			respond(client, "404 Not Found", "text/plain", new byte[0]);
+		}
+	}
+
+	private static String accept(String key) {
+		try {
+			MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+			return TelemetryFormat.base64(sha1.digest((key + TelemetryFormat.WEBSOCKET_GUID).getBytes(ASCII)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void respond(Client client, String status, String type, byte[] body) {
+		String head = "HTTP/1.1 " + status + "\r\nContent-Type: " + type + "\r\nContent-Length: " + body.length + "\r\nConnection: close\r\n\r\n";
+		ByteBuffer response = ByteBuffer.allocate(head.length() + body.length);
+		response.put(head.getBytes(ASCII)).put(body).flip();
+		client.queue(response, System.nanoTime());
+		client.closing = true;
+		flush(client, System.nanoTime());
+	}
+
+	// Client frames: answers pings and closes, anything else is read and ignored
+	private void receive(Client client) {
+		ByteBuffer in = client.in;
+		in.flip();
+		while (in.remaining() >= 2) {
+			int start = in.position();
+			int opcode = in.get(start) & 0x0f;
+			int second = in.get(start + 1) & 0xff;
+			long length = second & 0x7f;
+			int header = 2;
+			if (length == 126) {
+				if (in.remaining() < 4) {
+					break;
+				}
+				length = in.getShort(start + 2) & 0xffff;
+				header = 4;
+			} else if (length == 127) {
+				if (in.remaining() < 10) {
+					break;
+				}
+				length = in.getLong(start + 2);
+				header = 10;
+			}
+			header += 4;
+			// Clients must mask, and nothing they send needs to be larger than the buffer
+			if ((second & 0x80) == 0 || length < 0 || length > in.capacity() - header) {
+				in.clear();
+				close(client, 1002);
+				return;
+			}
+			if (in.remaining() < header + length) {
+				break;
+			}
+			if (opcode == TelemetryFormat.CLOSE) {
+				in.clear();
+				close(client, 1000);
+				return;
+			}
+			if (opcode == TelemetryFormat.PING) {
+				byte[] payload = new byte[(int) length];
+				for (int i = 0; i < payload.length; i++) {
+					payload[i] = (byte) (in.get(start + header + i) ^ in.get(start + header - 4 + i % 4));
+				}
+				client.queue(frame(TelemetryFormat.PONG, payload), System.nanoTime());
+				flush(client, System.nanoTime());
+			}
+			in.position(start + header + (int) length);
+		}
+		in.compact();
+	}
+
+	private void close(Client client, int status) {
+		client.queue(frame(TelemetryFormat.CLOSE, new byte[] { (byte) (status >>> 8), (byte) status }), System.nanoTime());
+		client.closing = true;
+		flush(client, System.nanoTime());
+	}
+
+	// Encodes the batch once and queues it to every client that is not too far behind
+	private void broadcast(long now) {
+		TelemetryCollector.Batch batch = collector.swap();
+		if (clients.isEmpty() || !batch.records.hasRemaining()) {
+			return;
+		}
+		int length = TelemetryFormat.HEADER_SIZE + batch.records.remaining();
+		ByteBuffer message = ByteBuffer.allocate(TelemetryFormat.frameHeaderSize(length) + length);
+		putFrameHeader(message, TelemetryFormat.BINARY, length);
+		message.putInt(sequence++).putLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())).putLong(batch.base).putInt(batch.dropped);
+		message.put(batch.records).flip();
+		batchCount++;
+		for (int i = clients.size() - 1; i >= 0; i--) {
+			Client client = clients.get(i);
+			if (client.closing) {
+				continue;
+			}
+			if (!client.out.isEmpty() && now - client.progress > stallTimeout) {
+				stalledCount++;
+				drop(client);
+			} else if (client.out.size() >= maxQueuedFrames) {
+				skippedCount++;
+			} else {
+				client.queue(message.duplicate(), now);
+				flush(client, now);
+			}
+		}
+		fanOut.record(System.nanoTime() - now);
+	}
+
+	// Writes as much as the socket takes and waits for it to take more if anything is left
+	private void flush(Client client, long now) {
+		try {
+			while (!client.out.isEmpty()) {
+				ByteBuffer head = client.out.peek();
+				int written = client.channel.write(head);
+				if (written > 0) {
+					client.progress = now;
+					byteCount += written;
+				}
+				if (head.hasRemaining()) {
+					break;
+				}
+				client.out.poll();
+			}
+		} catch (IOException e) {
+			drop(client);
+			return;
+		}
+		if (client.out.isEmpty() && client.closing) {
+			drop(client);
+		} else if (client.key.isValid()) {
+			// A closing client is only written to
+			int ops = client.closing ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+			client.key.interestOps(client.out.isEmpty() ? ops : ops | SelectionKey.OP_WRITE);
+		}
+	}
+
+	private void drop(Client client) {
+		client.key.cancel();
+		try {
+			client.channel.close();
+		} catch (IOException e) {
+			// Closing anyway
+		}
+		if (clients.remove(client)) {
+			clientCount = clients.size();
+		}
+	}
+
+	private static ByteBuffer frame(int opcode, byte[] payload) {
+		ByteBuffer frame = ByteBuffer.allocate(TelemetryFormat.frameHeaderSize(payload.length) + payload.length);
+		putFrameHeader(frame, opcode, payload.length);
+		frame.put(payload).flip();
+		return frame;
+	}
+
+	private static void putFrameHeader(ByteBuffer frame, int opcode, int length) {
+		frame.put((byte) (TelemetryFormat.FIN | opcode));
+		if (length < 126) {
+			frame.put((byte) length);
+		} else if (length < 65536) {
+			frame.put((byte) 126).putShort((short) length);
+		} else {
+			frame.put((byte) 127).putLong(length);
+		}
+	}
+
+	// {"motors":[...],"poses":[...]}, the names motor and pose records refer to by index
+	private String describe() {
+		StringBuilder builder = new StringBuilder("{\"motors\":[");
+		List<String> motors = collector.getMotors();
+		for (int i = 0; i < motors.size(); i++) {
+			builder.append(i == 0 ? "\"" : ",\"").append(motors.get(i).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+		}
+		builder.append("],\"poses\":[");
+		PoseType[] poses = PoseType.values();
+		for (int i = 0; i < poses.length; i++) {
+			builder.append(i == 0 ? "\"" : ",\"").append(poses[i]).append('"');
+		}
+		return builder.append("]}").toString();
+	}
+
+	private static byte[] readPage() throws IOException {
+		try (InputStream in = TelemetryServer.class.getResourceAsStream(PAGE)) {
+			if (in == null) {
+				throw new FileNotFoundException(PAGE + " is not on the class path next to " + TelemetryServer.class.getName());
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int count;
+			while ((count = in.read(buffer)) > 0) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	public int getClientCount() {
+		return clientCount;
+	}
+
+	public long getBatchCount() {
+		return batchCount;
+	}
+
+	// Batches not sent to a client because it still had maxQueuedFrames waiting
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	// Clients dropped for taking nothing for the stall timeout
+	public long getStalledCount() {
+		return stalledCount;
+	}
+
+	// Time to queue one batch to every client, in nanoseconds
+	public Histogram getFanOut() {
+		return fanOut;
+	}
+
+	// How late each batch went out, in nanoseconds
+	public Histogram getLateness() {
+		return lateness;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d clients (%d accepted), %d batches, %.1f MB written, %d skipped, %d stalled%n  fan-out  %s%n  lateness %s", clientCount, acceptedCount, batchCount, byteCount / 1e6, skippedCount, stalledCount, fanOut.toString(TimeUnit.MILLISECONDS), lateness.toString(TimeUnit.MILLISECONDS));
+	}
+
+	private static final class Client {
+		private final SocketChannel channel;
+		private final ByteBuffer in = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+		private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+		private SelectionKey key;
+		private boolean upgraded;
+		private boolean closing;
+		// When the socket last took bytes, or the queue last became non-empty
+		private long progress;
+
+		private Client(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		private void queue(ByteBuffer buffer, long now) {
+			if (out.isEmpty()) {
+				progress = now;
+			}
+			out.add(buffer);
+		}
+	}
+}